@@ -0,0 +1,26 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 벤치마크 실행
+ * - 처리량(ops/s)과 함께 GC 프로파일러로 할당률(gc.alloc.rate, gc.alloc.rate.norm)을 출력
+ * - JMH 명령행 옵션을 그대로 받음 (예: java -jar benchmarks.jar Grouping -p size=1000)
+ */
+public class BenchmarkRunner {
+	
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
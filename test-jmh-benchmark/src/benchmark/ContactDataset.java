@@ -0,0 +1,33 @@
+package benchmark;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import dummy.Contact;
+import dummy.ContactGenerator;
+
+/**
+ * 벤치마크용 연락처 데이터
+ * - ContactGenerator 로 고정 시드 생성 : 실행마다 같은 데이터
+ * - 50M 은 힙이 충분해야 함 : 이 데이터를 쓰는 벤치마크는 @Fork(jvmArgsAppend = "-Xmx16g") 로 실행
+ *   메모리가 부족한 장비에서는 -p size=1000,100000,1000000 으로 50M 을 제외
+ */
+@State(Scope.Benchmark)
+public class ContactDataset {
+	
+	@Param({"1000", "100000", "1000000", "50000000"})
+	public int size;
+	
+	public List<Contact> contacts;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		contacts = new ContactGenerator(42L).list(size);
+	}
+
+}
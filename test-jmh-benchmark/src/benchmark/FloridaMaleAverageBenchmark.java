@@ -0,0 +1,48 @@
+package benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import dummy.Contact;
+import dummy.Gender;
+
+/**
+ * TestStreamApi2.test1OldVersion vs test2UseStreamRhamda
+ * - 플로리다에 사는 남자들의 평균나이
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(jvmArgsAppend = "-Xmx16g")		// ContactDataset 50M
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FloridaMaleAverageBenchmark {
+	
+	@Benchmark
+	public double oldVersion(ContactDataset dataset) {
+		List<Contact> contacts = dataset.contacts;
+		int manCount = 0;
+		long totalAge = 0;
+		for(Contact contact : contacts){
+			if("Florida".equals(contact.getState()) && Gender.Male == contact.getGender()){
+				manCount++;
+				totalAge += contact.getAge();
+			}
+		}
+		return manCount == 0 ? 0 : (double) totalAge / manCount;
+	}
+	
+	@Benchmark
+	public double useStreamRhamda(ContactDataset dataset) {
+		return dataset.contacts.stream()
+								.filter(c -> "Florida".equals(c.getState()))
+								.filter(c -> Gender.Male == c.getGender())
+								.mapToInt(c -> c.getAge())
+								.average()
+								.orElse(0);
+	}
+
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import dummy.Contact;
+import dummy.ContactCollectors;
+
+/**
+ * TestSreamApiExample.divideContact : HashMap 반복문 vs Collectors.groupingBy
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(jvmArgsAppend = "-Xmx16g")		// ContactDataset 50M
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GroupingBenchmark {
+	
+	@Benchmark
+	public Map<String, List<Contact>> hashMapLoop(ContactDataset dataset) {
+		Map<String, List<Contact>> contactsByState = new HashMap<>();
+		for(Contact contact : dataset.contacts){
+			if(!contactsByState.containsKey(contact.getState())){
+				contactsByState.put(contact.getState(), new ArrayList<>());
+			}
+			contactsByState.get(contact.getState()).add(contact);
+		}
+		return contactsByState;
+	}
+	
+	@Benchmark
+	public Map<String, List<Contact>> groupingBy(ContactDataset dataset) {
+		return dataset.contacts.stream()
+								.collect(Collectors.groupingBy(Contact::getState));
+	}
+	
+	@Benchmark
+	public Map<String, List<Contact>> parallelGroupingBy(ContactDataset dataset) {
+		return dataset.contacts.parallelStream()
+								.collect(Collectors.groupingBy(Contact::getState));
+	}
+	
+	@Benchmark
+	public Map<String, List<Contact>> groupingByConcurrent(ContactDataset dataset) {
+		return dataset.contacts.parallelStream()
+								.collect(Collectors.groupingByConcurrent(Contact::getState));
+	}
+	
+	@Benchmark
+	public Map<String, List<Contact>> denseGroupingBy(ContactDataset dataset) {
+		return dataset.contacts.parallelStream()
+								.collect(ContactCollectors.groupingByState());
+	}
+	
+	@Benchmark
+	public Map<String, Long> parallelCountingBy(ContactDataset dataset) {
+		return dataset.contacts.parallelStream()
+								.collect(Collectors.groupingBy(Contact::getState, Collectors.counting()));
+	}
+	
+	@Benchmark
+	public Map<String, Long> denseCountingBy(ContactDataset dataset) {
+		return dataset.contacts.parallelStream()
+								.collect(ContactCollectors.groupingByState(Collectors.counting()));
+	}
+
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * TestStreamApiClass.oldVersion vs java8Version
+ * - 5보다 큰 수의 평균
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NumberAverageBenchmark {
+	
+	@Param({"1000", "100000", "1000000", "50000000"})
+	public int size;
+	
+	private List<Integer> list;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		Integer[] numArr = new Integer[size];
+		for(int i = 0; i < size; i++){
+			numArr[i] = i % 10 + 1;
+		}
+		list = Arrays.asList(numArr);
+	}
+	
+	@Benchmark
+	public double oldVersion() {
+		long sum = 0;
+		int count = 0;
+		for(Integer num : list){
+			if(num > 5){
+				sum += num;
+				count++;
+			}
+		}
+		return (double) sum / count;
+	}
+	
+	@Benchmark
+	public double java8Version() {
+		return list.stream()
+					.filter(x -> x > 5)
+					.mapToInt(x -> x)
+					.average()
+					.getAsDouble();
+	}
+
+}
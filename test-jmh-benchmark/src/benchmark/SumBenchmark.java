@@ -0,0 +1,55 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * TestSreamApiExample.sum1To100 : for 구문 vs 순차 reduce vs 병렬 reduce
+ * - 1부터 size 까지의 합 (int 범위를 넘으므로 모든 방식을 long 으로 계산)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SumBenchmark {
+	
+	@Param({"1000", "100000", "1000000", "50000000"})
+	public int size;
+	
+	@Benchmark
+	public long forLoop() {
+		long sum = 0;
+		for(int number = 1; number <= size; number++){
+			sum += number;
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	public long sequentialReduce() {
+		return LongStream.rangeClosed(1, size)
+						.reduce(0L, (left, right) -> left + right);
+	}
+	
+	@Benchmark
+	public long parallelReduce() {
+		return LongStream.rangeClosed(1, size)
+						.parallel()
+						.reduce(0L, (l, r) -> l + r);
+	}
+	
+	@Benchmark
+	public long parallelLongSum() {
+		return LongStream.rangeClosed(1, size)
+						.parallel()
+						.sum();
+	}
+
+}
@@ -0,0 +1,61 @@
+import java.util.Arrays;
+
+/**
+ * int 특화 Operator : 박싱 없이 계산
+ * - {@link #applyAll} 은 요소마다 operate 를 인터페이스로 호출함. 한 람다만 쓰면 JIT 가 인라인하지만,
+ *   여러 람다가 같은 applyAll 을 쓰면 호출 지점이 megamorphic 이 되어 인라인/벡터화되지 않음
+ * - 큰 배열은 {@link #parallelApplyAll} 로 병렬 처리
+ */
+@FunctionalInterface
+public interface IntOperator {
+	public int operate(int op1, int op2);
+	
+	/**
+	 * out[i] = operate(a[i], b[i])
+	 */
+	public default void applyAll(int[] a, int[] b, int[] out) {
+		Operators.checkLength(a.length, b.length, out.length);
+		for(int i = 0; i < out.length; i++){
+			out[i] = operate(a[i], b[i]);
+		}
+	}
+	
+	public default int[] applyAll(int[] a, int[] b) {
+		int[] out = new int[a.length];
+		applyAll(a, b, out);
+		return out;
+	}
+	
+	/**
+	 * 병렬 버전 (Arrays.parallelSetAll : 공용 ForkJoinPool 사용)
+	 */
+	public default void parallelApplyAll(int[] a, int[] b, int[] out) {
+		Operators.checkLength(a.length, b.length, out.length);
+		Arrays.parallelSetAll(out, i -> operate(a[i], b[i]));
+	}
+	
+	/**
+	 * 모든 요소를 누적 : operate(...operate(operate(identity, values[0]), values[1])..., values[n-1])
+	 */
+	public default int reduce(int identity, int[] values) {
+		int result = identity;
+		for(int value : values){
+			result = operate(result, value);
+		}
+		return result;
+	}
+	
+	/**
+	 * 범용 Operator 로 변환
+	 */
+	public default Operator<Integer> boxed() {
+		return (op1, op2) -> operate(op1, op2);
+	}
+	
+	/**
+	 * 범용 Operator 를 int 특화 Operator 로 변환 (호출마다 박싱 발생)
+	 */
+	public static IntOperator of(Operator<Integer> operator) {
+		return (op1, op2) -> operator.operate(op1, op2);
+	}
+}
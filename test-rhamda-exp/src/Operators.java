@@ -0,0 +1,13 @@
+/**
+ * 기본형 특화 Operator 공용 도우미
+ */
+final class Operators {
+	
+	private Operators() {}
+	
+	static void checkLength(int a, int b, int out) {
+		if(a != out || b != out){
+			throw new IllegalArgumentException("length mismatch : " + a + ", " + b + ", " + out);
+		}
+	}
+}
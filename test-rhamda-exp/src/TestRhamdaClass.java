@@ -19,10 +19,10 @@ public class TestRhamdaClass {
 			}
 		};
 		// 람다식 적용
-		Comparator<Integer> compB = (o1, o2) -> o2 - o1;
+		Comparator<Integer> compB = (o1, o2) -> o2 - o1;		// 주의 : 차이가 int 범위를 넘으면 오버플로우. Integer.compare(o2, o1) 권장
 		
 		// 기본식
-		Comparator<Long> comp1 = (o1, o2) -> o2 - o1 < 0 ? -1 : 1;
+		Comparator<Long> comp1 = (o1, o2) -> o2 - o1 < 0 ? -1 : 1;	// 주의 : 같은 값이어도 0을 반환하지 않음
 		int result1 = comp1.compare((long) 5, (long) 2);
 		System.out.println("default : " + result1);
 		
@@ -56,6 +56,14 @@ public class TestRhamdaClass {
 		};
 		System.out.println("plusSquareOp : " + plusSquareOp.operate(2, 5));
 		
+		// 기본형 특화 Operator : 박싱 없이 계산, 배열 단위로 적용
+		IntOperator plusSquareIntOp = (op1, op2) -> {
+			int result = op1 + op2;
+			return result * result;
+		};
+		int[] results = plusSquareIntOp.applyAll(new int[]{1, 2, 3}, new int[]{4, 5, 6});
+		System.out.println("plusSquareIntOp : " + results[2]);
+		
 		/* 
 		 * 프리변수 : 람다식의 파라미터나 식 내부에서 선언되지 않은 변수
 		 * 프리변수의 값은 변경할 수 없음. 변경시 컴파일 에러
@@ -1,4 +1,7 @@
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.IntSummaryStatistics;
 import java.util.Iterator;
@@ -8,12 +11,24 @@ import java.util.OptionalDouble;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import collector.IntHistogram;
+import dummy.AgeStatistics;
 import dummy.Contact;
+import dummy.ContactCollectors;
+import dummy.ContactExporter;
+import dummy.ContactField;
+import dummy.ContactSearch;
 import dummy.ContactSource;
+import dummy.Gender;
+import dummy.QueryExecutor;
+import sketch.QuantileSketch;
+import sketch.Sketches;
+import sketch.SpaceSaving;
 
 /**
  * 스트림 API 활용편
@@ -52,6 +67,10 @@ public class TestSreamApiExample {
 		 */
 				// Stream API(filter, forEach) + Lambda Expressions
 				.forEach(contact -> System.out.println(contact));
+		
+		// 보조 인덱스 : 전체를 스캔하지 않고 뉴욕 주의 행만 읽음
+		new ContactSource().findByState("New York")
+				.forEach(System.out::println);
 	}
 	
 	/**
@@ -114,6 +133,13 @@ public class TestSreamApiExample {
 		// Stream API + Method Reference
 		int sumMr = IntStream.rangeClosed(1, 100)
 							.reduce(0, Integer::sum);						// Integer.sum() 메서드 구현도 가능
+		
+		// parallel() 은 JVM 공용 ForkJoinPool 에서 실행됨. 전용 풀에서 실행하면 다른 병렬 작업과 쓰레드를 나누어 쓰지 않음
+		try(QueryExecutor executor = new QueryExecutor("sum", 2)){
+			int sumPool = executor.submit(() -> IntStream.rangeClosed(1, 100).parallel().sum()).get();
+		} catch (InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+		}
 	}
 	
 	/**
@@ -163,6 +189,12 @@ public class TestSreamApiExample {
 		int minSs			= summaryStatistics.getMin();
 		int maxSs			= summaryStatistics.getMax();
 		long count			= summaryStatistics.getCount();
+		
+		/*
+		 * 추가/변경/삭제 시 갱신되는 집계 : 조회 시 스캔하지 않음
+		 */
+		AgeStatistics ageStatistics = new ContactSource().ageStatistics();
+		AgeStatistics floridaMale 	= new ContactSource().ageStatistics("Florida", Gender.Male);
 	}
 	
 	/**
@@ -214,13 +246,21 @@ public class TestSreamApiExample {
 						.map(contact -> contact.getCity())
 						.distinct()		// 중복 제거
 						.collect(Collectors.toList());
+		
+		// 중복 제거한 목록이 필요 없고 개수/빈도/분포만 볼 때 : 크기가 고정된 스케치 (병렬 스트림, 파일별 결과 병합 가능)
+		long cityCount = contacts.parallelStream().collect(Sketches.distinctCount(Contact::getCity));		// 오차 약 1%
+		List<SpaceSaving.Counter> topCities = contacts.parallelStream().collect(Sketches.topK(Contact::getCity, 100)).top(10);
+		QuantileSketch ages = contacts.stream().mapToInt(Contact::getAge)
+										.collect(() -> new QuantileSketch(0.01), QuantileSketch::add, QuantileSketch::merge);
+		double[] agePercentiles = ages.quantiles(0.5, 0.9, 0.99);		// 상대 오차 1% 이내
 		/*
 		 * Collectors : 공통 컬렉터용 팩토리 메소드를 제공
 		 */
 		// Collection 타입으로 요소를 모을 때
 		List<Contact> list = contacts.stream().collect(Collectors.toList());
 		Set<Contact> set = contacts.stream().collect(Collectors.toSet());
-		TreeSet<Contact> treeSet = contacts.stream().collect(Collectors.toCollection(TreeSet::new));
+		// Contact 는 Comparable 이 아니므로 TreeSet 에는 비교자가 필요
+		TreeSet<Contact> treeSet = contacts.stream().collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Contact::getEmail))));
 		
 		// Map 타입으로 요소를 모을 때 (K,V)
 		Map<String, String> nameBirthMap = contacts.stream().collect(Collectors.toMap(Contact::getName, Contact::getBirthday));
@@ -229,6 +269,20 @@ public class TestSreamApiExample {
 		// 스트림에 있는 모든 문자열을 서로 연결해서 모을 때
 		String joinString = contacts.stream().map(Contact::getName).collect(Collectors.joining());
 		String joinStringClf = contacts.stream().map(Contact::getName).collect(Collectors.joining("|"));
+		
+		// 파일로 내보낼 때는 전체를 String 으로 모으지 않고 채널에 바로 기록 (병렬 스트림도 순서 유지)
+		try {
+			long exported = ContactExporter.of(ContactExporter.Format.PIPE).write(contacts.parallelStream(), Paths.get("contacts.txt"));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		
+		// 이름 자동 완성 : 입력할 때마다 전체를 filter 하지 않고 인덱스에서 상위 10개만
+		ContactSource source = new ContactSource();
+		List<Contact> typeAhead = source.findAll().stream().filter(c -> c.getName().startsWith("Jo")).limit(10).collect(Collectors.toList());
+		ContactSearch search = new ContactSearch(source);
+		List<String> suggestions = search.complete(ContactField.NAME, "jo", 10);		// 대소문자 무시, 많이 쓰인 이름 먼저
+		List<Contact> smiths = search.startsWith(ContactField.EMAIL, "smith", 20);		// 이메일의 단어 시작
 	}
 	
 	/**
@@ -250,6 +304,20 @@ public class TestSreamApiExample {
 		Map<String, List<Contact>> contactByStateforStream = contacts.stream()
 																	.collect(Collectors.groupingBy(Contact::getState));
 		
+		// 병렬 스트림 : 쓰레드별로 주 id 위치에 누적한 뒤 결합 (공유 맵 경합 없음)
+		Map<String, Long> countByState = contacts.parallelStream()
+												.collect(ContactCollectors.groupingByState(Collectors.counting()));
+		
+		// 상위 n 개/중앙값 : 전체를 sorted() 하지 않고 주별로 n 개짜리 힙, 나이별 개수 배열만 유지
+		List<Contact> oldestInFlorida = contacts.parallelStream()
+												.filter(c -> c.equalsToState("Florida"))
+												.collect(ContactCollectors.oldest(10));
+		Map<String, List<Contact>> oldestByState = contacts.parallelStream()
+															.collect(ContactCollectors.topNByState(Comparator.comparingInt(Contact::getAge), 3));
+		Map<String, OptionalDouble> medianAgeByState = contacts.parallelStream()
+																.collect(ContactCollectors.medianAgeByState());
+		IntHistogram ageHistogram = contacts.parallelStream().collect(ContactCollectors.ageHistogram());
+		int ageP90 = ageHistogram.quantile(0.9);
 	}
 
 	public static void main(String[] args) {
@@ -1,19 +1,39 @@
 import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
+import csv.LineSpliterator;
+import csv.MappedCsvFile;
+import dummy.AddressBookCsv;
+import dummy.CallDispatcher;
+import dummy.ChangeFeed;
+import dummy.Condition;
 import dummy.Contact;
+import dummy.ContactEvent;
+import dummy.ContactField;
+import dummy.ContactSnapshot;
 import dummy.ContactSource;
+import dummy.ContactStore;
+import dummy.ContinuousQuery;
 import dummy.Gender;
+import dummy.MappedContactStore;
+import dummy.QueryCache;
+import flow.Flow;
+import profiler.PipelineProfiler;
+import sequence.Sequences;
 
 /**
  * 씹고 뜯고 맛보고 즐기는 스트림 API 예제
@@ -55,6 +75,15 @@ public class TestStreamApi2 {
 										.average();
 		double average = optDbl.getAsDouble();
 		System.out.println("STREAM API + RHAMDA EXP : " + average);
+		
+		// 단계별 측정 : 단계마다 들어온/나간 요소 수, 통과 비율, 소요 시간
+		PipelineProfiler profiler = new PipelineProfiler("florida-male-average");
+		OptionalDouble profiled = profiler.profile(contacts.stream())
+											.filter("florida", c -> "Florida".equals(c.getState()))
+											.filter("male", c -> Gender.Male == c.getGender())
+											.mapToInt("age", c -> c.getAge())
+											.average("average");
+		System.out.println(profiler.report());
 	}
 	
 	/**
@@ -160,6 +189,19 @@ public class TestStreamApi2 {
 								.findFirst()
 								.orElseGet(() -> Contact.empty());		// 값이 있으면 "정상 값을 반환"하고,
 																		// 없으면 "기본 값을 반환"해줘!
+		
+		/*
+		 * 4. 조건에 맞는 모든 연락처에 call() : forEach 는 한 번에 하나씩 순서대로 호출
+		 *    -> 느린 외부 호출이면 제한된 쓰레드에서 동시에, 초당 호출 수와 재시도를 설정해서 실행
+		 */
+		try(CallDispatcher dispatcher = new CallDispatcher("campaign", 32)){
+			CallDispatcher.Report report = dispatcher.dispatch(contacts.stream().filter(c -> "Florida".equals(c.getState())))
+													.batchSize(8)
+													.rateLimit(500)
+													.retry(3, 50, TimeUnit.MILLISECONDS)
+													.execute();
+			System.out.println(report);
+		}
 	}
 	
 	/**
@@ -236,7 +278,113 @@ public class TestStreamApi2 {
 				.mapToInt(c -> c.getAge())
 				.average();						// 평균 값을 "계산 후 반환" 하는 최종 연산자
 	}
-	
+
+	/**
+	 * 8. 컬럼 기반 저장소
+	 * - 연락처 객체 대신 기본형 배열(나이, 성별, 주 id)을 순차 스캔
+	 */
+	public void test8ColumnarStore(){
+		ContactStore store = new ContactSource().store();
+
+		// 기본형 배열 스캔
+		OptionalDouble average = store.averageAge("Florida", Gender.Male);
+
+		// 행 번호 스트림 + 컬럼 접근자
+		int floridaId = store.states().find("Florida");
+		OptionalDouble average2 = store.rows()
+										.filter(row -> store.stateIdAt(row) == floridaId)
+										.filter(row -> store.genderOrdinalAt(row) == Gender.Male.ordinal())
+										.map(store::ageAt)
+										.average();
+	}
+
+	/**
+	 * 9. 질의 빌더
+	 * - filter 단계들을 하나의 반복문으로 합치고, 인덱스와 유지 중인 집계를 사용
+	 */
+	public void test9ContactQuery(){
+		ContactSource source = new ContactSource();
+		OptionalDouble average = source.query()
+										.where(ContactField.STATE, Condition.eq("Florida"))
+										.and(ContactField.GENDER, Condition.eq(Gender.Male))
+										.avg(ContactField.AGE);
+		long count = source.query()
+							.where(ContactField.STATE, Condition.eq("Florida"))
+							.and(ContactField.AGE, Condition.between(20, 29))
+							.count();
+		
+		// 결과 캐시 : 같은 조건이면 람다가 달라도 같은 결과를 재사용, 관련된 연락처가 바뀔 때만 다시 계산
+		try(QueryCache cache = new QueryCache(source, 1000)){
+			Optional<Contact> first = cache.query()
+											.where(ContactField.STATE, Condition.eq("Florida"))
+											.findFirst();
+			Map<String, List<Contact>> byState = cache.query().groupingBy(ContactField.STATE);
+		}
+	}
+
+	/**
+	 * 10. 메모리 매핑 저장소
+	 * - 연락처를 파일에 매핑된 고정 크기 슬롯에 저장. 다시 열 때 파싱 없이 바로 사용
+	 */
+	public void test10MappedStore() throws IOException {
+		try(MappedContactStore store = MappedContactStore.open(Paths.get("contacts"))){
+			// 매핑된 메모리를 직접 스캔
+			OptionalDouble average = store.averageAge("Florida", Gender.Male);
+			
+			// 인덱스가 필요하면 ContactSource 로 감싸기 (전체 행을 한 번 스캔)
+			ContactSource source = new ContactSource(store);
+			Optional<Contact> first = source.findFirstByState("Florida");
+		}
+	}
+
+	/**
+	 * 11. 변경 피드와 연속 질의
+	 * - 추가/변경/삭제 이벤트를 Flow 로 구독. 구독자가 느려도 쓰기는 막히지 않음
+	 * - 연속 질의는 결과를 유지하고, 변경된 연락처만 평가해서 결과 변경분을 발행
+	 */
+	public void test11ChangeFeed(){
+		ContactSource source = new ContactSource();
+		try(ChangeFeed feed = new ChangeFeed(source)){
+			// 플로리다 남자들의 평균나이를 계속 유지
+			ContinuousQuery floridaMales = feed.continuous(source.query()
+																.where(ContactField.STATE, Condition.eq("Florida"))
+																.and(ContactField.GENDER, Condition.eq(Gender.Male)));
+			Contact contact = new Contact();
+			contact.setState("Florida");
+			contact.setGender(Gender.Male);
+			contact.setAge(40);
+			source.add(contact);
+			OptionalDouble average = OptionalDouble.of(floridaMales.ageStatistics().getAverage());
+			
+			// 뉴욕 연락처 변경분 : 버퍼 256 개, 같은 연락처의 변경은 병합, 최대 32 개씩 묶어서 전달
+			ContinuousQuery newYork = feed.continuous(source.query().where(ContactField.CITY, Condition.eq("New York")));
+			newYork.subscribeBatches(new Flow.Subscriber<List<ContactEvent>>() {
+				private Flow.Subscription subscription;
+				
+				@Override
+				public void onSubscribe(Flow.Subscription subscription) {
+					this.subscription = subscription;
+					subscription.request(1);
+				}
+
+				@Override
+				public void onNext(List<ContactEvent> events) {
+					events.forEach(System.out::println);
+					subscription.request(1);
+				}
+
+				@Override
+				public void onError(Throwable throwable) {
+					throwable.printStackTrace();
+				}
+
+				@Override
+				public void onComplete() {
+				}
+			}, 32, 256, true);
+		}
+	}
+
 	/**
 	 * 스트림 API 정리
 	 */
@@ -284,6 +432,13 @@ public class TestStreamApi2 {
 				 .map(n -> n[0])
 				 .forEach(System.out::println);
 		
+		// iterate 는 순차적으로만 다음 항을 구할 수 있어 parallel() 이 나누지 못함. 항마다 배열도 생성
+		// -> 시작 항을 바로 계산할 수 있는(jump-ahead) 수열은 구간을 나누어 병렬 처리
+		LongStream numbers2 = Sequences.counter(0, 1);									// 0 1 2 3 ...
+		LongStream fibonacci2 = Sequences.fibonacci().limit(10);						// long 피보나치 (오버플로 시 하위 64비트)
+		Stream<BigInteger> fibonacci3 = Sequences.exactFibonacci().limit(100);			// 정확한 피보나치
+		long sum = Sequences.lcg(42, 1_000_000).parallel().map(n -> n >>> 32).sum();	// 선형 합동 난수
+		
 		// Resources
 		// CSV 파일을 읽어 스트림을 생성
 		try(Stream<String> lines = Files.lines(Paths.get("addressBook.csv"))) {
@@ -294,6 +449,32 @@ public class TestStreamApi2 {
 			e.printStackTrace();
 		}
 		
+		// 메모리 매핑 CSV : 행마다 String 이나 split 배열을 만들지 않고 바이트를 직접 비교
+		try(MappedCsvFile file = MappedCsvFile.open(Paths.get("addressBook.csv"), true)) {
+			byte[] fl = "FL".getBytes(StandardCharsets.US_ASCII);
+			long count = file.count(row -> row.contains(AddressBookCsv.STATE, fl));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		
+		// 행 단위로 균등 분할되는 Spliterator : 큰 파일도 parallel() 로 나누어 처리
+		try(Stream<String> lines = LineSpliterator.lines(Paths.get("addressBook.csv"))) {
+			long count = lines.parallel()
+								.map(line -> line.split(","))
+								.filter(values -> values[6].contains("FL"))
+								.count();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		
+		// CSV 를 컬럼 기반 이진 스냅샷으로 한 번 변환해 두면, 이후에는 파싱 없이 블록 단위 병렬 로딩
+		try {
+			ContactSnapshot.convert(Paths.get("addressBook.csv"), Paths.get("addressBook.snapshot"));
+			ContactSource source = ContactSnapshot.load(Paths.get("addressBook.snapshot"));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		
 	}
 	
 	public static void main(String[] args){
@@ -1,7 +1,13 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.util.OptionalDouble;
 
+import log.AccessLogQuery;
+import log.AccessLogStatistics;
+
 public class TestStreamApiClass {
 
 	/**
@@ -98,6 +104,16 @@ public class TestStreamApiClass {
 //		}
 //	}
 	
+	// 3번 예제 : 정규식과 행마다의 객체 생성 없이 바이트 단위로 분석
+	public void accessLogSample() throws IOException{
+		Path path = Paths.get("/resources/apache.log");
+		AccessLogStatistics statistics = AccessLogQuery.of(path)
+														.status(200)
+														.analyze();
+		
+		System.out.println(statistics.count() > 0 ? statistics.mean() : "none");
+	}
+	
 	public static void main(String[] args){
 		TestStreamApiClass test = new TestStreamApiClass();
 		test.oldVersion();
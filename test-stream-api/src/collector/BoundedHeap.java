@@ -0,0 +1,86 @@
+package collector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * comparator 기준으로 가장 큰 limit 개만 유지하는 누적 컨테이너
+ * - 루트가 유지 중인 값 중 가장 작은 값인 최소 힙 : 새 값이 루트보다 클 때만 교체 (log limit)
+ * - 요소마다 들어온 순번을 함께 저장해 동점이면 먼저 들어온 값을 유지하고 앞에 둠 : sorted(reversed).limit(n) 과 같은 결과
+ * - 병합 : other 는 이 컨테이너 뒤에 나온 요소이므로 순번을 이 컨테이너가 받은 개수만큼 밀어서 넣음
+ */
+final class BoundedHeap<T> {
+	
+	private final Comparator<? super T> comparator;
+	private final Comparator<Entry<T>> order;
+	private final int limit;
+	private final PriorityQueue<Entry<T>> heap;
+	private long added;		// 이 컨테이너가 받은 요소 수 (병합한 것 포함) = 다음 순번
+	
+	BoundedHeap(Comparator<? super T> comparator, int limit) {
+		this.comparator = comparator;
+		this.limit = limit;
+		// 작을수록 먼저 버림 : 값이 작은 것, 같으면 나중에 들어온 것
+		this.order = (a, b) -> {
+			int compared = comparator.compare(a.element, b.element);
+			return compared != 0 ? compared : Long.compare(b.sequence, a.sequence);
+		};
+		this.heap = new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)), order);
+	}
+	
+	void add(T element) {
+		if(heap.size() < limit){
+			heap.add(new Entry<>(element, added));
+		} else if(limit > 0 && comparator.compare(element, heap.peek().element) > 0){
+			heap.poll();
+			heap.add(new Entry<>(element, added));
+		}
+		added++;
+	}
+	
+	/**
+	 * other 의 요소는 모두 이 컨테이너의 요소보다 뒤에 나온 것 (Collector 의 combiner 순서)
+	 */
+	BoundedHeap<T> merge(BoundedHeap<T> other) {
+		for(Entry<T> entry : other.heap){
+			offer(new Entry<>(entry.element, added + entry.sequence));
+		}
+		added += other.added;
+		return this;
+	}
+	
+	/**
+	 * 큰 값부터, 동점이면 먼저 들어온 값부터
+	 */
+	List<T> toList() {
+		List<Entry<T>> entries = new ArrayList<>(heap);
+		entries.sort(order.reversed());
+		List<T> list = new ArrayList<>(entries.size());
+		for(Entry<T> entry : entries){
+			list.add(entry.element);
+		}
+		return list;
+	}
+	
+	private void offer(Entry<T> entry) {
+		if(heap.size() < limit){
+			heap.add(entry);
+		} else if(limit > 0 && order.compare(entry, heap.peek()) > 0){
+			heap.poll();
+			heap.add(entry);
+		}
+	}
+	
+	private static final class Entry<T> {
+		final T element;
+		final long sequence;
+		
+		Entry(T element, long sequence) {
+			this.element = element;
+			this.sequence = sequence;
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+package collector;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * 키 종류가 적은 경우를 위한 병렬 그룹핑 Collector
+ * - 키는 공유 사전에서 작은 정수 id 로 바뀜 (처음 한 번만 등록, 이후는 잠금 없는 조회)
+ * - 사전은 supplier() 호출(= collect 한 번)마다 새로 만듦 : Collector 를 재사용해도 이전 키가 쌓이지 않음
+ * - 각 쓰레드는 자기 컨테이너의 id 위치 배열에만 누적 : 공유 맵에 대한 경합 없음
+ * - 결합은 id 별로 downstream 의 combiner 호출 : 비용이 키 종류 수에만 비례
+ *   (사전이 다른 컨테이너끼리는 키로 id 를 맞춰서 결합)
+ * - 결과는 Collectors.groupingBy 와 같은 Map (HashMap)
+ */
+public class DenseGroupingCollector<T, K, A, D> implements Collector<T, DenseGroupingCollector.Partitions<K, A>, Map<K, D>> {
+	
+	private final Function<? super T, ? extends K> classifier;
+	private final Collector<? super T, A, D> downstream;
+	
+	DenseGroupingCollector(Function<? super T, ? extends K> classifier, Collector<? super T, A, D> downstream) {
+		this.classifier = classifier;
+		this.downstream = downstream;
+	}
+	
+	/**
+	 * 키 -> id 사전. 한 번의 collect 에 쓰는 모든 컨테이너가 공유
+	 */
+	static final class Keys<K> {
+		private final ConcurrentHashMap<K, Integer> ids = new ConcurrentHashMap<>();
+		private final AtomicInteger nextId = new AtomicInteger();
+		
+		int idOf(K key) {
+			Integer id = ids.get(key);
+			if(id == null){
+				id = ids.computeIfAbsent(key, k -> nextId.getAndIncrement());
+			}
+			return id;
+		}
+	}
+	
+	/**
+	 * 쓰레드(분할)별 컨테이너 : 키 id 위치에 downstream 컨테이너
+	 */
+	public static final class Partitions<K, A> {
+		private final Keys<K> keys;
+		private Object[] containers = new Object[16];
+		
+		Partitions(Keys<K> keys) {
+			this.keys = keys;
+		}
+		
+		@SuppressWarnings("unchecked")
+		A get(int id) {
+			return id < containers.length ? (A) containers[id] : null;
+		}
+		
+		void set(int id, A container) {
+			if(id >= containers.length){
+				Object[] grown = new Object[Math.max(containers.length * 2, id + 1)];
+				System.arraycopy(containers, 0, grown, 0, containers.length);
+				containers = grown;
+			}
+			containers[id] = container;
+		}
+		
+		int size() {
+			return containers.length;
+		}
+	}
+
+	@Override
+	public Supplier<Partitions<K, A>> supplier() {
+		Keys<K> keys = new Keys<>();
+		return () -> new Partitions<>(keys);
+	}
+
+	@Override
+	public BiConsumer<Partitions<K, A>, T> accumulator() {
+		Supplier<A> downstreamSupplier = downstream.supplier();
+		BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+		return (partitions, element) -> {
+			int id = partitions.keys.idOf(Objects.requireNonNull(classifier.apply(element), "element cannot be mapped to a null key"));
+			A container = partitions.get(id);
+			if(container == null){
+				container = downstreamSupplier.get();
+				partitions.set(id, container);
+			}
+			downstreamAccumulator.accept(container, element);
+		};
+	}
+
+	@Override
+	public BinaryOperator<Partitions<K, A>> combiner() {
+		BinaryOperator<A> downstreamCombiner = downstream.combiner();
+		return (left, right) -> {
+			if(left.keys == right.keys){
+				for(int id = 0; id < right.size(); id++){
+					combine(left, id, right.get(id), downstreamCombiner);
+				}
+			} else {
+				right.keys.ids.forEach((key, id) -> combine(left, left.keys.idOf(key), right.get(id), downstreamCombiner));
+			}
+			return left;
+		};
+	}
+
+	@Override
+	public Function<Partitions<K, A>, Map<K, D>> finisher() {
+		Function<A, D> downstreamFinisher = downstream.finisher();
+		return partitions -> {
+			Map<K, D> result = new HashMap<>();
+			partitions.keys.ids.forEach((key, id) -> {
+				A container = partitions.get(id);
+				if(container != null){
+					result.put(key, downstreamFinisher.apply(container));
+				}
+			});
+			return result;
+		};
+	}
+
+	@Override
+	public Set<Characteristics> characteristics() {
+		return Collections.emptySet();
+	}
+	
+	private static <K, A> void combine(Partitions<K, A> left, int id, A container, BinaryOperator<A> downstreamCombiner) {
+		if(container == null){
+			return;
+		}
+		A existing = left.get(id);
+		left.set(id, existing == null ? container : downstreamCombiner.apply(existing, container));
+	}
+
+}
@@ -0,0 +1,28 @@
+package collector;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * 그룹핑 Collector 팩토리
+ */
+public class GroupingCollectors {
+	
+	private GroupingCollectors() {}
+	
+	/**
+	 * Collectors.groupingBy 와 같은 결과. 병렬 스트림에서 쓰레드별 조밀한 배열에 누적
+	 * @see DenseGroupingCollector
+	 */
+	public static <T, K, A, D> Collector<T, ?, Map<K, D>> denseGroupingBy(Function<? super T, ? extends K> classifier, Collector<? super T, A, D> downstream) {
+		return new DenseGroupingCollector<>(classifier, downstream);
+	}
+	
+	public static <T, K> Collector<T, ?, Map<K, List<T>>> denseGroupingBy(Function<? super T, ? extends K> classifier) {
+		return denseGroupingBy(classifier, Collectors.toList());
+	}
+
+}
@@ -0,0 +1,133 @@
+package collector;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * 범위가 정해진 정수 키(나이 등)의 값별 개수
+ * - [min, max] 는 개수 배열, 범위 밖의 값은 TreeMap 으로 관리 (값이 범위를 벗어나도 결과는 정확)
+ * - k 번째 값, 중앙값, 분위수를 정렬 없이 개수 배열을 한 번 훑어서 구함 : 메모리는 범위 크기에만 비례
+ * - 병합 : 값별 개수 합
+ */
+public final class IntHistogram {
+	
+	private final int min;
+	private final long[] counts;
+	private final TreeMap<Integer, Long> outliers = new TreeMap<>();
+	private long count;
+	
+	/**
+	 * @param min 개수 배열의 최솟값
+	 * @param max 개수 배열의 최댓값
+	 */
+	public IntHistogram(int min, int max) {
+		if(max < min || (long) max - min >= Integer.MAX_VALUE){
+			throw new IllegalArgumentException("invalid range : " + min + " ~ " + max);
+		}
+		this.min = min;
+		this.counts = new long[max - min + 1];
+	}
+	
+	public void add(int value) {
+		add(value, 1);
+	}
+	
+	/**
+	 * other 의 개수를 합침. 범위가 달라도 됨
+	 */
+	public IntHistogram merge(IntHistogram other) {
+		for(int i = 0; i < other.counts.length; i++){
+			long n = other.counts[i];
+			if(n > 0){
+				add(other.min + i, n);
+			}
+		}
+		for(Map.Entry<Integer, Long> outlier : other.outliers.entrySet()){
+			add(outlier.getKey(), outlier.getValue());
+		}
+		return this;
+	}
+	
+	public long getCount() {
+		return count;
+	}
+	
+	/**
+	 * value 의 개수
+	 */
+	public long count(int value) {
+		long index = (long) value - min;
+		if(index >= 0 && index < counts.length){
+			return counts[(int) index];
+		}
+		return outliers.getOrDefault(value, 0L);
+	}
+	
+	/**
+	 * 작은 값부터 k 번째 값 (0 부터)
+	 * @throws NoSuchElementException k 가 개수 이상일 때
+	 */
+	public int kth(long k) {
+		if(k < 0 || k >= count){
+			throw new NoSuchElementException("k = " + k + ", count = " + count);
+		}
+		long seen = 0;
+		for(Map.Entry<Integer, Long> outlier : outliers.headMap(min).entrySet()){
+			seen += outlier.getValue();
+			if(seen > k){
+				return outlier.getKey();
+			}
+		}
+		for(int i = 0; i < counts.length; i++){
+			seen += counts[i];
+			if(seen > k){
+				return min + i;
+			}
+		}
+		for(Map.Entry<Integer, Long> outlier : outliers.tailMap(min, false).entrySet()){
+			seen += outlier.getValue();
+			if(seen > k){
+				return outlier.getKey();
+			}
+		}
+		throw new IllegalStateException("count mismatch : " + count);
+	}
+	
+	/**
+	 * 중앙값. 개수가 짝수면 가운데 두 값의 평균
+	 * @throws NoSuchElementException 값이 없을 때
+	 */
+	public double median() {
+		if(count % 2 == 1){
+			return kth(count / 2);
+		}
+		return ((double) kth(count / 2 - 1) + kth(count / 2)) / 2;
+	}
+	
+	/**
+	 * q 분위수 (0 = 최솟값, 1 = 최댓값). 작은 값부터 floor(q * (개수 - 1)) 번째 값
+	 */
+	public int quantile(double q) {
+		if(q < 0 || q > 1){
+			throw new IllegalArgumentException("q must be 0 ~ 1 : " + q);
+		}
+		return kth((long) Math.floor(q * (count - 1)));
+	}
+	
+	private void add(int value, long n) {
+		long index = (long) value - min;
+		if(index >= 0 && index < counts.length){
+			counts[(int) index] += n;
+		} else {
+			outliers.merge(value, n, Long::sum);
+		}
+		count += n;
+	}
+
+	@Override
+	public String toString() {
+		return "IntHistogram [count=" + count + (count > 0 ? ", min=" + kth(0) + ", median=" + median() + ", max=" + kth(count - 1) : "") + "]";
+	}
+
+}
@@ -0,0 +1,67 @@
+package collector;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * 순서 통계 Collector 팩토리
+ * - sorted().limit(n) 처럼 전체를 정렬하지 않고 쓰레드별로 n 개짜리 힙만 유지 : 메모리 O(n)
+ * - 정수 키의 k 번째 값/중앙값은 값별 개수 배열로 정확하게 구함 : 메모리 O(키 범위)
+ * - groupingBy 의 downstream 으로 쓰면 그룹별 상위 n 개, 그룹별 중앙값
+ * - 동점인 요소는 먼저 나온 것이 남고 앞에 옴 (병렬 스트림에서도 만난 순서 기준) : sorted().limit(n) 과 같은 목록
+ */
+public class OrderCollectors {
+	
+	private OrderCollectors() {}
+	
+	/**
+	 * comparator 기준 가장 큰 n 개 (큰 값부터). sorted(comparator.reversed()).limit(n) 과 같은 결과
+	 */
+	public static <T> Collector<T, ?, List<T>> topN(Comparator<? super T> comparator, int n) {
+		if(n < 0){
+			throw new IllegalArgumentException("n must be >= 0 : " + n);
+		}
+		return Collector.of(() -> new BoundedHeap<T>(comparator, n), BoundedHeap::add, BoundedHeap::merge, BoundedHeap::toList);
+	}
+	
+	/**
+	 * comparator 기준 가장 작은 n 개 (작은 값부터). sorted(comparator).limit(n) 과 같은 결과
+	 */
+	public static <T> Collector<T, ?, List<T>> bottomN(Comparator<? super T> comparator, int n) {
+		return topN(Collections.reverseOrder(comparator), n);
+	}
+	
+	/**
+	 * comparator 기준 작은 값부터 k 번째 (0 부터). 요소가 k 개 이하면 empty
+	 */
+	public static <T> Collector<T, ?, Optional<T>> kthSmallest(Comparator<? super T> comparator, int k) {
+		if(k < 0){
+			throw new IllegalArgumentException("k must be >= 0 : " + k);
+		}
+		return Collectors.collectingAndThen(bottomN(comparator, k + 1), list -> list.size() > k ? Optional.of(list.get(k)) : Optional.empty());
+	}
+	
+	/**
+	 * key 의 값별 개수. [min, max] 는 배열, 범위 밖의 값도 정확하게 셈
+	 * @see IntHistogram
+	 */
+	public static <T> Collector<T, ?, IntHistogram> intHistogram(ToIntFunction<? super T> key, int min, int max) {
+		return Collector.of(() -> new IntHistogram(min, max), (histogram, t) -> histogram.add(key.applyAsInt(t)), IntHistogram::merge,
+				Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+	}
+	
+	/**
+	 * key 의 중앙값. 요소가 없으면 empty
+	 */
+	public static <T> Collector<T, ?, OptionalDouble> median(ToIntFunction<? super T> key, int min, int max) {
+		return Collectors.collectingAndThen(intHistogram(key, min, max),
+				histogram -> histogram.getCount() == 0 ? OptionalDouble.empty() : OptionalDouble.of(histogram.median()));
+	}
+
+}
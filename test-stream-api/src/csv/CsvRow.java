@@ -0,0 +1,144 @@
+package csv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * CSV 한 행에 대한 재사용 뷰 (flyweight)
+ * - 필드는 매핑된 버퍼의 (offset, length) 조각으로만 표현
+ * - 문자열은 {@link #getString(int)} 호출 시에만 생성
+ * - 다음 행으로 이동하면 값이 바뀌므로 보관하지 말 것
+ */
+public final class CsvRow {
+	
+	private ByteBuffer buffer;
+	private int[] offsets = new int[16];
+	private int[] lengths = new int[16];
+	private int fieldCount;
+	
+	CsvRow() {}
+	
+	/**
+	 * buffer 의 [start, end) 구간을 delimiter 로 분할해서 현재 행으로 설정
+	 */
+	void reset(ByteBuffer buffer, int start, int end, byte delimiter) {
+		this.buffer = buffer;
+		if(end > start && buffer.get(end - 1) == '\r'){
+			end--;
+		}
+		int count = 0;
+		int fieldStart = start;
+		for(int i = start; i < end; i++){
+			if(buffer.get(i) == delimiter){
+				count = addField(count, fieldStart, i);
+				fieldStart = i + 1;
+			}
+		}
+		this.fieldCount = addField(count, fieldStart, end);
+	}
+	
+	private int addField(int index, int start, int end) {
+		if(index == offsets.length){
+			offsets = Arrays.copyOf(offsets, index * 2);
+			lengths = Arrays.copyOf(lengths, index * 2);
+		}
+		offsets[index] = start;
+		lengths[index] = end - start;
+		return index + 1;
+	}
+	
+	public int fieldCount() {
+		return fieldCount;
+	}
+	
+	public int offset(int field) {
+		checkField(field);
+		return offsets[field];
+	}
+	
+	public int length(int field) {
+		checkField(field);
+		return lengths[field];
+	}
+	
+	public byte byteAt(int field, int index) {
+		return buffer.get(offset(field) + index);
+	}
+	
+	/**
+	 * 필드 값이 주어진 바이트열과 같은지 비교 (ASCII/UTF-8 바이트 단위)
+	 */
+	public boolean equalsTo(int field, byte[] value) {
+		int length = length(field);
+		if(length != value.length){
+			return false;
+		}
+		int offset = offsets[field];
+		for(int i = 0; i < length; i++){
+			if(buffer.get(offset + i) != value[i]){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * 필드 값이 주어진 바이트열을 포함하는지 확인
+	 */
+	public boolean contains(int field, byte[] value) {
+		int length = length(field);
+		int offset = offsets[field];
+		int last = length - value.length;
+		for(int i = 0; i <= last; i++){
+			int j = 0;
+			while(j < value.length && buffer.get(offset + i + j) == value[j]){
+				j++;
+			}
+			if(j == value.length){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * 필드 값을 10진수 정수로 해석. 빈 필드는 0
+	 */
+	public int parseInt(int field) {
+		int length = length(field);
+		int offset = offsets[field];
+		int i = 0;
+		boolean negative = false;
+		if(length > 0 && buffer.get(offset) == '-'){
+			negative = true;
+			i++;
+		}
+		int value = 0;
+		for(; i < length; i++){
+			int digit = buffer.get(offset + i) - '0';
+			if(digit < 0 || digit > 9){
+				throw new NumberFormatException("not a number in field " + field);
+			}
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+	
+	public String getString(int field) {
+		int length = length(field);
+		byte[] bytes = new byte[length];
+		int offset = offsets[field];
+		for(int i = 0; i < length; i++){
+			bytes[i] = buffer.get(offset + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private void checkField(int field) {
+		if(field < 0 || field >= fieldCount){
+			throw new IndexOutOfBoundsException("field " + field + ", count " + fieldCount);
+		}
+	}
+
+}
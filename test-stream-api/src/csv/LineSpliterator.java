@@ -0,0 +1,213 @@
+package csv;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 파일의 바이트 구간을 분할하는 행 단위 Spliterator
+ * - trySplit() 은 남은 구간을 절반으로 나누고, 나눈 지점을 다음 행의 시작으로 맞춤
+ * - 각 분할은 FileChannel 의 위치 지정 읽기(read(ByteBuffer, long))로 독립적으로 읽음
+ * - Files.lines() 와 달리 parallel() 시 구간이 균등하게 나뉨
+ */
+public class LineSpliterator implements Spliterator<String> {
+	
+	/** 이보다 작은 구간은 분할하지 않음 */
+	public static final long DEFAULT_MIN_SPLIT_SIZE = 1 << 20;
+	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int AVERAGE_LINE_LENGTH = 80;
+	
+	private final FileChannel channel;
+	private final long minSplitSize;
+	private long position;		// 다음에 읽을 파일 위치
+	private final long end;
+	
+	private ByteBuffer buffer;
+	private byte[] line = new byte[256];
+	
+	LineSpliterator(FileChannel channel, long start, long end, long minSplitSize) {
+		this.channel = channel;
+		this.position = start;
+		this.end = end;
+		this.minSplitSize = minSplitSize;
+	}
+	
+	/**
+	 * 파일의 각 행으로 구성된 스트림. 스트림을 닫으면 파일도 닫힘
+	 */
+	public static Stream<String> lines(Path path) throws IOException {
+		return lines(path, DEFAULT_MIN_SPLIT_SIZE);
+	}
+	
+	public static Stream<String> lines(Path path, long minSplitSize) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			LineSpliterator spliterator = new LineSpliterator(channel, 0, channel.size(), Math.max(minSplitSize, 1));
+			return StreamSupport.stream(spliterator, false)
+								.onClose(() -> {
+									try {
+										channel.close();
+									} catch (IOException e) {
+										throw new UncheckedIOException(e);
+									}
+								});
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super String> action) {
+		String next = readLine();
+		if(next == null){
+			return false;
+		}
+		action.accept(next);
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super String> action) {
+		String next;
+		while((next = readLine()) != null){
+			action.accept(next);
+		}
+	}
+
+	/**
+	 * 남은 구간의 앞쪽 절반을 새 Spliterator 로 반환
+	 * - 이미 읽어둔 버퍼가 남아 있거나 구간이 작으면 분할하지 않음
+	 */
+	@Override
+	public Spliterator<String> trySplit() {
+		if(buffer != null && buffer.hasRemaining()){
+			return null;
+		}
+		long remaining = end - position;
+		if(remaining < minSplitSize * 2){
+			return null;
+		}
+		long middle = alignToLineStart(position + remaining / 2);
+		if(middle <= position || middle >= end){
+			return null;
+		}
+		LineSpliterator prefix = new LineSpliterator(channel, position, middle, minSplitSize);
+		position = middle;
+		return prefix;
+	}
+
+	/**
+	 * 남은 바이트 수를 평균 행 길이로 나눈 추정치
+	 */
+	@Override
+	public long estimateSize() {
+		long bytes = end - position + (buffer == null ? 0 : buffer.remaining());
+		return (bytes + AVERAGE_LINE_LENGTH - 1) / AVERAGE_LINE_LENGTH;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL | IMMUTABLE;
+	}
+	
+	/**
+	 * offset 이 행 시작이면 그대로, 아니면 다음 행의 시작 위치를 반환 (없으면 end)
+	 */
+	private long alignToLineStart(long offset) {
+		ByteBuffer probe = ByteBuffer.allocate(4096);
+		long at = offset - 1;
+		while(at < end){
+			probe.clear();
+			int read = read(probe, at);
+			if(read <= 0){
+				break;
+			}
+			for(int i = 0; i < read; i++){
+				if(probe.get(i) == '\n'){
+					return at + i + 1;
+				}
+			}
+			at += read;
+		}
+		return end;
+	}
+	
+	private String readLine() {
+		int length = 0;
+		while(true){
+			if(buffer == null || !buffer.hasRemaining()){
+				if(!fill()){
+					return length == 0 ? null : decode(length);		// 마지막 행에 개행 문자가 없는 경우
+				}
+			}
+			int start = buffer.position();
+			int limit = buffer.limit();
+			for(int i = start; i < limit; i++){
+				if(buffer.get(i) == '\n'){
+					length = append(start, i, length);
+					buffer.position(i + 1);
+					return decode(length);
+				}
+			}
+			length = append(start, limit, length);
+			buffer.position(limit);
+		}
+	}
+	
+	private int append(int from, int to, int length) {
+		int count = to - from;
+		if(length + count > line.length){
+			line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+		}
+		for(int i = 0; i < count; i++){
+			line[length + i] = buffer.get(from + i);
+		}
+		return length + count;
+	}
+	
+	private String decode(int length) {
+		if(length > 0 && line[length - 1] == '\r'){
+			length--;
+		}
+		return new String(line, 0, length, StandardCharsets.UTF_8);
+	}
+	
+	private boolean fill() {
+		if(position >= end){
+			return false;
+		}
+		if(buffer == null){
+			buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		}
+		buffer.clear();
+		buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+		int read = read(buffer, position);
+		if(read <= 0){
+			buffer.limit(0);
+			return false;
+		}
+		position += read;
+		buffer.flip();
+		return true;
+	}
+	
+	private int read(ByteBuffer target, long offset) {
+		try {
+			return channel.read(target, offset);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
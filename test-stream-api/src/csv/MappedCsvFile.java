@@ -0,0 +1,80 @@
+package csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 메모리 매핑 CSV 파일
+ * - {@link MappedLines} 로 파일을 구간 단위로 매핑하고 바이트를 직접 스캔
+ * - 행마다 String 이나 split 배열을 만들지 않고, 하나의 {@link CsvRow} 를 재사용
+ * - 따옴표(quote) 처리는 하지 않음 : 구분자는 필드 값에 포함되지 않아야 함
+ */
+public class MappedCsvFile implements Closeable {
+	
+	private final MappedLines lines;
+	private final byte delimiter;
+	private final boolean header;
+	
+	MappedCsvFile(MappedLines lines, byte delimiter, boolean header) {
+		this.lines = lines;
+		this.delimiter = delimiter;
+		this.header = header;
+	}
+	
+	/**
+	 * 쉼표로 구분된 CSV 파일을 연다
+	 * @param header 첫 행이 헤더이면 true (건너뜀)
+	 */
+	public static MappedCsvFile open(Path path, boolean header) throws IOException {
+		return open(path, (byte) ',', header);
+	}
+	
+	public static MappedCsvFile open(Path path, byte delimiter, boolean header) throws IOException {
+		return new MappedCsvFile(MappedLines.open(path), delimiter, header);
+	}
+	
+	/**
+	 * 모든 행을 순서대로 전달. 전달되는 CsvRow 는 재사용되는 객체
+	 */
+	public void forEachRow(Consumer<? super CsvRow> action) throws IOException {
+		CsvRow row = new CsvRow();
+		boolean[] skip = {header};
+		lines.forEachLine((buffer, start, end) -> {
+			if(skip[0]){
+				skip[0] = false;
+				return;
+			}
+			if(end == start || (end == start + 1 && buffer.get(start) == '\r')){
+				return;		// 빈 행
+			}
+			row.reset(buffer, start, end, delimiter);
+			action.accept(row);
+		});
+	}
+	
+	/**
+	 * 조건을 만족하는 행 개수. 행마다 객체를 생성하지 않음
+	 */
+	public long count(Predicate<? super CsvRow> filter) throws IOException {
+		long[] count = new long[1];
+		forEachRow(row -> {
+			if(filter.test(row)){
+				count[0]++;
+			}
+		});
+		return count[0];
+	}
+	
+	public long count() throws IOException {
+		return count(row -> true);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		lines.close();
+	}
+
+}
@@ -0,0 +1,136 @@
+package csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 메모리 매핑 파일의 행 단위 스캔
+ * - 파일을 구간(segment) 단위로 매핑하므로 메모리보다 큰 파일도 처리 가능
+ * - 행은 (buffer, start, end) 로만 전달하고 객체를 만들지 않음
+ * - {@link #split(int)} 로 행 경계에 맞춘 구간을 나누어 병렬로 처리할 수 있음
+ */
+public class MappedLines implements Closeable {
+	
+	/** 한 번에 매핑하는 최대 크기. 한 행은 이보다 짧아야 함 */
+	static final int MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+	
+	/**
+	 * 행 처리기. end 는 개행 문자를 제외한 위치 (끝의 '\r' 는 포함될 수 있음)
+	 */
+	@FunctionalInterface
+	public interface LineHandler {
+		void line(ByteBuffer buffer, int start, int end);
+	}
+	
+	private final FileChannel channel;
+	private final int segmentSize;
+	
+	MappedLines(FileChannel channel, int segmentSize) {
+		this.channel = channel;
+		this.segmentSize = segmentSize;
+	}
+	
+	public static MappedLines open(Path path) throws IOException {
+		return new MappedLines(FileChannel.open(path, StandardOpenOption.READ), MAX_SEGMENT_SIZE);
+	}
+	
+	public long size() throws IOException {
+		return channel.size();
+	}
+	
+	/**
+	 * 모든 행을 순서대로 전달
+	 */
+	public void forEachLine(LineHandler handler) throws IOException {
+		forEachLine(0, channel.size(), handler);
+	}
+	
+	/**
+	 * [from, to) 구간의 행을 순서대로 전달. from 과 to 는 행의 시작 위치여야 함
+	 */
+	public void forEachLine(long from, long to, LineHandler handler) throws IOException {
+		long position = from;
+		while(position < to){
+			int length = (int) Math.min(segmentSize, to - position);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			int end = length;
+			if(position + length < to){
+				// 구간 끝에 걸친 행은 다음 구간에서 처리
+				end = lastLineEnd(buffer, length);
+				if(end == 0){
+					throw new IOException("line longer than " + segmentSize + " bytes at " + position);
+				}
+			}
+			int lineStart = 0;
+			for(int i = 0; i < end; i++){
+				if(buffer.get(i) == '\n'){
+					handler.line(buffer, lineStart, i);
+					lineStart = i + 1;
+				}
+			}
+			if(lineStart < end){
+				handler.line(buffer, lineStart, end);
+			}
+			position += end;
+		}
+	}
+	
+	/**
+	 * 파일을 행 경계에 맞춘 최대 parts 개의 구간으로 나눔
+	 * @return 구간 경계 (첫 값 0, 마지막 값 파일 크기)
+	 */
+	public long[] split(int parts) throws IOException {
+		long size = channel.size();
+		long[] bounds = new long[parts + 1];
+		int count = 1;
+		ByteBuffer probe = ByteBuffer.allocate(4096);
+		for(int i = 1; i < parts; i++){
+			long bound = alignToLineStart(Math.max(size * i / parts, bounds[count - 1] + 1), size, probe);
+			if(bound < size && bound > bounds[count - 1]){
+				bounds[count++] = bound;
+			}
+		}
+		bounds[count++] = size;
+		long[] result = new long[count];
+		System.arraycopy(bounds, 0, result, 0, count);
+		return result;
+	}
+	
+	private long alignToLineStart(long offset, long size, ByteBuffer probe) throws IOException {
+		long at = offset - 1;
+		while(at < size){
+			probe.clear();
+			int read = channel.read(probe, at);
+			if(read <= 0){
+				break;
+			}
+			for(int i = 0; i < read; i++){
+				if(probe.get(i) == '\n'){
+					return at + i + 1;
+				}
+			}
+			at += read;
+		}
+		return size;
+	}
+	
+	private static int lastLineEnd(MappedByteBuffer buffer, int length) {
+		for(int i = length - 1; i >= 0; i--){
+			if(buffer.get(i) == '\n'){
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
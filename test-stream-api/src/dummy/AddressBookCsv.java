@@ -0,0 +1,103 @@
+package dummy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import csv.CsvRow;
+import csv.MappedCsvFile;
+
+/**
+ * addressBook.csv 형식
+ * - name,email,gender,age,birthday,city,state
+ * - 첫 행은 헤더
+ */
+public class AddressBookCsv {
+	
+	public static final int NAME = 0;
+	public static final int EMAIL = 1;
+	public static final int GENDER = 2;
+	public static final int AGE = 3;
+	public static final int BIRTHDAY = 4;
+	public static final int CITY = 5;
+	public static final int STATE = 6;
+	
+	public static final String HEADER = "name,email,gender,age,birthday,city,state";
+	
+	private static final byte[] MALE = Gender.Male.name().getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] FEMALE = Gender.Female.name().getBytes(StandardCharsets.US_ASCII);
+	
+	private AddressBookCsv() {}
+	
+	/**
+	 * CSV 파일의 모든 연락처를 ContactSource 에 추가하고 추가된 개수를 반환
+	 */
+	public static long load(Path path, ContactSource source) throws IOException {
+		try(MappedCsvFile file = MappedCsvFile.open(path, true)){
+			long[] count = new long[1];
+			file.forEachRow(row -> {
+				source.add(toContact(row));
+				count[0]++;
+			});
+			return count[0];
+		}
+	}
+	
+	public static ContactSource load(Path path) throws IOException {
+		ContactSource source = new ContactSource();
+		load(path, source);
+		return source;
+	}
+	
+	/**
+	 * 주 필드가 state 를 포함하는 행 개수. 행마다 문자열을 생성하지 않음
+	 */
+	public static long countByState(Path path, String state) throws IOException {
+		byte[] value = state.getBytes(StandardCharsets.UTF_8);
+		try(MappedCsvFile file = MappedCsvFile.open(path, true)){
+			return file.count(row -> row.contains(STATE, value));
+		}
+	}
+	
+	public static Contact toContact(CsvRow row) {
+		Contact contact = new Contact();
+		contact.setName(row.getString(NAME));
+		contact.setEmail(row.getString(EMAIL));
+		contact.setGender(parseGender(row));
+		contact.setAge(row.parseInt(AGE));
+		contact.setBirthday(row.getString(BIRTHDAY));
+		contact.setCity(row.getString(CITY));
+		contact.setState(row.getString(STATE));
+		return contact;
+	}
+	
+	/**
+	 * 연락처를 CSV 한 행으로 변환 (개행 문자 제외)
+	 */
+	public static String toLine(Contact contact) {
+		StringBuilder line = new StringBuilder(96);
+		line.append(nullToEmpty(contact.getName())).append(',')
+			.append(nullToEmpty(contact.getEmail())).append(',')
+			.append(contact.getGender() == null ? "" : contact.getGender().name()).append(',')
+			.append(contact.getAge()).append(',')
+			.append(nullToEmpty(contact.getBirthday())).append(',')
+			.append(nullToEmpty(contact.getCity())).append(',')
+			.append(nullToEmpty(contact.getState()));
+		return line.toString();
+	}
+	
+	private static String nullToEmpty(String value) {
+		return value == null ? "" : value;
+	}
+	
+	public static Gender parseGender(CsvRow row) {
+		if(row.equalsTo(GENDER, MALE)){
+			return Gender.Male;
+		}
+		if(row.equalsTo(GENDER, FEMALE)){
+			return Gender.Female;
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,108 @@
+package dummy;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 추가/삭제가 가능한 나이 집계
+ * - 0 ~ 255 세는 나이별 개수 배열로, 범위 밖의 값은 TreeMap 으로 관리
+ * - 삭제로 최소/최대 값이 사라지면 개수 배열을 따라 다음 값을 찾음 (범위가 고정이므로 상수 시간)
+ */
+class AgeAccumulator {
+	
+	private static final int HISTOGRAM_SIZE = 256;
+	
+	private final int[] histogram = new int[HISTOGRAM_SIZE];
+	private final TreeMap<Integer, Integer> outliers = new TreeMap<>();
+	private long count;
+	private long sum;
+	private int min = Integer.MAX_VALUE;
+	private int max = Integer.MIN_VALUE;
+	
+	void add(int age) {
+		if(inRange(age)){
+			histogram[age]++;
+		} else {
+			outliers.merge(age, 1, Integer::sum);
+		}
+		count++;
+		sum += age;
+		min = Math.min(min, age);
+		max = Math.max(max, age);
+	}
+	
+	void remove(int age) {
+		if(inRange(age)){
+			if(histogram[age] == 0){
+				throw new IllegalStateException("age " + age + " not accumulated");
+			}
+			histogram[age]--;
+		} else {
+			Integer outlier = outliers.get(age);
+			if(outlier == null){
+				throw new IllegalStateException("age " + age + " not accumulated");
+			}
+			if(outlier == 1){
+				outliers.remove(age);
+			} else {
+				outliers.put(age, outlier - 1);
+			}
+		}
+		count--;
+		sum -= age;
+		if(count == 0){
+			min = Integer.MAX_VALUE;
+			max = Integer.MIN_VALUE;
+			return;
+		}
+		if(age == min && !contains(age)){
+			min = nextMin();
+		}
+		if(age == max && !contains(age)){
+			max = nextMax();
+		}
+	}
+	
+	boolean isEmpty() {
+		return count == 0;
+	}
+	
+	AgeStatistics toStatistics() {
+		return count == 0 ? AgeStatistics.EMPTY : new AgeStatistics(count, sum, min, max);
+	}
+	
+	private boolean contains(int age) {
+		return inRange(age) ? histogram[age] > 0 : outliers.containsKey(age);
+	}
+	
+	private int nextMin() {
+		Map.Entry<Integer, Integer> negative = outliers.firstEntry();
+		if(negative != null && negative.getKey() < 0){
+			return negative.getKey();
+		}
+		for(int age = Math.max(min, 0); age < HISTOGRAM_SIZE; age++){
+			if(histogram[age] > 0){
+				return age;
+			}
+		}
+		return outliers.firstKey();
+	}
+	
+	private int nextMax() {
+		Map.Entry<Integer, Integer> large = outliers.lastEntry();
+		if(large != null && large.getKey() >= HISTOGRAM_SIZE){
+			return large.getKey();
+		}
+		for(int age = Math.min(max, HISTOGRAM_SIZE - 1); age >= 0; age--){
+			if(histogram[age] > 0){
+				return age;
+			}
+		}
+		return outliers.lastKey();
+	}
+	
+	private static boolean inRange(int age) {
+		return age >= 0 && age < HISTOGRAM_SIZE;
+	}
+
+}
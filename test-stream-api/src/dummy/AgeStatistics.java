@@ -0,0 +1,49 @@
+package dummy;
+
+/**
+ * 나이 요약 통계 (불변)
+ * - IntSummaryStatistics 와 같은 이름의 조회 메서드 제공
+ * - 값이 없으면 min = Integer.MAX_VALUE, max = Integer.MIN_VALUE
+ */
+public final class AgeStatistics {
+	
+	public static final AgeStatistics EMPTY = new AgeStatistics(0, 0, Integer.MAX_VALUE, Integer.MIN_VALUE);
+	
+	private final long count;
+	private final long sum;
+	private final int min;
+	private final int max;
+	
+	AgeStatistics(long count, long sum, int min, int max) {
+		this.count = count;
+		this.sum = sum;
+		this.min = min;
+		this.max = max;
+	}
+	
+	public long getCount() {
+		return count;
+	}
+	
+	public long getSum() {
+		return sum;
+	}
+	
+	public int getMin() {
+		return min;
+	}
+	
+	public int getMax() {
+		return max;
+	}
+	
+	public double getAverage() {
+		return count > 0 ? (double) sum / count : 0.0d;
+	}
+
+	@Override
+	public String toString() {
+		return "AgeStatistics [count=" + count + ", sum=" + sum + ", min=" + min + ", average=" + getAverage() + ", max=" + max + "]";
+	}
+
+}
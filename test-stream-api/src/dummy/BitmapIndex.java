@@ -0,0 +1,52 @@
+package dummy;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * 비트맵 보조 인덱스 : 값(ordinal) 별로 행 번호 비트맵을 유지
+ * - 카디널리티가 작은 필드(성별 등)용
+ */
+public class BitmapIndex {
+	
+	private final BitSet[] bitmaps;
+	
+	public BitmapIndex(int cardinality) {
+		bitmaps = new BitSet[cardinality];
+		for(int i = 0; i < cardinality; i++){
+			bitmaps[i] = new BitSet();
+		}
+	}
+	
+	public void add(int ordinal, int row) {
+		if(ordinal >= 0){
+			bitmaps[ordinal].set(row);
+		}
+	}
+	
+	public void remove(int ordinal, int row) {
+		if(ordinal >= 0){
+			bitmaps[ordinal].clear(row);
+		}
+	}
+	
+	public boolean contains(int ordinal, int row) {
+		return bitmaps[ordinal].get(row);
+	}
+	
+	public int count(int ordinal) {
+		return bitmaps[ordinal].cardinality();
+	}
+	
+	public IntStream rows(int ordinal) {
+		return bitmaps[ordinal].stream();
+	}
+	
+	/**
+	 * 비트맵 복사본. 다른 비트맵과 교집합/합집합 연산에 사용
+	 */
+	public BitSet bitmap(int ordinal) {
+		return (BitSet) bitmaps[ordinal].clone();
+	}
+
+}
@@ -0,0 +1,468 @@
+package dummy;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import log.LatencyHistogram;
+
+/**
+ * 연락처 스트림의 call() 을 제한된 수의 쓰레드에서 동시에 실행
+ * <pre>
+ * try(CallDispatcher dispatcher = new CallDispatcher("campaign", 64)){
+ *     CallDispatcher.Report report = dispatcher.dispatch(contacts.stream().filter(c -&gt; "Florida".equals(c.getState())))
+ *                                              .batchSize(16)
+ *                                              .rateLimit(500)
+ *                                              .retry(3, 100, TimeUnit.MILLISECONDS)
+ *                                              .execute();
+ * }
+ * </pre>
+ * - 스트림은 호출한 쓰레드에서 순서대로 읽고, 처리 중인 묶음이 maxConcurrency * 2 개를 넘으면 기다림
+ *   -> 100만 건 스트림도 한꺼번에 메모리에 올리지 않음
+ * - 묶음(batch) : 연락처 batchSize 개를 작업 하나로 넘김 (작업 전달 비용을 줄임)
+ * - 속도 제한 : 초당 호출 수. 재시도도 포함. 묶음 안에서도 호출마다 허가를 받으므로 묶음 크기만큼 몰리지 않음
+ * - 재시도 : 실패하면 지수 증가 대기(최대값까지, 무작위 지터) 후 다시 호출
+ * - 통계 : 성공/실패/재시도 수, 처리량, 연락처당 지연 시간(재시도 포함) 백분위
+ * - retryIf, onFailure 가 던진 예외나 call() 이 던진 Error 는 해당 연락처를 실패로 세고 실행을 멈춘 뒤 execute() 에서 다시 던짐
+ */
+public class CallDispatcher implements AutoCloseable {
+	
+	private final String name;
+	private final int maxConcurrency;
+	private final ThreadPoolExecutor executor;
+	
+	/**
+	 * @param maxConcurrency 동시에 call() 을 실행하는 최대 쓰레드 수
+	 */
+	public CallDispatcher(String name, int maxConcurrency) {
+		if(maxConcurrency < 1){
+			throw new IllegalArgumentException("maxConcurrency must be positive : " + maxConcurrency);
+		}
+		AtomicInteger threads = new AtomicInteger();
+		this.name = name;
+		this.maxConcurrency = maxConcurrency;
+		this.executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * 연락처 스트림의 호출 설정. 기본값은 Contact::call, 묶음 1, 속도 제한 없음, 재시도 없음
+	 */
+	public Dispatch dispatch(Stream<? extends Contact> contacts) {
+		return new Dispatch(contacts);
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+	
+	/**
+	 * 새 호출을 받지 않고, 실행 중인 호출이 끝나면 쓰레드를 정리
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+	
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
+	}
+	
+	/**
+	 * 느린 외부 호출을 흉내 내는 호출. 지연 시간은 latency 의 0.5 ~ 1.5 배, failureRate 확률로 실패
+	 */
+	public static Consumer<Contact> simulatedCall(long latency, TimeUnit unit, double failureRate) {
+		long nanos = unit.toNanos(latency);
+		return contact -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			LockSupport.parkNanos(nanos / 2 + random.nextLong(nanos + 1));
+			if(random.nextDouble() < failureRate){
+				throw new IllegalStateException("simulated call failure");
+			}
+		};
+	}
+	
+	/**
+	 * 스트림 하나의 호출 설정
+	 */
+	public final class Dispatch {
+		
+		private final Stream<? extends Contact> contacts;
+		private Consumer<? super Contact> call = Contact::call;
+		private int batchSize = 1;
+		private double permitsPerSecond;
+		private int maxAttempts = 1;
+		private long initialBackoffNanos;
+		private long maxBackoffNanos;
+		private Predicate<? super RuntimeException> retryable = e -> true;
+		private BiConsumer<? super Contact, ? super RuntimeException> onFailure = (contact, e) -> {};
+		
+		private Dispatch(Stream<? extends Contact> contacts) {
+			this.contacts = contacts;
+		}
+		
+		/**
+		 * Contact::call 대신 실행할 호출 (시험용 지연 호출 등)
+		 */
+		public Dispatch call(Consumer<? super Contact> call) {
+			this.call = call;
+			return this;
+		}
+		
+		public Dispatch batchSize(int batchSize) {
+			if(batchSize < 1){
+				throw new IllegalArgumentException("batchSize must be positive : " + batchSize);
+			}
+			this.batchSize = batchSize;
+			return this;
+		}
+		
+		/**
+		 * 초당 최대 호출 수. 0 이면 제한 없음
+		 */
+		public Dispatch rateLimit(double permitsPerSecond) {
+			if(permitsPerSecond < 0){
+				throw new IllegalArgumentException("permitsPerSecond must not be negative : " + permitsPerSecond);
+			}
+			this.permitsPerSecond = permitsPerSecond;
+			return this;
+		}
+		
+		/**
+		 * 최대 maxAttempts 번 호출. 대기 시간은 initialBackoff 부터 두 배씩, initialBackoff * 32 까지
+		 */
+		public Dispatch retry(int maxAttempts, long initialBackoff, TimeUnit unit) {
+			return retry(maxAttempts, initialBackoff, initialBackoff * 32, unit);
+		}
+		
+		public Dispatch retry(int maxAttempts, long initialBackoff, long maxBackoff, TimeUnit unit) {
+			if(maxAttempts < 1){
+				throw new IllegalArgumentException("maxAttempts must be positive : " + maxAttempts);
+			}
+			this.maxAttempts = maxAttempts;
+			this.initialBackoffNanos = unit.toNanos(initialBackoff);
+			this.maxBackoffNanos = Math.max(unit.toNanos(maxBackoff), initialBackoffNanos);
+			return this;
+		}
+		
+		/**
+		 * 재시도할 예외. 기본은 모든 RuntimeException
+		 */
+		public Dispatch retryIf(Predicate<? super RuntimeException> retryable) {
+			this.retryable = retryable;
+			return this;
+		}
+		
+		/**
+		 * 재시도 후에도 실패한 연락처. 작업자 쓰레드에서 호출
+		 * - 여기서 던진 예외는 execute() 가 다시 던짐 (남은 호출은 건너뜀)
+		 */
+		public Dispatch onFailure(BiConsumer<? super Contact, ? super RuntimeException> onFailure) {
+			this.onFailure = onFailure;
+			return this;
+		}
+		
+		/**
+		 * 모든 호출이 끝날 때까지 기다린 뒤 통계를 반환
+		 * - 작업자 쓰레드가 인터럽트되면 스트림 읽기를 멈추고 그때까지의 통계를 반환
+		 * @throws CancellationException 기다리는 중 인터럽트되면 남은 호출을 건너뛰고 던짐
+		 * @throws RuntimeException retryIf, onFailure 가 던진 첫 예외 (남은 호출은 건너뜀)
+		 * @throws Error call() 등이 던진 첫 Error (남은 호출은 건너뜀)
+		 */
+		public Report execute() {
+			Run run = new Run(this);
+			int permits = maxConcurrency * 2;
+			Semaphore inFlight = new Semaphore(permits);
+			try(Stream<? extends Contact> contacts = this.contacts){
+				Iterator<? extends Contact> iterator = contacts.iterator();
+				List<Contact> batch = new ArrayList<>(batchSize);
+				while(!run.stopped && iterator.hasNext()){
+					batch.add(iterator.next());
+					if(batch.size() == batchSize){
+						submit(run, batch, inFlight);
+						batch = new ArrayList<>(batchSize);
+					}
+				}
+				if(!run.stopped && !batch.isEmpty()){
+					submit(run, batch, inFlight);
+				}
+				inFlight.acquire(permits);		// 남은 묶음이 모두 끝날 때까지
+			} catch (InterruptedException e) {
+				run.stopped = true;
+				Thread.currentThread().interrupt();
+				throw new CancellationException("dispatch interrupted");
+			}
+			Throwable failure = run.failure.get();
+			if(failure instanceof Error){
+				throw (Error) failure;
+			}
+			if(failure instanceof RuntimeException){
+				throw (RuntimeException) failure;
+			}
+			if(failure != null){
+				throw new IllegalStateException("dispatch failed", failure);		// 검사 예외를 몰래 던진 call()
+			}
+			return run.report();
+		}
+		
+		private void submit(Run run, List<Contact> batch, Semaphore inFlight) throws InterruptedException {
+			inFlight.acquire();
+			run.submitted += batch.size();
+			executor.execute(() -> {
+				try {
+					run.call(batch);
+				} finally {
+					inFlight.release();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * 스트림 하나의 실행 상태
+	 */
+	private static final class Run {
+		
+		private final Dispatch dispatch;
+		private final RateLimiter rateLimiter;
+		private final long startNanos = System.nanoTime();
+		private volatile boolean stopped;
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();		// 처음 발생한 예외
+		
+		/* 스트림을 읽는 쓰레드에서만 변경 */
+		private long submitted;
+		
+		/* 작업자 쓰레드별 통계 : 각 쓰레드만 변경하고, report() 에서 한 번 합침 */
+		private final ConcurrentHashMap<Thread, Stats> stats = new ConcurrentHashMap<>();
+		
+		Run(Dispatch dispatch) {
+			this.dispatch = dispatch;
+			this.rateLimiter = dispatch.permitsPerSecond > 0 ? new RateLimiter(dispatch.permitsPerSecond) : null;
+		}
+		
+		/**
+		 * 묶음의 연락처를 차례로 호출. 통계는 이 쓰레드의 Stats 에 바로 기록 (잠금 없음)
+		 * - 연락처 하나에서 나온 예외는 여기서 모두 받으므로 작업자 쓰레드가 죽지 않음
+		 */
+		void call(List<Contact> batch) {
+			Stats stats = this.stats.computeIfAbsent(Thread.currentThread(), thread -> new Stats());
+			try {
+				for(Contact contact : batch){
+					if(stopped){
+						break;
+					}
+					if(rateLimiter != null){
+						rateLimiter.acquire();
+					}
+					long begin = System.nanoTime();
+					try {
+						if(callWithRetry(contact, stats)){
+							stats.succeeded++;
+						} else {
+							stats.failed++;
+						}
+					} catch (InterruptedException e) {
+						throw e;
+					} catch (Throwable e) {
+						stats.failed++;		// retryIf, onFailure 의 예외 또는 call() 의 Error
+						failure.compareAndSet(null, e);
+						stopped = true;
+					}
+					stats.latencies.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin));
+				}
+			} catch (InterruptedException e) {
+				stopped = true;
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		/**
+		 * 성공하면 true. 재시도 후에도 실패하면 onFailure 를 부르고 false
+		 */
+		private boolean callWithRetry(Contact contact, Stats stats) throws InterruptedException {
+			for(int attempt = 1; ; attempt++){
+				try {
+					dispatch.call.accept(contact);
+					return true;
+				} catch (RuntimeException e) {
+					if(attempt >= dispatch.maxAttempts || !dispatch.retryable.test(e)){
+						dispatch.onFailure.accept(contact, e);
+						return false;
+					}
+				}
+				stats.retries++;
+				TimeUnit.NANOSECONDS.sleep(backoff(attempt));
+				if(rateLimiter != null){
+					rateLimiter.acquire();
+				}
+			}
+		}
+		
+		/**
+		 * attempt 번째 실패 후 대기 시간 : 0 ~ min(initial * 2^(attempt-1), max) 사이 무작위 (full jitter)
+		 */
+		private long backoff(int attempt) {
+			long ceiling = dispatch.initialBackoffNanos << Math.min(attempt - 1, 30);
+			if(ceiling <= 0 || ceiling > dispatch.maxBackoffNanos){
+				ceiling = dispatch.maxBackoffNanos;
+			}
+			return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+		}
+		
+		/**
+		 * 모든 묶음이 끝난 뒤 호출 (묶음이 끝날 때 semaphore 를 반환하므로 쓰레드별 통계가 보임)
+		 */
+		Report report() {
+			LatencyHistogram latencies = new LatencyHistogram();
+			long succeeded = 0, failed = 0, retries = 0;
+			for(Stats worker : stats.values()){
+				latencies.merge(worker.latencies);
+				succeeded += worker.succeeded;
+				failed += worker.failed;
+				retries += worker.retries;
+			}
+			return new Report(submitted, succeeded, failed, retries, System.nanoTime() - startNanos, latencies);
+		}
+	}
+	
+	/**
+	 * 작업자 쓰레드 하나의 통계
+	 */
+	private static final class Stats {
+		
+		final LatencyHistogram latencies = new LatencyHistogram();
+		long succeeded;
+		long failed;
+		long retries;
+	}
+	
+	/**
+	 * 일정한 간격으로 허가를 내주는 속도 제한. 쌓아 두는 허가는 없음 (순간 몰림 없음)
+	 */
+	private static final class RateLimiter {
+		
+		private final long intervalNanos;
+		private long nextFreeNanos = System.nanoTime();
+		
+		RateLimiter(double permitsPerSecond) {
+			this.intervalNanos = Math.max((long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond), 1);
+		}
+		
+		/**
+		 * 허가 하나를 예약하고, 예약한 시각까지 대기
+		 */
+		void acquire() throws InterruptedException {
+			long wait;
+			synchronized(this){
+				long now = System.nanoTime();
+				if(nextFreeNanos - now < 0){
+					nextFreeNanos = now;
+				}
+				wait = nextFreeNanos - now;
+				nextFreeNanos += intervalNanos;
+			}
+			if(wait > 0){
+				TimeUnit.NANOSECONDS.sleep(wait);
+			}
+		}
+	}
+	
+	/**
+	 * 호출 결과 통계. 지연 시간은 마이크로초
+	 */
+	public static final class Report {
+		
+		private final long submitted;
+		private final long succeeded;
+		private final long failed;
+		private final long retries;
+		private final long elapsedNanos;
+		private final LatencyHistogram latencies;
+		
+		private Report(long submitted, long succeeded, long failed, long retries, long elapsedNanos, LatencyHistogram latencies) {
+			this.submitted = submitted;
+			this.succeeded = succeeded;
+			this.failed = failed;
+			this.retries = retries;
+			this.elapsedNanos = elapsedNanos;
+			this.latencies = latencies;
+		}
+		
+		/**
+		 * 스트림에서 읽은 연락처 수. 중단된 경우 succeeded + failed 보다 클 수 있음
+		 */
+		public long getSubmitted() {
+			return submitted;
+		}
+		
+		public long getSucceeded() {
+			return succeeded;
+		}
+		
+		/**
+		 * 재시도 후에도 실패한 연락처 수
+		 */
+		public long getFailed() {
+			return failed;
+		}
+		
+		public long getRetries() {
+			return retries;
+		}
+		
+		public long getElapsed(TimeUnit unit) {
+			return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+		}
+		
+		/**
+		 * 초당 처리한 연락처 수 (성공 + 실패)
+		 */
+		public double getThroughput() {
+			return elapsedNanos == 0 ? 0 : (succeeded + failed) * 1e9 / elapsedNanos;
+		}
+		
+		public double getMeanLatency() {
+			return latencies.mean();
+		}
+		
+		/**
+		 * 지연 시간 백분위 (0 ~ 100)
+		 */
+		public long getLatencyPercentile(double percentile) {
+			return latencies.percentile(percentile);
+		}
+		
+		public long getMaxLatency() {
+			return latencies.max();
+		}
+
+		@Override
+		public String toString() {
+			return "Report [submitted=" + submitted + ", succeeded=" + succeeded + ", failed=" + failed
+					+ ", retries=" + retries + ", elapsed=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms"
+					+ ", throughput=" + String.format("%.1f", getThroughput()) + "/s, latency(us) [" + latencies + "]]";
+		}
+	}
+
+}
@@ -0,0 +1,171 @@
+package dummy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import flow.BufferedPublisher;
+import flow.Flow;
+
+/**
+ * ContactSource 의 추가/변경/삭제 이벤트 발행자
+ * <pre>
+ * ChangeFeed feed = new ChangeFeed(source);
+ * feed.subscribe(subscriber, 256, true);		// 버퍼 256, 같은 연락처의 이벤트는 병합
+ * ContinuousQuery floridaMales = feed.continuous(source.query()
+ *                                                      .where(STATE, eq("Florida"))
+ *                                                      .and(GENDER, eq(Gender.Male)));
+ * </pre>
+ * - 이벤트는 변경한 쓰레드에서 만들어 구독자별 버퍼에 넣고 바로 반환 : 느린 구독자가 쓰기를 막지 않음
+ * - 전달은 executor 에서, 구독자가 요청한 만큼만 (배압)
+ * - 버퍼가 넘친 구독자는 onError 후 해제. 병합을 켜면 버퍼에는 연락처당 이벤트 하나만 남음
+ * - 구독자나 연속 질의가 없으면 값을 복사하지 않음
+ */
+public class ChangeFeed implements Flow.Publisher<ContactEvent>, AutoCloseable {
+	
+	private final ContactSource source;
+	private final Executor executor;
+	private final BufferedPublisher<ContactEvent> publisher;
+	private final List<ContinuousQuery> queries = new CopyOnWriteArrayList<>();
+	private volatile boolean closed;
+	private final ContactSource.RowListener listener = new ContactSource.RowListener() {
+		@Override
+		public void inserted(int id) {
+			publish(ContactEvent.Type.INSERT, id, null, true);
+		}
+
+		@Override
+		public void updating(int id) {
+			before = active() ? copy(source.store(), id) : null;
+		}
+
+		@Override
+		public void updated(int id) {
+			publish(ContactEvent.Type.UPDATE, id, before, true);
+			before = null;
+		}
+
+		@Override
+		public void deleting(int id) {
+			if(active()){
+				publish(ContactEvent.Type.DELETE, id, copy(source.store(), id), false);
+			}
+		}
+	};
+	
+	/* 변경한 쓰레드에서만 사용 */
+	private Contact before;
+	private long sequence;
+	
+	public ChangeFeed(ContactSource source) {
+		this(source, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * @param executor 구독자에게 전달할 쓰레드
+	 */
+	public ChangeFeed(ContactSource source, Executor executor) {
+		this.source = source;
+		this.executor = executor;
+		this.publisher = new BufferedPublisher<>(executor, ContactEvent::getId, ContactEvent::merge);
+		source.addRowListener(listener);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super ContactEvent> subscriber) {
+		publisher.subscribe(subscriber);
+	}
+	
+	/**
+	 * @param bufferSize 전달하지 못한 이벤트의 최대 개수
+	 * @param coalesce 같은 연락처의 전달 전 이벤트를 병합
+	 */
+	public void subscribe(Flow.Subscriber<? super ContactEvent> subscriber, int bufferSize, boolean coalesce) {
+		publisher.subscribe(subscriber, bufferSize, coalesce);
+	}
+	
+	/**
+	 * 최대 maxBatch 개씩 묶어서 전달
+	 */
+	public void subscribeBatches(Flow.Subscriber<? super List<ContactEvent>> subscriber, int maxBatch, int bufferSize, boolean coalesce) {
+		publisher.subscribeBatches(subscriber, maxBatch, bufferSize, coalesce);
+	}
+	
+	/**
+	 * 질의 결과를 유지하고 변경분을 발행하는 연속 질의. 이후 질의에 추가한 조건은 반영하지 않음
+	 * - 현재 결과를 한 번 계산한 뒤에는 변경된 연락처만 조건을 평가
+	 * - 쓰기와 같은 쓰레드에서 생성해야 함 (ContactSource 와 같은 제약)
+	 */
+	public ContinuousQuery continuous(ContactQuery query) {
+		ContinuousQuery continuous = new ContinuousQuery(this, query.snapshot(), executor);
+		queries.add(continuous);
+		return continuous;
+	}
+	
+	public boolean hasSubscribers() {
+		return publisher.hasSubscribers();
+	}
+	
+	ContactSource source() {
+		return source;
+	}
+	
+	void remove(ContinuousQuery query) {
+		queries.remove(query);
+	}
+	
+	/**
+	 * 구독자에게 남은 이벤트를 전달한 뒤 onComplete. 연속 질의도 닫음
+	 */
+	@Override
+	public void close() {
+		closed = true;		// 리스너 목록을 먼저 읽은 변경 쓰레드가 닫힌 발행자에 보내지 않도록
+		source.removeRowListener(listener);
+		for(ContinuousQuery query : queries){
+			query.close();
+		}
+		publisher.close();
+	}
+	
+	private boolean active() {
+		return !closed && (publisher.hasSubscribers() || !queries.isEmpty());
+	}
+	
+	private void publish(ContactEvent.Type type, int id, Contact before, boolean readAfter) {
+		if(!active()){
+			return;
+		}
+		Contact after = readAfter ? copy(source.store(), id) : null;
+		ContactEvent event = new ContactEvent(type, id, before, after, ++sequence);
+		for(ContinuousQuery query : queries){
+			query.apply(event);
+		}
+		if(publisher.hasSubscribers()){
+			try {
+				publisher.submit(event);
+			} catch (IllegalStateException e) {
+				if(!closed){		// 닫는 중에 만든 이벤트는 버림
+					throw e;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * 저장소와 무관한 Contact 사본 (매핑 저장소의 Contact 는 슬롯을 직접 읽으므로)
+	 */
+	static Contact copy(ContactStore store, int row) {
+		Contact contact = new Contact();
+		contact.setState(store.states().valueOf(store.stateIdAt(row)));
+		contact.setCity(store.cities().valueOf(store.cityIdAt(row)));
+		int gender = store.genderOrdinalAt(row);
+		contact.setGender(gender < 0 ? null : Gender.values()[gender]);
+		contact.setAge(store.ageAt(row));
+		contact.setName(store.nameAt(row));
+		contact.setEmail(store.emailAt(row));
+		contact.setBirthday(store.birthdayAt(row));
+		return contact;
+	}
+
+}
@@ -0,0 +1,196 @@
+package dummy;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IntSummaryStatistics;
+
+/**
+ * 컬럼 기반 연락처 저장소
+ * - 필드별로 기본형 배열에 저장 : int[] 나이, byte[] 성별, 사전 인코딩된 주/도시 id
+ * - 집계 시 객체 참조를 따라가지 않고 배열만 순차 스캔
+ */
+public class ColumnarContactStore implements ContactStore {
+	
+	private static final Gender[] GENDERS = Gender.values();
+	
+	private final StringDictionary states = new StringDictionary();
+	private final StringDictionary cities = new StringDictionary();
+	private final BitSet deleted = new BitSet();
+	
+	private int[] ages;
+	private byte[] genders;
+	private int[] stateIds;
+	private int[] cityIds;
+	private String[] names;
+	private String[] emails;
+	private String[] birthdays;
+	private int rowCount;
+	private int size;
+	
+	public ColumnarContactStore() {
+		this(16);
+	}
+	
+	public ColumnarContactStore(int initialCapacity) {
+		int capacity = Math.max(initialCapacity, 1);
+		ages = new int[capacity];
+		genders = new byte[capacity];
+		stateIds = new int[capacity];
+		cityIds = new int[capacity];
+		names = new String[capacity];
+		emails = new String[capacity];
+		birthdays = new String[capacity];
+	}
+
+	@Override
+	public int add(Contact contact) {
+		if(rowCount == ages.length){
+			grow(rowCount * 2);
+		}
+		int row = rowCount++;
+		write(row, contact);
+		size++;
+		return row;
+	}
+
+	@Override
+	public void update(int row, Contact contact) {
+		checkLive(row);
+		write(row, contact);
+	}
+
+	@Override
+	public void delete(int row) {
+		checkLive(row);
+		deleted.set(row);
+		names[row] = null;
+		emails[row] = null;
+		birthdays[row] = null;
+		size--;
+	}
+
+	@Override
+	public Contact get(int row) {
+		checkLive(row);
+		Contact contact = new Contact();
+		contact.setState(states.valueOf(stateIds[row]));
+		contact.setCity(cities.valueOf(cityIds[row]));
+		contact.setGender(genders[row] < 0 ? null : GENDERS[genders[row]]);
+		contact.setAge(ages[row]);
+		contact.setName(names[row]);
+		contact.setEmail(emails[row]);
+		contact.setBirthday(birthdays[row]);
+		return contact;
+	}
+
+	@Override
+	public int rowCount() {
+		return rowCount;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isLive(int row) {
+		return row >= 0 && row < rowCount && !deleted.get(row);
+	}
+
+	@Override
+	public int ageAt(int row) {
+		return ages[row];
+	}
+
+	@Override
+	public int genderOrdinalAt(int row) {
+		return genders[row];
+	}
+
+	@Override
+	public int stateIdAt(int row) {
+		return stateIds[row];
+	}
+
+	@Override
+	public int cityIdAt(int row) {
+		return cityIds[row];
+	}
+
+	@Override
+	public String nameAt(int row) {
+		return names[row];
+	}
+
+	@Override
+	public String emailAt(int row) {
+		return emails[row];
+	}
+
+	@Override
+	public String birthdayAt(int row) {
+		return birthdays[row];
+	}
+
+	@Override
+	public StringDictionary states() {
+		return states;
+	}
+
+	@Override
+	public StringDictionary cities() {
+		return cities;
+	}
+
+	@Override
+	public IntSummaryStatistics ageStatistics(String state, Gender gender) {
+		IntSummaryStatistics statistics = new IntSummaryStatistics();
+		int stateId = states.find(state);
+		if(state != null && stateId == StringDictionary.NULL_ID){
+			return statistics;		// 등록되지 않은 주
+		}
+		boolean anyState = state == null;
+		boolean anyGender = gender == null;
+		int genderOrdinal = anyGender ? -1 : gender.ordinal();
+		
+		int[] ages = this.ages;
+		byte[] genders = this.genders;
+		int[] stateIds = this.stateIds;
+		for(int row = 0; row < rowCount; row++){
+			if((anyState || stateIds[row] == stateId)
+					&& (anyGender || genders[row] == genderOrdinal)
+					&& !deleted.get(row)){
+				statistics.accept(ages[row]);
+			}
+		}
+		return statistics;
+	}
+	
+	private void write(int row, Contact contact) {
+		ages[row] = contact.getAge();
+		genders[row] = (byte) (contact.getGender() == null ? -1 : contact.getGender().ordinal());
+		stateIds[row] = states.idOf(contact.getState());
+		cityIds[row] = cities.idOf(contact.getCity());
+		names[row] = contact.getName();
+		emails[row] = contact.getEmail();
+		birthdays[row] = contact.getBirthday();
+	}
+	
+	private void grow(int capacity) {
+		ages = Arrays.copyOf(ages, capacity);
+		genders = Arrays.copyOf(genders, capacity);
+		stateIds = Arrays.copyOf(stateIds, capacity);
+		cityIds = Arrays.copyOf(cityIds, capacity);
+		names = Arrays.copyOf(names, capacity);
+		emails = Arrays.copyOf(emails, capacity);
+		birthdays = Arrays.copyOf(birthdays, capacity);
+	}
+	
+	private void checkLive(int row) {
+		if(!isLive(row)){
+			throw new IllegalArgumentException("no contact at row " + row);
+		}
+	}
+
+}
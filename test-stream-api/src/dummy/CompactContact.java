@@ -0,0 +1,135 @@
+package dummy;
+
+/**
+ * 메모리를 적게 쓰는 연락처 (Contact 와 같은 getter/setter, Contact 의 필드는 상속하지 않음)
+ * - 주, 도시 : 공유 사전({@link ContactDictionaries})의 id
+ * - 나이 : short, 성별 : byte (ordinal)
+ * - 생일 : yyyy-MM-dd 형식이면 yyyyMMdd 정수로 저장
+ * - 이름, 이메일 (그리고 형식이 다른 생일) : 하나의 UTF-8 byte[] 에 길이와 함께 저장
+ *   setter 는 바뀐 필드만 인코딩하고 나머지 필드는 바이트를 그대로 복사. getter 는 호출마다 문자열을 만듦
+ * - Contact 가 필요한 곳에는 {@link #toContact()} 로 복사해서 넘김
+ * - 공유 문자열을 쓰는 Contact 대비 연락처당 224 -> 100 바이트, 55% 절감 (10만 건 생성 데이터 기준, {@link FootprintReport#compare})
+ */
+public class CompactContact {
+	
+	private static final Gender[] GENDERS = Gender.values();
+	
+	private int stateId = StringDictionary.NULL_ID;
+	private int cityId = StringDictionary.NULL_ID;
+	private int birthday;		// yyyyMMdd, 0 이면 text 의 BIRTHDAY 필드
+	private short age;
+	private byte gender = -1;
+	private byte[] text;		// ContactText 형식
+	
+	public CompactContact() {}
+	
+	public static CompactContact of(Contact contact) {
+		CompactContact compact = new CompactContact();
+		compact.setState(contact.getState());
+		compact.setCity(contact.getCity());
+		compact.setGender(contact.getGender());
+		compact.setAge(contact.getAge());
+		compact.birthday = ContactText.packDate(contact.getBirthday());
+		compact.text = ContactText.encode(contact.getName(), contact.getEmail(), compact.birthday == 0 ? contact.getBirthday() : null);
+		return compact;
+	}
+	
+	/**
+	 * 같은 값을 가진 새 Contact
+	 */
+	public Contact toContact() {
+		Contact contact = new Contact();
+		contact.setState(getState());
+		contact.setCity(getCity());
+		contact.setGender(getGender());
+		contact.setAge(age);
+		contact.setName(getName());
+		contact.setEmail(getEmail());
+		contact.setBirthday(getBirthday());
+		return contact;
+	}
+	
+	public String getState() {
+		return ContactDictionaries.STATES.valueOf(stateId);
+	}
+	
+	public void setState(String state) {
+		this.stateId = ContactDictionaries.STATES.idOf(state);
+	}
+	
+	public int getStateId() {
+		return stateId;
+	}
+	
+	public String getCity() {
+		return ContactDictionaries.CITIES.valueOf(cityId);
+	}
+	
+	public void setCity(String city) {
+		this.cityId = ContactDictionaries.CITIES.idOf(city);
+	}
+	
+	public int getCityId() {
+		return cityId;
+	}
+	
+	public Gender getGender() {
+		return gender < 0 ? null : GENDERS[gender];
+	}
+	
+	public void setGender(Gender gender) {
+		this.gender = (byte) (gender == null ? -1 : gender.ordinal());
+	}
+	
+	public int getAge() {
+		return age;
+	}
+	
+	/**
+	 * @throws IllegalArgumentException short 범위를 벗어난 나이
+	 */
+	public void setAge(int age) {
+		if(age < Short.MIN_VALUE || age > Short.MAX_VALUE){
+			throw new IllegalArgumentException("age out of range : " + age);
+		}
+		this.age = (short) age;
+	}
+	
+	public String getName() {
+		return ContactText.field(text, ContactText.NAME);
+	}
+	
+	public void setName(String name) {
+		this.text = ContactText.replace(text, ContactText.NAME, name);
+	}
+	
+	public String getEmail() {
+		return ContactText.field(text, ContactText.EMAIL);
+	}
+	
+	public void setEmail(String email) {
+		this.text = ContactText.replace(text, ContactText.EMAIL, email);
+	}
+	
+	public String getBirthday() {
+		return birthday == 0 ? ContactText.field(text, ContactText.BIRTHDAY) : ContactText.formatDate(birthday);
+	}
+	
+	/**
+	 * yyyyMMdd 정수. 형식이 다르거나 없으면 0
+	 */
+	public int getPackedBirthday() {
+		return birthday;
+	}
+	
+	public void setBirthday(String birthday) {
+		this.birthday = ContactText.packDate(birthday);
+		this.text = ContactText.replace(text, ContactText.BIRTHDAY, this.birthday == 0 ? birthday : null);
+	}
+
+	@Override
+	public String toString() {
+		return "CompactContact [state=" + getState() + ", gender=" + getGender() + ", age=" + getAge() + "]";
+	}
+
+}
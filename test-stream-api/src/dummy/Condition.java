@@ -0,0 +1,135 @@
+package dummy;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 필드 값에 대한 조건
+ * - 같음(eq) 조건은 인덱스/사전 id 비교로, 정수 조건은 기본형 비교로 평가할 수 있음
+ * - toString() 은 표시용, key() 는 캐시 키용 (값을 형식과 함께 따옴표로 감싸서 서로 다른 조건이 같은 키가 되지 않음)
+ */
+public final class Condition<T> implements Predicate<T> {
+	
+	private final String description;
+	private final String key;
+	private final Predicate<? super T> predicate;
+	private final IntPredicate intPredicate;
+	private final boolean equality;
+	private final T value;
+	
+	private Condition(String description, String key, Predicate<? super T> predicate, IntPredicate intPredicate, boolean equality, T value) {
+		this.description = description;
+		this.key = key;
+		this.predicate = predicate;
+		this.intPredicate = intPredicate;
+		this.equality = equality;
+		this.value = value;
+	}
+	
+	public static <T> Condition<T> eq(T value) {
+		IntPredicate intPredicate = null;
+		if(value instanceof Integer){
+			int expected = (Integer) value;
+			intPredicate = v -> v == expected;
+		}
+		return new Condition<>("= " + value, "eq(" + key(value) + ")", v -> Objects.equals(v, value), intPredicate, true, value);
+	}
+	
+	@SafeVarargs
+	public static <T> Condition<T> in(T... values) {
+		Set<T> set = new HashSet<>(values.length * 2);
+		for(T value : values){
+			set.add(value);
+		}
+		String description = set.stream().map(String::valueOf).sorted().collect(Collectors.joining(", ", "in [", "]"));
+		String key = set.stream().map(Condition::key).sorted().collect(Collectors.joining(",", "in(", ")"));
+		return new Condition<>(description, key, set::contains, null, false, null);
+	}
+	
+	public static Condition<Integer> between(int from, int to) {
+		IntPredicate intPredicate = v -> v >= from && v <= to;
+		return new Condition<>("between " + from + " and " + to, "between(" + key(from) + "," + key(to) + ")", v -> v != null && intPredicate.test(v), intPredicate, false, null);
+	}
+	
+	public static Condition<Integer> greaterThan(int bound) {
+		IntPredicate intPredicate = v -> v > bound;
+		return new Condition<>("> " + bound, "greaterThan(" + key(bound) + ")", v -> v != null && intPredicate.test(v), intPredicate, false, null);
+	}
+	
+	public static Condition<Integer> lessThan(int bound) {
+		IntPredicate intPredicate = v -> v < bound;
+		return new Condition<>("< " + bound, "lessThan(" + key(bound) + ")", v -> v != null && intPredicate.test(v), intPredicate, false, null);
+	}
+	
+	public static Condition<String> startsWith(String prefix) {
+		return new Condition<>("startsWith " + prefix, "startsWith(" + key(prefix) + ")", v -> v != null && v.startsWith(prefix), null, false, null);
+	}
+
+	@Override
+	public boolean test(T value) {
+		return predicate.test(value);
+	}
+	
+	boolean isEquality() {
+		return equality;
+	}
+	
+	T value() {
+		return value;
+	}
+	
+	IntPredicate intPredicate() {
+		return intPredicate;
+	}
+	
+	/**
+	 * 캐시 키로 쓰는 조건 표현. 예: eq("Florida"), in(null,"a, b"), between(int:1,int:5)
+	 */
+	String key() {
+		return key;
+	}
+	
+	/**
+	 * 값의 캐시 키 표현
+	 * - null 은 따옴표 없는 null, 문자열은 따옴표로 감싸고 \ 와 " 를 이스케이프
+	 * - 그 외에는 형식 이름을 붙임 (int:1, dummy.Gender:Male)
+	 */
+	static String key(Object value) {
+		if(value == null){
+			return "null";
+		}
+		if(value instanceof String){
+			return quote((String) value);
+		}
+		if(value instanceof Integer){
+			return "int:" + value;
+		}
+		if(value instanceof Enum){
+			Enum<?> constant = (Enum<?>) value;
+			return constant.getDeclaringClass().getName() + ":" + constant.name();
+		}
+		return value.getClass().getName() + ":" + quote(value.toString());
+	}
+	
+	private static String quote(String value) {
+		StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+		for(int i = 0; i < value.length(); i++){
+			char c = value.charAt(i);
+			if(c == '"' || c == '\\'){
+				quoted.append('\\');
+			}
+			quoted.append(c);
+		}
+		return quoted.append('"').toString();
+	}
+
+	@Override
+	public String toString() {
+		return description;
+	}
+
+}
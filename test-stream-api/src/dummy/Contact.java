@@ -81,7 +81,7 @@ public class Contact {
 
 	@Override
 	public String toString() {
-		return "Contact [state=" + state + ", gender=" + gender + ", age=" + age + "]";
+		return "Contact [state=" + getState() + ", gender=" + getGender() + ", age=" + getAge() + "]";
 	}
 
 }
@@ -0,0 +1,75 @@
+package dummy;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import collector.GroupingCollectors;
+import collector.IntHistogram;
+import collector.OrderCollectors;
+
+/**
+ * 연락처 전용 Collector
+ */
+public class ContactCollectors {
+	
+	private ContactCollectors() {}
+	
+	/**
+	 * 주별 그룹핑 (병렬 스트림에서 경합 없이 누적)
+	 */
+	public static <A, D> Collector<Contact, ?, Map<String, D>> groupingByState(Collector<? super Contact, A, D> downstream) {
+		return GroupingCollectors.denseGroupingBy(Contact::getState, downstream);
+	}
+	
+	public static Collector<Contact, ?, Map<String, List<Contact>>> groupingByState() {
+		return groupingByState(Collectors.toList());
+	}
+	
+	public static <A, D> Collector<Contact, ?, Map<Gender, D>> groupingByGender(Collector<? super Contact, A, D> downstream) {
+		return GroupingCollectors.denseGroupingBy(Contact::getGender, downstream);
+	}
+	
+	public static Collector<Contact, ?, Map<Gender, List<Contact>>> groupingByGender() {
+		return groupingByGender(Collectors.toList());
+	}
+	
+	/**
+	 * 나이가 많은 n 명 (많은 순)
+	 */
+	public static Collector<Contact, ?, List<Contact>> oldest(int n) {
+		return OrderCollectors.topN(Comparator.comparingInt(Contact::getAge), n);
+	}
+	
+	/**
+	 * 나이가 적은 n 명 (적은 순)
+	 */
+	public static Collector<Contact, ?, List<Contact>> youngest(int n) {
+		return OrderCollectors.bottomN(Comparator.comparingInt(Contact::getAge), n);
+	}
+	
+	/**
+	 * 나이별 인원 (0 ~ 127 세는 배열, 그 밖은 별도 집계)
+	 */
+	public static Collector<Contact, ?, IntHistogram> ageHistogram() {
+		return OrderCollectors.intHistogram(Contact::getAge, 0, 127);
+	}
+	
+	/**
+	 * 주별 comparator 기준 상위 n 명 : 주마다 n 개짜리 힙만 유지
+	 */
+	public static Collector<Contact, ?, Map<String, List<Contact>>> topNByState(Comparator<? super Contact> comparator, int n) {
+		return groupingByState(OrderCollectors.topN(comparator, n));
+	}
+	
+	/**
+	 * 주별 나이 중앙값
+	 */
+	public static Collector<Contact, ?, Map<String, OptionalDouble>> medianAgeByState() {
+		return groupingByState(OrderCollectors.median(Contact::getAge, 0, 127));
+	}
+
+}
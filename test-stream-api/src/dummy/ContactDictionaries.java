@@ -0,0 +1,14 @@
+package dummy;
+
+/**
+ * 연락처가 공유하는 문자열 사전
+ * - {@link CompactContact} 의 주, 도시 id 가 가리키는 사전
+ */
+public class ContactDictionaries {
+	
+	public static final StringDictionary STATES = new StringDictionary();
+	public static final StringDictionary CITIES = new StringDictionary();
+	
+	private ContactDictionaries() {}
+
+}
@@ -0,0 +1,81 @@
+package dummy;
+
+/**
+ * 연락처 변경 이벤트 (불변)
+ * - INSERT : after 만, DELETE : before 만, UPDATE : 둘 다
+ * - before/after 는 변경 시점의 값을 복사한 Contact. 수정하지 않아야 함
+ * - sequence 는 발행 순서. 병합된 이벤트는 마지막 이벤트의 순서를 가짐
+ */
+public final class ContactEvent {
+	
+	public enum Type {
+		INSERT, UPDATE, DELETE
+	}
+	
+	private final Type type;
+	private final int id;
+	private final Contact before;
+	private final Contact after;
+	private final long sequence;
+	
+	ContactEvent(Type type, int id, Contact before, Contact after, long sequence) {
+		this.type = type;
+		this.id = id;
+		this.before = before;
+		this.after = after;
+		this.sequence = sequence;
+	}
+	
+	public Type getType() {
+		return type;
+	}
+	
+	public int getId() {
+		return id;
+	}
+	
+	public Contact getBefore() {
+		return before;
+	}
+	
+	public Contact getAfter() {
+		return after;
+	}
+	
+	public long getSequence() {
+		return sequence;
+	}
+	
+	/**
+	 * 같은 연락처의 두 이벤트를 하나로 합침. 합친 결과가 변경 없음이면 null
+	 * - INSERT + UPDATE = INSERT, INSERT + DELETE = 없음
+	 * - UPDATE + UPDATE = UPDATE, UPDATE + DELETE = DELETE (처음 값)
+	 * - DELETE + INSERT = UPDATE (결과에서 빠졌다가 다시 들어온 경우)
+	 */
+	static ContactEvent merge(ContactEvent older, ContactEvent newer) {
+		switch(older.type){
+		case INSERT	:
+			switch(newer.type){
+			case UPDATE	: return new ContactEvent(Type.INSERT, newer.id, null, newer.after, newer.sequence);
+			case DELETE	: return null;
+			default		: return newer;
+			}
+		case UPDATE	:
+			switch(newer.type){
+			case UPDATE	:
+			case DELETE	: return new ContactEvent(newer.type, newer.id, older.before, newer.after, newer.sequence);
+			default		: return newer;
+			}
+		case DELETE	:
+			return newer.type == Type.INSERT ? new ContactEvent(Type.UPDATE, newer.id, older.before, newer.after, newer.sequence) : newer;
+		default		:
+			return newer;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ContactEvent [" + type + " #" + id + ", before=" + before + ", after=" + after + ", sequence=" + sequence + "]";
+	}
+
+}
@@ -0,0 +1,468 @@
+package dummy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * 연락처 스트림을 채널에 바로 기록 (전체 출력을 String 으로 만들지 않음)
+ * <pre>
+ * ContactExporter.of(ContactExporter.Format.CSV)
+ *                .write(source.stream().parallel(), Paths.get("contacts.csv"));
+ * </pre>
+ * - 필드를 UTF-8 로 직접 인코딩해서 재사용하는 direct ByteBuffer 에 기록 (행마다 String/byte[] 를 만들지 않음)
+ * - 순차 스트림 : 버퍼 하나를 채울 때마다 채널에 기록
+ * - 병렬 스트림 : Spliterator 를 앞에서부터 chunkSize 개 정도의 조각으로 나누어 풀에서 인코딩하고,
+ *   호출한 쓰레드가 조각 순서대로 기록 (인코딩과 기록이 겹침)
+ *   -> 동시에 처리 중인 조각은 병렬도 * 2 개까지만 : 연락처 수와 관계없이 메모리 사용량 일정
+ * - 풀은 호출한 쓰레드가 ForkJoinPool 작업자이면 그 풀(QueryExecutor 등), 아니면 공용 풀
+ */
+public class ContactExporter {
+	
+	public enum Format {
+		/** RFC 4180. 구분자, 따옴표, 개행이 있는 값만 따옴표로 감쌈. null 은 빈 값 */
+		CSV,
+		/** '|' 구분. 값의 '|', '\', 개행은 '\' 로 이스케이프. null 은 빈 값 */
+		PIPE,
+		/** 한 행에 JSON 객체 하나. null 은 null */
+		JSON_LINES
+	}
+	
+	public static final int DEFAULT_CHUNK_SIZE = 2048;
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 18;
+	
+	private static final byte[][] JSON_KEYS = {
+		ascii("{\"name\":"), ascii(",\"email\":"), ascii(",\"gender\":"), ascii(",\"age\":"),
+		ascii(",\"birthday\":"), ascii(",\"city\":"), ascii(",\"state\":")
+	};
+	private static final byte[] JSON_NULL = ascii("null");
+	private static final byte[] HEX = ascii("0123456789abcdef");
+	
+	private final Format format;
+	private boolean header;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	
+	private ContactExporter(Format format) {
+		this.format = format;
+		this.header = format != Format.JSON_LINES;
+	}
+	
+	public static ContactExporter of(Format format) {
+		return new ContactExporter(format);
+	}
+	
+	/**
+	 * 첫 행에 필드 이름 기록 여부. CSV, PIPE 는 기본 true (JSON_LINES 는 무시)
+	 */
+	public ContactExporter header(boolean header) {
+		this.header = header;
+		return this;
+	}
+	
+	/**
+	 * 병렬 스트림에서 한 작업이 인코딩할 연락처 수
+	 */
+	public ContactExporter chunkSize(int chunkSize) {
+		if(chunkSize < 1){
+			throw new IllegalArgumentException("chunkSize must be positive : " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+		return this;
+	}
+	
+	/**
+	 * direct 버퍼 하나의 크기 (최소 1KB)
+	 */
+	public ContactExporter bufferSize(int bufferSize) {
+		this.bufferSize = Math.max(bufferSize, 1 << 10);
+		return this;
+	}
+	
+	/**
+	 * 파일을 새로 만들어 기록하고 기록한 연락처 수를 반환
+	 */
+	public long write(Stream<? extends Contact> contacts, Path path) throws IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+			return write(contacts, channel);
+		}
+	}
+	
+	/**
+	 * 스트림 순서대로 기록하고 기록한 연락처 수를 반환. 채널은 닫지 않음
+	 */
+	public long write(Stream<? extends Contact> contacts, WritableByteChannel channel) throws IOException {
+		try(Stream<? extends Contact> stream = contacts){
+			boolean parallel = stream.isParallel();
+			@SuppressWarnings("unchecked")
+			Spliterator<Contact> spliterator = (Spliterator<Contact>) stream.spliterator();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+			if(header && format != Format.JSON_LINES){
+				writeHeader(buffer);
+			}
+			if(!parallel){
+				return writeSequential(spliterator, channel, buffer);
+			}
+			flush(channel, buffer);
+			ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+			int window = Math.max(2, pool.getParallelism() * 2);
+			return writeParallel(spliterator, channel, pool, window, new BufferPool(buffer, window * 2));
+		}
+	}
+	
+	private void writeHeader(ByteBuffer buffer) {
+		String delimiter = format == Format.CSV ? "," : "|";
+		buffer.put(ascii(AddressBookCsv.HEADER.replace(",", delimiter) + "\n"));
+	}
+	
+	private long writeSequential(Spliterator<Contact> contacts, WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+		Encoder encoder = new Encoder(buffer, full -> {
+			try {
+				flush(channel, full);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return full;
+		});
+		try {
+			contacts.forEachRemaining(encoder::contact);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		flush(channel, encoder.buffer);
+		return encoder.count;
+	}
+	
+	/**
+	 * @param window pool 에 동시에 맡기는 조각 수
+	 */
+	private long writeParallel(Spliterator<Contact> root, WritableByteChannel channel, ForkJoinPool pool, int window, BufferPool buffers) throws IOException {
+		ArrayDeque<Spliterator<Contact>> pending = new ArrayDeque<>();
+		ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+		pending.push(root);
+		long count = 0;
+		try {
+			while(true){
+				Spliterator<Contact> large = null;
+				while(inFlight.size() < window && !pending.isEmpty()){
+					Spliterator<Contact> next = nextChunk(pending);
+					if(next.estimateSize() > chunkSize){
+						large = next;
+						break;
+					}
+					inFlight.add(pool.submit(() -> encode(next, buffers)));
+				}
+				if(large != null){
+					// 더 나눌 수 없는 큰 조각 : 앞의 조각을 모두 기록한 뒤 이 쓰레드에서 순차 기록
+					while(!inFlight.isEmpty()){
+						count += write(inFlight.poll().join(), channel, buffers);
+					}
+					ByteBuffer buffer = buffers.acquire();
+					count += writeSequential(large, channel, buffer);
+					buffers.release(buffer);
+				} else if(inFlight.isEmpty()){
+					return count;
+				} else {
+					count += write(inFlight.poll().join(), channel, buffers);
+				}
+			}
+		} finally {
+			for(ForkJoinTask<Chunk> task : inFlight){
+				task.cancel(false);
+			}
+		}
+	}
+	
+	private long write(Chunk chunk, WritableByteChannel channel, BufferPool buffers) throws IOException {
+		for(ByteBuffer buffer : chunk.buffers){
+			flush(channel, buffer);
+			buffers.release(buffer);
+		}
+		return chunk.count;
+	}
+	
+	/**
+	 * 맨 앞의 조각을 chunkSize 이하가 될 때까지 반으로 나눔. 뒤쪽 절반은 순서대로 pending 에 남음
+	 */
+	private Spliterator<Contact> nextChunk(ArrayDeque<Spliterator<Contact>> pending) {
+		Spliterator<Contact> spliterator = pending.pop();
+		while(spliterator.estimateSize() > chunkSize){
+			Spliterator<Contact> prefix = spliterator.trySplit();
+			if(prefix == null){
+				break;
+			}
+			pending.push(spliterator);
+			spliterator = prefix;
+		}
+		return spliterator;
+	}
+	
+	private Chunk encode(Spliterator<Contact> contacts, BufferPool buffers) {
+		Chunk chunk = new Chunk();
+		Encoder encoder = new Encoder(buffers.acquire(), full -> {
+			chunk.buffers.add(full);
+			return buffers.acquire();
+		});
+		contacts.forEachRemaining(encoder::contact);
+		chunk.buffers.add(encoder.buffer);
+		chunk.count = encoder.count;
+		return chunk;
+	}
+	
+	/**
+	 * 버퍼의 내용을 모두 기록하고 비움
+	 */
+	private static void flush(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()){
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+	
+	private static byte[] ascii(String value) {
+		return value.getBytes(StandardCharsets.US_ASCII);
+	}
+	
+	/**
+	 * 인코딩한 조각. 기록할 버퍼 순서대로
+	 */
+	private static final class Chunk {
+		final List<ByteBuffer> buffers = new ArrayList<>(1);
+		long count;
+	}
+	
+	/**
+	 * 다 쓴 direct 버퍼를 재사용. 최대 retain 개까지만 보관 (인코딩하는 pool 의 동시 조각 수에 맞춤)
+	 */
+	private final class BufferPool {
+		private final ArrayBlockingQueue<ByteBuffer> free;
+		
+		BufferPool(ByteBuffer first, int retain) {
+			this.free = new ArrayBlockingQueue<>(retain);
+			free.offer(first);
+		}
+		
+		ByteBuffer acquire() {
+			ByteBuffer buffer = free.poll();
+			return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize);
+		}
+		
+		void release(ByteBuffer buffer) {
+			buffer.clear();
+			free.offer(buffer);
+		}
+	}
+	
+	/**
+	 * 연락처를 형식에 맞게 UTF-8 로 인코딩
+	 * - 버퍼가 부족하면 full 에 넘기고 받은 버퍼에 이어서 기록
+	 * - 값 하나가 버퍼에 들어가면 값 단위로 한 번만 남은 공간을 확인
+	 */
+	private final class Encoder {
+		
+		private final UnaryOperator<ByteBuffer> full;
+		private final byte[] digits = new byte[11];
+		ByteBuffer buffer;
+		long count;
+		
+		Encoder(ByteBuffer buffer, UnaryOperator<ByteBuffer> full) {
+			this.buffer = buffer;
+			this.full = full;
+		}
+		
+		void contact(Contact contact) {
+			Gender gender = contact.getGender();
+			if(format == Format.JSON_LINES){
+				raw(JSON_KEYS[0]);
+				string(contact.getName());
+				raw(JSON_KEYS[1]);
+				string(contact.getEmail());
+				raw(JSON_KEYS[2]);
+				string(gender == null ? null : gender.name());
+				raw(JSON_KEYS[3]);
+				number(contact.getAge());
+				raw(JSON_KEYS[4]);
+				string(contact.getBirthday());
+				raw(JSON_KEYS[5]);
+				string(contact.getCity());
+				raw(JSON_KEYS[6]);
+				string(contact.getState());
+				ensure(2);
+				buffer.put((byte) '}');
+			} else {
+				byte delimiter = (byte) (format == Format.CSV ? ',' : '|');
+				string(contact.getName());
+				delimiter(delimiter);
+				string(contact.getEmail());
+				delimiter(delimiter);
+				string(gender == null ? null : gender.name());
+				delimiter(delimiter);
+				number(contact.getAge());
+				delimiter(delimiter);
+				string(contact.getBirthday());
+				delimiter(delimiter);
+				string(contact.getCity());
+				delimiter(delimiter);
+				string(contact.getState());
+				ensure(1);
+			}
+			buffer.put((byte) '\n');
+			count++;
+		}
+		
+		private void string(String value) {
+			if(value == null){
+				if(format == Format.JSON_LINES){
+					raw(JSON_NULL);
+				}
+				return;
+			}
+			boolean quote = format == Format.JSON_LINES || format == Format.CSV && needsQuote(value);
+			// UTF-8 최대 3바이트/char, JSON 제어 문자 이스케이프 최대 6바이트/char
+			long worst = (long) value.length() * (format == Format.CSV ? 3 : 6) + 2;
+			boolean checked = worst > buffer.capacity();
+			if(checked){
+				ensure(1);
+			} else {
+				ensure((int) worst);
+			}
+			if(quote){
+				buffer.put((byte) '"');
+			}
+			int length = value.length();
+			for(int i = 0; i < length; i++){
+				if(checked){
+					ensure(6);
+				}
+				char ch = value.charAt(i);
+				if(ch >= 0x80){
+					i = utf8(value, i, ch);
+				} else if(!escape(ch)){
+					buffer.put((byte) ch);
+				}
+			}
+			if(checked){
+				ensure(1);
+			}
+			if(quote){
+				buffer.put((byte) '"');
+			}
+		}
+		
+		/**
+		 * 형식에 따라 ASCII 문자를 이스케이프했으면 true
+		 */
+		private boolean escape(char ch) {
+			switch(format){
+			case CSV	:
+				if(ch == '"'){
+					buffer.put((byte) '"').put((byte) '"');
+					return true;
+				}
+				return false;
+			case PIPE	:
+				if(ch == '|' || ch == '\\'){
+					buffer.put((byte) '\\').put((byte) ch);
+					return true;
+				}
+				if(ch == '\n' || ch == '\r'){
+					buffer.put((byte) '\\').put((byte) (ch == '\n' ? 'n' : 'r'));
+					return true;
+				}
+				return false;
+			default		:
+				if(ch == '"' || ch == '\\'){
+					buffer.put((byte) '\\').put((byte) ch);
+					return true;
+				}
+				if(ch < 0x20){
+					switch(ch){
+					case '\n'	: buffer.put((byte) '\\').put((byte) 'n'); break;
+					case '\r'	: buffer.put((byte) '\\').put((byte) 'r'); break;
+					case '\t'	: buffer.put((byte) '\\').put((byte) 't'); break;
+					default		: buffer.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0')
+									.put(HEX[ch >> 4]).put(HEX[ch & 0xF]); break;
+					}
+					return true;
+				}
+				return false;
+			}
+		}
+		
+		/**
+		 * 0x80 이상의 문자. 짝이 맞는 surrogate 는 4바이트, 짝이 없으면 '?' (String.getBytes 와 같음)
+		 * @return 마지막으로 읽은 위치
+		 */
+		private int utf8(String value, int i, char ch) {
+			if(ch < 0x800){
+				buffer.put((byte) (0xC0 | ch >> 6)).put((byte) (0x80 | ch & 0x3F));
+			} else if(Character.isHighSurrogate(ch) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))){
+				int codePoint = Character.toCodePoint(ch, value.charAt(++i));
+				buffer.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+					.put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+			} else if(Character.isSurrogate(ch)){
+				buffer.put((byte) '?');
+			} else {
+				buffer.put((byte) (0xE0 | ch >> 12)).put((byte) (0x80 | ch >> 6 & 0x3F)).put((byte) (0x80 | ch & 0x3F));
+			}
+			return i;
+		}
+		
+		private boolean needsQuote(String value) {
+			for(int i = 0; i < value.length(); i++){
+				char ch = value.charAt(i);
+				if(ch == ',' || ch == '"' || ch == '\n' || ch == '\r'){
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		private void number(int value) {
+			ensure(digits.length);
+			long remaining = value;
+			if(remaining < 0){
+				buffer.put((byte) '-');
+				remaining = -remaining;
+			}
+			int start = digits.length;
+			do {
+				digits[--start] = (byte) ('0' + remaining % 10);
+				remaining /= 10;
+			} while(remaining != 0);
+			buffer.put(digits, start, digits.length - start);
+		}
+		
+		private void delimiter(byte delimiter) {
+			ensure(1);
+			buffer.put(delimiter);
+		}
+		
+		private void raw(byte[] bytes) {
+			ensure(bytes.length);
+			buffer.put(bytes);
+		}
+		
+		private void ensure(int bytes) {
+			if(buffer.remaining() < bytes){
+				buffer = full.apply(buffer);
+			}
+		}
+	}
+
+}
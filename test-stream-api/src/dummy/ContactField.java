@@ -0,0 +1,70 @@
+package dummy;
+
+import java.util.function.Function;
+
+/**
+ * 질의에 사용하는 연락처 필드
+ * - Contact 객체와 저장소 컬럼 양쪽에서 값을 읽을 수 있음
+ */
+public final class ContactField<T> {
+	
+	enum Kind { STATE, CITY, GENDER, AGE, NAME, EMAIL, BIRTHDAY }
+	
+	public static final ContactField<String> STATE = new ContactField<>("state", Kind.STATE, Contact::getState);
+	public static final ContactField<String> CITY = new ContactField<>("city", Kind.CITY, Contact::getCity);
+	public static final ContactField<Gender> GENDER = new ContactField<>("gender", Kind.GENDER, Contact::getGender);
+	public static final ContactField<Integer> AGE = new ContactField<>("age", Kind.AGE, Contact::getAge);
+	public static final ContactField<String> NAME = new ContactField<>("name", Kind.NAME, Contact::getName);
+	public static final ContactField<String> EMAIL = new ContactField<>("email", Kind.EMAIL, Contact::getEmail);
+	public static final ContactField<String> BIRTHDAY = new ContactField<>("birthday", Kind.BIRTHDAY, Contact::getBirthday);
+	
+	private static final Gender[] GENDERS = Gender.values();
+	
+	private final String name;
+	private final Kind kind;
+	private final Function<Contact, T> getter;
+	
+	private ContactField(String name, Kind kind, Function<Contact, T> getter) {
+		this.name = name;
+		this.kind = kind;
+		this.getter = getter;
+	}
+	
+	public String name() {
+		return name;
+	}
+	
+	public T valueOf(Contact contact) {
+		return getter.apply(contact);
+	}
+	
+	/**
+	 * 저장소의 행에서 값을 읽음
+	 */
+	@SuppressWarnings("unchecked")
+	public T valueAt(ContactStore store, int row) {
+		switch(kind){
+		case STATE		: return (T) store.states().valueOf(store.stateIdAt(row));
+		case CITY		: return (T) store.cities().valueOf(store.cityIdAt(row));
+		case GENDER		: {
+			int ordinal = store.genderOrdinalAt(row);
+			return (T) (ordinal < 0 ? null : GENDERS[ordinal]);
+		}
+		case AGE		: return (T) Integer.valueOf(store.ageAt(row));
+		case NAME		: return (T) store.nameAt(row);
+		case EMAIL		: return (T) store.emailAt(row);
+		case BIRTHDAY	: return (T) store.birthdayAt(row);
+		default			: throw new IllegalStateException(kind.name());
+		}
+	}
+	
+	Kind kind() {
+		return kind;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
@@ -0,0 +1,208 @@
+package dummy;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * 시드 기반 대량 연락처 생성기
+ * - i 번째 연락처는 (시드, i) 만으로 결정되므로 병렬로 생성해도 쓰레드 수와 관계 없이 같은 결과
+ * - 주 인구 비율, 나이 분포, 성비를 실제와 비슷하게 치우치게 생성
+ * - 이메일은 번호를 포함해서 유일, 생일은 나이와 일치
+ */
+public class ContactGenerator {
+	
+	/** 나이와 생일 계산의 기준일 */
+	static final int REFERENCE_YEAR = 2016;
+	
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final double MALE_RATIO = 0.493;
+	
+	/*
+	 * 주, 대표 도시, 인구(만 명)
+	 */
+	private static final String[][] STATES = {
+		{"California", "Los Angeles", "San Diego", "San Jose", "San Francisco"},
+		{"Texas", "Houston", "San Antonio", "Dallas", "Austin"},
+		{"Florida", "Jacksonville", "Miami", "Tampa", "Orlando"},
+		{"New York", "New York", "Buffalo", "Rochester"},
+		{"Illinois", "Chicago", "Aurora", "Naperville"},
+		{"Pennsylvania", "Philadelphia", "Pittsburgh", "Allentown"},
+		{"Ohio", "Columbus", "Cleveland", "Cincinnati"},
+		{"Georgia", "Atlanta", "Augusta", "Savannah"},
+		{"North Carolina", "Charlotte", "Raleigh", "Greensboro"},
+		{"Michigan", "Detroit", "Grand Rapids", "Lansing"},
+		{"New Jersey", "Newark", "Jersey City", "Paterson"},
+		{"Virginia", "Virginia Beach", "Norfolk", "Richmond"},
+		{"Washington", "Seattle", "Spokane", "Tacoma"},
+		{"Arizona", "Phoenix", "Tucson", "Mesa"},
+		{"Massachusetts", "Boston", "Worcester", "Springfield"},
+		{"Colorado", "Denver", "Colorado Springs", "Aurora"},
+		{"Oregon", "Portland", "Salem", "Eugene"},
+		{"Nevada", "Las Vegas", "Henderson", "Reno"},
+		{"Utah", "Salt Lake City", "West Valley City", "Provo"},
+		{"Alaska", "Anchorage", "Fairbanks", "Juneau"},
+	};
+	private static final double[] STATE_POPULATION = {
+		3925, 2786, 2061, 1975, 1280, 1278, 1161, 1031, 1015, 993,
+		894, 841, 729, 693, 678, 554, 409, 294, 305, 74
+	};
+	
+	private static final String[] MALE_NAMES = {"James", "John", "Robert", "Michael", "William", "David", "Richard", "Joseph", "Thomas", "Charles", "Daniel", "Matthew"};
+	private static final String[] FEMALE_NAMES = {"Mary", "Patricia", "Jennifer", "Linda", "Elizabeth", "Barbara", "Susan", "Jessica", "Sarah", "Karen", "Nancy", "Lisa"};
+	private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson", "Anderson", "Taylor", "Thomas"};
+	private static final String[] DOMAINS = {"gmail.com", "yahoo.com", "hotmail.com", "outlook.com", "aol.com"};
+	
+	/** 18 ~ 99 세. 65 세 이후로 급격히 감소 */
+	private static final int MIN_AGE = 18;
+	private static final double[] AGE_WEIGHTS = ageWeights();
+	
+	private static final double[] STATE_CUMULATIVE = cumulative(STATE_POPULATION);
+	private static final double[] AGE_CUMULATIVE = cumulative(AGE_WEIGHTS);
+	private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+	
+	private final long seed;
+	
+	public ContactGenerator(long seed) {
+		this.seed = seed;
+	}
+	
+	/**
+	 * index 번째 연락처
+	 */
+	public Contact generate(long index) {
+		SplittableRandom random = new SplittableRandom(mix(seed + index * GOLDEN_GAMMA));
+		Contact contact = new Contact();
+		
+		String[] state = STATES[sample(STATE_CUMULATIVE, random.nextDouble())];
+		contact.setState(state[0]);
+		// 첫 번째 도시에 절반이 몰리도록
+		contact.setCity(random.nextBoolean() ? state[1] : state[1 + random.nextInt(state.length - 1)]);
+		
+		Gender gender = random.nextDouble() < MALE_RATIO ? Gender.Male : Gender.Female;
+		contact.setGender(gender);
+		
+		int age = MIN_AGE + sample(AGE_CUMULATIVE, random.nextDouble());
+		contact.setAge(age);
+		contact.setBirthday(birthday(age, random));
+		
+		String[] names = gender == Gender.Male ? MALE_NAMES : FEMALE_NAMES;
+		String first = names[random.nextInt(names.length)];
+		String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+		contact.setName(first + " " + last);
+		contact.setEmail(first.toLowerCase() + "." + last.toLowerCase() + index + "@" + DOMAINS[random.nextInt(DOMAINS.length)]);
+		return contact;
+	}
+	
+	/**
+	 * 0 ~ count-1 번째 연락처의 순서 있는 스트림. parallel() 로 병렬 생성 가능
+	 */
+	public Stream<Contact> stream(long count) {
+		return LongStream.range(0, count).mapToObj(this::generate);
+	}
+	
+	/**
+	 * 병렬로 생성한 연락처 목록
+	 */
+	public List<Contact> list(int count) {
+		Contact[] contacts = new Contact[count];
+		IntStream.range(0, count).parallel().forEach(i -> contacts[i] = generate((long) i));
+		return Arrays.asList(contacts);
+	}
+	
+	/**
+	 * 생성한 연락처를 ContactSource 에 순서대로 추가
+	 */
+	public ContactSource addTo(ContactSource source, int count) {
+		list(count).forEach(source::add);
+		return source;
+	}
+	
+	public ContactSource source(int count) {
+		return addTo(new ContactSource(), count);
+	}
+	
+	/**
+	 * addressBook.csv 형식으로 저장
+	 */
+	public void writeCsv(Path path, long count) throws IOException {
+		try(BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)){
+			writer.write(AddressBookCsv.HEADER);
+			writer.newLine();
+			stream(count).parallel()
+						.map(AddressBookCsv::toLine)
+						.forEachOrdered(line -> writeLine(writer, line));
+		}
+	}
+	
+	/**
+	 * {@link ContactRecords} 이진 형식으로 저장
+	 */
+	public void writeBinary(Path path, long count) throws IOException {
+		ContactRecords.write(path, stream(count).parallel());
+	}
+	
+	private static void writeLine(Writer writer, String line) {
+		try {
+			writer.write(line);
+			writer.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private static String birthday(int age, SplittableRandom random) {
+		int month = 1 + random.nextInt(12);
+		int day = 1 + random.nextInt(DAYS_IN_MONTH[month - 1]);
+		return String.format("%04d-%02d-%02d", REFERENCE_YEAR - age, month, day);
+	}
+	
+	private static double[] ageWeights() {
+		double[] weights = new double[100 - MIN_AGE];
+		for(int i = 0; i < weights.length; i++){
+			int age = MIN_AGE + i;
+			weights[i] = age < 65 ? 1.0 : Math.exp(-(age - 65) / 10.0);
+		}
+		return weights;
+	}
+	
+	private static double[] cumulative(double[] weights) {
+		double total = 0;
+		for(double weight : weights){
+			total += weight;
+		}
+		double[] cumulative = new double[weights.length];
+		double sum = 0;
+		for(int i = 0; i < weights.length; i++){
+			sum += weights[i];
+			cumulative[i] = sum / total;
+		}
+		cumulative[weights.length - 1] = 1.0;
+		return cumulative;
+	}
+	
+	private static int sample(double[] cumulative, double value) {
+		int index = Arrays.binarySearch(cumulative, value);
+		return index >= 0 ? index : -index - 1;
+	}
+	
+	/**
+	 * SplitMix64 의 섞기 함수
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+}
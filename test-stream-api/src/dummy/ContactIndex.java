@@ -0,0 +1,139 @@
+package dummy;
+
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * 연락처 보조 인덱스
+ * - 해시 인덱스 : 주, 도시, 이메일
+ * - 비트맵 인덱스 : 성별
+ * - 조건 조합은 선택도가 높은 해시 인덱스의 행만 읽고 비트맵으로 걸러냄
+ */
+public class ContactIndex {
+	
+	private static final int STATE = 1;
+	private static final int CITY = 2;
+	private static final int EMAIL = 4;
+	private static final int GENDER = 8;
+	
+	private final HashIndex states = new HashIndex();
+	private final HashIndex cities = new HashIndex();
+	private final HashIndex emails = new HashIndex();
+	private final BitmapIndex genders = new BitmapIndex(Gender.values().length);
+	
+	/**
+	 * 저장소에 추가(또는 변경)된 행을 인덱스에 반영
+	 */
+	public void insert(ContactStore store, int row) {
+		states.add(store.states().valueOf(store.stateIdAt(row)), row);
+		cities.add(store.cities().valueOf(store.cityIdAt(row)), row);
+		emails.add(store.emailAt(row), row);
+		genders.add(store.genderOrdinalAt(row), row);
+	}
+	
+	/**
+	 * 저장소에서 삭제(또는 변경)되기 전의 행을 인덱스에서 제거
+	 */
+	public void remove(ContactStore store, int row) {
+		states.remove(store.states().valueOf(store.stateIdAt(row)), row);
+		cities.remove(store.cities().valueOf(store.cityIdAt(row)), row);
+		emails.remove(store.emailAt(row), row);
+		genders.remove(store.genderOrdinalAt(row), row);
+	}
+	
+	/**
+	 * 변경 전 행과 새 값(contact)을 비교해 키가 바뀐 인덱스에서만 행을 제거
+	 * @return 바뀐 키. 저장소를 변경한 뒤 {@link #insertChanged} 에 넘김
+	 */
+	public int removeChanged(ContactStore store, int row, Contact contact) {
+		String state = store.states().valueOf(store.stateIdAt(row));
+		String city = store.cities().valueOf(store.cityIdAt(row));
+		String email = store.emailAt(row);
+		int gender = store.genderOrdinalAt(row);
+		int changed = 0;
+		if(!Objects.equals(state, contact.getState())){
+			states.remove(state, row);
+			changed |= STATE;
+		}
+		if(!Objects.equals(city, contact.getCity())){
+			cities.remove(city, row);
+			changed |= CITY;
+		}
+		if(!Objects.equals(email, contact.getEmail())){
+			emails.remove(email, row);
+			changed |= EMAIL;
+		}
+		if(gender != (contact.getGender() == null ? -1 : contact.getGender().ordinal())){
+			genders.remove(gender, row);
+			changed |= GENDER;
+		}
+		return changed;
+	}
+	
+	/**
+	 * 변경된 행을 바뀐 키의 인덱스에만 추가
+	 */
+	public void insertChanged(ContactStore store, int row, int changed) {
+		if((changed & STATE) != 0){
+			states.add(store.states().valueOf(store.stateIdAt(row)), row);
+		}
+		if((changed & CITY) != 0){
+			cities.add(store.cities().valueOf(store.cityIdAt(row)), row);
+		}
+		if((changed & EMAIL) != 0){
+			emails.add(store.emailAt(row), row);
+		}
+		if((changed & GENDER) != 0){
+			genders.add(store.genderOrdinalAt(row), row);
+		}
+	}
+	
+	public IntStream rowsByState(String state) {
+		return states.rows(state);
+	}
+	
+	public IntStream rowsByCity(String city) {
+		return cities.rows(city);
+	}
+	
+	public IntStream rowsByEmail(String email) {
+		return emails.rows(email);
+	}
+	
+	public IntStream rowsByGender(Gender gender) {
+		return genders.rows(gender.ordinal());
+	}
+	
+	public IntStream rowsByStateAndGender(String state, Gender gender) {
+		return intersect(states.rowList(state), gender);
+	}
+	
+	public IntStream rowsByCityAndGender(String city, Gender gender) {
+		return intersect(cities.rowList(city), gender);
+	}
+	
+	public HashIndex states() {
+		return states;
+	}
+	
+	public HashIndex cities() {
+		return cities;
+	}
+	
+	public HashIndex emails() {
+		return emails;
+	}
+	
+	public BitmapIndex genders() {
+		return genders;
+	}
+	
+	private IntStream intersect(RowList rows, Gender gender) {
+		if(rows == null){
+			return IntStream.empty();
+		}
+		int ordinal = gender.ordinal();
+		return rows.stream().filter(row -> genders.contains(ordinal, row));
+	}
+
+}
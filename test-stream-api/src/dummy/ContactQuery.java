@@ -0,0 +1,564 @@
+package dummy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IntSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 연락처 질의 빌더
+ * <pre>
+ * source.query()
+ *       .where(STATE, eq("Florida"))
+ *       .and(GENDER, eq(Gender.Male))
+ *       .avg(AGE);
+ * </pre>
+ * - 모든 조건을 하나의 반복문에서 평가 (filter 단계별 람다 호출 없음)
+ * - 같음 조건 중 인덱스 결과가 가장 작은 것으로 후보 행을 좁히고, 나머지만 평가
+ * - 나머지 조건은 관찰한 통과율과 비용으로 평가 순서를 주기적으로 재정렬
+ * - 주/성별 같음 조건만 있는 나이 집계는 유지 중인 집계({@link ContactStatistics})를 사용
+ * - {@link QueryCache#query()} 로 만든 질의는 결과를 캐시
+ */
+public class ContactQuery {
+	
+	/** 조건 평가 순서를 재정렬하는 주기 (행 수) */
+	private static final int REORDER_INTERVAL = 1024;
+	
+	private final ContactSource source;
+	private final QueryCache cache;
+	private final List<Conjunct<?>> conjuncts = new ArrayList<>();
+	
+	ContactQuery(ContactSource source) {
+		this(source, null);
+	}
+	
+	ContactQuery(ContactSource source, QueryCache cache) {
+		this.source = source;
+		this.cache = cache;
+	}
+	
+	public <T> ContactQuery where(ContactField<T> field, Condition<? super T> condition) {
+		conjuncts.add(new Conjunct<>(field, condition));
+		return this;
+	}
+	
+	public <T> ContactQuery and(ContactField<T> field, Condition<? super T> condition) {
+		return where(field, condition);
+	}
+	
+	/*
+	 * 최종 연산
+	 */
+	public long count() {
+		return cached("count", () -> {
+			long[] count = new long[1];
+			execute(row -> {
+				count[0]++;
+				return true;
+			});
+			return count[0];
+		});
+	}
+	
+	public List<Contact> list() {
+		return toList(cached("list", this::rows));
+	}
+	
+	public Optional<Contact> findFirst() {
+		int found = cached("findFirst", () -> {
+			int[] first = {-1};
+			execute(row -> {
+				first[0] = row;
+				return false;
+			});
+			return first[0];
+		});
+		return found < 0 ? Optional.empty() : Optional.of(source.store().get(found));
+	}
+	
+	/**
+	 * 필드 값별 연락처 목록 (null 값은 제외)
+	 */
+	public <K> Map<K, List<Contact>> groupingBy(ContactField<K> field) {
+		Map<K, RowList> groups = cached("groupingBy " + field, () -> {
+			ContactStore store = source.store();
+			Map<K, RowList> rows = new HashMap<>();
+			execute(row -> {
+				K key = field.valueAt(store, row);
+				if(key != null){
+					rows.computeIfAbsent(key, k -> new RowList()).add(row);
+				}
+				return true;
+			});
+			return rows;
+		});
+		Map<K, List<Contact>> contacts = new HashMap<>();
+		groups.forEach((key, rows) -> contacts.put(key, toList(rows)));
+		return contacts;
+	}
+	
+	public AgeStatistics statistics(ContactField<Integer> field) {
+		AgeStatistics materialized = materialized(field);
+		if(materialized != null){
+			return materialized;
+		}
+		return cached("statistics " + field, () -> {
+			ContactStore store = source.store();
+			IntSummaryStatistics statistics = new IntSummaryStatistics();
+			execute(row -> {
+				statistics.accept(store.ageAt(row));
+				return true;
+			});
+			return statistics.getCount() == 0 ? AgeStatistics.EMPTY 
+					: new AgeStatistics(statistics.getCount(), statistics.getSum(), statistics.getMin(), statistics.getMax());
+		});
+	}
+	
+	public OptionalDouble avg(ContactField<Integer> field) {
+		AgeStatistics statistics = statistics(field);
+		return statistics.getCount() == 0 ? OptionalDouble.empty() : OptionalDouble.of(statistics.getAverage());
+	}
+	
+	public long sum(ContactField<Integer> field) {
+		return statistics(field).getSum();
+	}
+	
+	public OptionalInt min(ContactField<Integer> field) {
+		AgeStatistics statistics = statistics(field);
+		return statistics.getCount() == 0 ? OptionalInt.empty() : OptionalInt.of(statistics.getMin());
+	}
+	
+	public OptionalInt max(ContactField<Integer> field) {
+		AgeStatistics statistics = statistics(field);
+		return statistics.getCount() == 0 ? OptionalInt.empty() : OptionalInt.of(statistics.getMax());
+	}
+	
+	/**
+	 * 실행 계획 설명 : 후보 행을 고르는 방법과 조건 평가 순서
+	 */
+	public String explain() {
+		ContactStore store = source.store();
+		Conjunct<?> driver = driver();
+		StringBuilder plan = new StringBuilder();
+		plan.append(driver == null ? "scan " + store.rowCount() + " rows" : "index " + driver + " (" + driver.indexCount(source.index()) + " rows)");
+		for(Step step : steps(store, driver)){
+			plan.append(" -> filter ").append(step.conjunct)
+				.append(" [pass ").append(String.format("%.2f", step.conjunct.passRate()))
+				.append(", cost ").append(step.cost).append(']');
+		}
+		return plan.toString();
+	}
+	
+	/*
+	 * 캐시
+	 */
+	private <R> R cached(String operation, Supplier<R> compute) {
+		return cache == null ? compute.get() : cache.get(snapshot(), operation, compute);
+	}
+	
+	/**
+	 * 이후에 조건이 추가되어도 바뀌지 않는 사본
+	 */
+	ContactQuery snapshot() {
+		ContactQuery query = new ContactQuery(source, cache);
+		query.conjuncts.addAll(conjuncts);
+		return query;
+	}
+	
+	/**
+	 * 조건 순서와 무관한 질의 설명 (표시용)
+	 */
+	String descriptor() {
+		return conjuncts.stream()
+						.map(Conjunct::toString)
+						.sorted()
+						.collect(Collectors.joining(", ", "[", "]"));
+	}
+	
+	/**
+	 * 조건 순서와 무관한 캐시 키. 조건마다 필드 이름과 {@link Condition#key()} 를 사용
+	 */
+	String key() {
+		return conjuncts.stream()
+						.map(conjunct -> conjunct.field.name() + " " + conjunct.condition.key())
+						.sorted()
+						.collect(Collectors.joining(", ", "[", "]"));
+	}
+	
+	/**
+	 * 주/도시/성별 같음 조건이 있으면 "field=값의 키" ({@link Condition#key(Object)}), 없으면 null
+	 */
+	String partition() {
+		for(Conjunct<?> conjunct : conjuncts){
+			switch(conjunct.field.kind()){
+			case STATE	:
+			case CITY	:
+			case GENDER	:
+				if(conjunct.condition.isEquality()){
+					return conjunct.field.name() + "=" + Condition.key(conjunct.condition.value());
+				}
+				break;
+			default		: break;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * 행이 모든 조건을 만족하는지
+	 */
+	@SuppressWarnings("unchecked")
+	boolean matches(ContactStore store, int row) {
+		for(Conjunct<?> conjunct : conjuncts){
+			if(!((Condition<Object>) conjunct.condition).test(conjunct.field.valueAt(store, row))){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * 연락처 값이 모든 조건을 만족하는지 (저장소에 없는 값, 연속 질의에서 사용)
+	 */
+	@SuppressWarnings("unchecked")
+	boolean matches(Contact contact) {
+		for(Conjunct<?> conjunct : conjuncts){
+			if(!((Condition<Object>) conjunct.condition).test(conjunct.field.valueOf(contact))){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * 조건을 만족하는 행 번호. 캐시하지 않음
+	 */
+	RowList rows() {
+		RowList matched = new RowList();
+		execute(row -> {
+			matched.add(row);
+			return true;
+		});
+		return matched;
+	}
+	
+	private List<Contact> toList(RowList rows) {
+		ContactStore store = source.store();
+		List<Contact> contacts = new ArrayList<>(rows.size());
+		rows.forEach(row -> contacts.add(store.get(row)));
+		return contacts;
+	}
+	
+	/*
+	 * 실행
+	 */
+	private interface RowSink {
+		/**
+		 * @return 계속 진행하려면 true
+		 */
+		boolean accept(int row);
+	}
+	
+	private void execute(RowSink sink) {
+		ContactStore store = source.store();
+		Conjunct<?> driver = driver();
+		Step[] steps = steps(store, driver);
+		for(Step step : steps){
+			if(step.predicate == null){
+				return;		// 만족하는 값이 없는 조건 : 결과 없음
+			}
+		}
+		
+		int evaluated = 0;
+		try {
+			if(driver == null){
+				int rowCount = store.rowCount();
+				for(int row = 0; row < rowCount; row++){
+					if(!store.isLive(row)){
+						continue;
+					}
+					if(matches(steps, row) && !sink.accept(row)){
+						return;
+					}
+					if(++evaluated % REORDER_INTERVAL == 0){
+						reorder(steps);
+					}
+				}
+			} else {
+				PrimitiveIterator.OfInt rows = driver.indexRows(source.index()).iterator();
+				while(rows.hasNext()){
+					int row = rows.nextInt();
+					if(matches(steps, row) && !sink.accept(row)){
+						return;
+					}
+					if(++evaluated % REORDER_INTERVAL == 0){
+						reorder(steps);
+					}
+				}
+			}
+		} finally {
+			for(Step step : steps){
+				step.conjunct.record(step.evaluated, step.passed);
+			}
+		}
+	}
+	
+	private static boolean matches(Step[] steps, int row) {
+		for(Step step : steps){
+			step.evaluated++;
+			if(!step.predicate.test(row)){
+				return false;
+			}
+			step.passed++;
+		}
+		return true;
+	}
+	
+	/**
+	 * 비용 대비 걸러내는 비율이 높은 조건을 앞으로
+	 */
+	private static void reorder(Step[] steps) {
+		Arrays.sort(steps, Comparator.comparingDouble(Step::rank).reversed());
+	}
+	
+	/**
+	 * 인덱스로 후보 행을 고를 조건. 인덱스 결과가 가장 작은 같음 조건
+	 */
+	private Conjunct<?> driver() {
+		ContactIndex index = source.index();
+		Conjunct<?> driver = null;
+		int driverCount = Integer.MAX_VALUE;
+		for(Conjunct<?> conjunct : conjuncts){
+			int count = conjunct.indexCount(index);
+			if(count >= 0 && count < driverCount){
+				driver = conjunct;
+				driverCount = count;
+			}
+		}
+		return driver;
+	}
+	
+	private Step[] steps(ContactStore store, Conjunct<?> driver) {
+		List<Step> steps = new ArrayList<>();
+		for(Conjunct<?> conjunct : conjuncts){
+			if(conjunct != driver){
+				steps.add(new Step(conjunct, conjunct.compile(store), conjunct.cost()));
+			}
+		}
+		Step[] array = steps.toArray(new Step[steps.size()]);
+		reorder(array);
+		return array;
+	}
+	
+	/**
+	 * 주, 성별 같음 조건만으로 이루어진 나이 집계는 유지 중인 집계를 사용
+	 */
+	private AgeStatistics materialized(ContactField<Integer> field) {
+		if(field != ContactField.AGE){
+			return null;
+		}
+		String state = null;
+		Gender gender = null;
+		for(Conjunct<?> conjunct : conjuncts){
+			Condition<?> condition = conjunct.condition;
+			if(!condition.isEquality() || condition.value() == null){
+				return null;
+			}
+			if(conjunct.field == ContactField.STATE && state == null){
+				state = (String) condition.value();
+			} else if(conjunct.field == ContactField.GENDER && gender == null){
+				gender = (Gender) condition.value();
+			} else {
+				return null;
+			}
+		}
+		if(state == null){
+			return gender == null ? source.ageStatistics() : source.ageStatisticsByGender(gender);
+		}
+		return gender == null ? source.ageStatisticsByState(state) : source.ageStatistics(state, gender);
+	}
+	
+	/**
+	 * 실행 한 번의 조건 평가 단계. 이번 실행의 통과 횟수는 여기에만 세고 끝날 때 Conjunct 에 합침
+	 * (같은 질의를 여러 쓰레드가 동시에 실행해도 공유 카운터를 갱신하지 않음)
+	 */
+	private static final class Step {
+		final Conjunct<?> conjunct;
+		final IntPredicate predicate;
+		final double cost;
+		final long previousEvaluated;
+		final long previousPassed;
+		long evaluated;
+		long passed;
+		
+		Step(Conjunct<?> conjunct, IntPredicate predicate, double cost) {
+			this.conjunct = conjunct;
+			this.predicate = predicate;
+			this.cost = cost;
+			long[] observed = conjunct.observed();
+			this.previousEvaluated = observed[0];
+			this.previousPassed = observed[1];
+		}
+		
+		double rank() {
+			double passRate = (previousPassed + passed + 1.0) / (previousEvaluated + evaluated + 2.0);
+			return (1.0 - passRate) / cost;
+		}
+	}
+	
+	/**
+	 * 필드 조건 하나와 관찰한 통과율
+	 */
+	private static final class Conjunct<T> {
+		final ContactField<T> field;
+		final Condition<? super T> condition;
+		private long evaluated;
+		private long passed;
+		
+		Conjunct(ContactField<T> field, Condition<? super T> condition) {
+			this.field = field;
+			this.condition = condition;
+		}
+		
+		/**
+		 * 지금까지 관찰한 {평가 횟수, 통과 횟수}
+		 */
+		synchronized long[] observed() {
+			return new long[] {evaluated, passed};
+		}
+		
+		synchronized double passRate() {
+			return (passed + 1.0) / (evaluated + 2.0);
+		}
+		
+		synchronized void record(long evaluated, long passed) {
+			this.evaluated += evaluated;
+			this.passed += passed;
+		}
+		
+		/**
+		 * 사전 id, 성별 ordinal, 나이 비교는 1, 문자열 비교는 4
+		 */
+		double cost() {
+			switch(field.kind()){
+			case STATE	:
+			case CITY	:
+			case GENDER	:
+			case AGE	: return 1;
+			default		: return 4;
+			}
+		}
+		
+		/**
+		 * 인덱스가 있는 같음 조건이면 해당 행 수, 아니면 -1
+		 */
+		int indexCount(ContactIndex index) {
+			Object value = condition.value();
+			if(!condition.isEquality() || value == null){
+				return -1;
+			}
+			switch(field.kind()){
+			case STATE	: return index.states().count((String) value);
+			case CITY	: return index.cities().count((String) value);
+			case EMAIL	: return index.emails().count((String) value);
+			case GENDER	: return index.genders().count(((Gender) value).ordinal());
+			default		: return -1;
+			}
+		}
+		
+		IntStream indexRows(ContactIndex index) {
+			Object value = condition.value();
+			switch(field.kind()){
+			case STATE	: return index.rowsByState((String) value);
+			case CITY	: return index.rowsByCity((String) value);
+			case EMAIL	: return index.rowsByEmail((String) value);
+			case GENDER	: return index.rowsByGender((Gender) value);
+			default		: throw new IllegalStateException(field.name());
+			}
+		}
+		
+		/**
+		 * 행 번호에 대한 조건으로 변환. 만족하는 값이 없으면 null
+		 * - 주/도시 : 사전의 값마다 한 번씩 평가해서 id 로 비교
+		 * - 성별 : ordinal 로 비교
+		 * - 나이 : 기본형 비교
+		 */
+		@SuppressWarnings("unchecked")
+		IntPredicate compile(ContactStore store) {
+			switch(field.kind()){
+			case STATE	: return compile(store.states(), store::stateIdAt);
+			case CITY	: return compile(store.cities(), store::cityIdAt);
+			case GENDER	: {
+				Gender[] genders = Gender.values();
+				boolean[] matches = new boolean[genders.length + 1];
+				boolean any = false;
+				for(int i = 0; i <= genders.length; i++){
+					matches[i] = ((Condition<Object>) condition).test(i == genders.length ? null : genders[i]);
+					any |= matches[i];
+				}
+				if(!any){
+					return null;
+				}
+				int nullIndex = genders.length;
+				return row -> {
+					int ordinal = store.genderOrdinalAt(row);
+					return matches[ordinal < 0 ? nullIndex : ordinal];
+				};
+			}
+			case AGE	: {
+				IntPredicate intPredicate = condition.intPredicate();
+				if(intPredicate != null){
+					return row -> intPredicate.test(store.ageAt(row));
+				}
+				break;
+			}
+			default		: break;
+			}
+			return row -> condition.test(field.valueAt(store, row));
+		}
+		
+		@SuppressWarnings("unchecked")
+		private IntPredicate compile(StringDictionary dictionary, IntUnaryOperator idAt) {
+			Condition<Object> condition = (Condition<Object>) this.condition;
+			if(condition.isEquality()){
+				int id = dictionary.find((String) condition.value());
+				if(condition.value() != null && id == StringDictionary.NULL_ID){
+					return null;
+				}
+				return row -> idAt.applyAsInt(row) == id;
+			}
+			boolean matchesNull = condition.test(null);
+			boolean[] matches = new boolean[dictionary.size()];
+			boolean any = matchesNull;
+			for(int id = 0; id < matches.length; id++){
+				matches[id] = condition.test(dictionary.valueOf(id));
+				any |= matches[id];
+			}
+			if(!any){
+				return null;
+			}
+			return row -> {
+				int id = idAt.applyAsInt(row);
+				return id == StringDictionary.NULL_ID ? matchesNull : matches[id];
+			};
+		}
+
+		@Override
+		public String toString() {
+			return field + " " + condition;
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+package dummy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 행 단위 이진 연락처 파일
+ * - 매직 넘버 뒤에 연락처마다 성별(byte), 나이(int), 문자열 5개(존재 플래그 + UTF)를 차례로 기록
+ * - 개수를 미리 몰라도 스트림을 그대로 기록할 수 있음
+ */
+public class ContactRecords {
+	
+	static final int MAGIC = 0x43524543;		// "CREC"
+	
+	private static final Gender[] GENDERS = Gender.values();
+	
+	private ContactRecords() {}
+	
+	/**
+	 * 스트림 순서대로 기록하고 기록한 개수를 반환
+	 */
+	public static long write(Path path, Stream<Contact> contacts) throws IOException {
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))){
+			out.writeInt(MAGIC);
+			long[] count = new long[1];
+			contacts.forEachOrdered(contact -> {
+				try {
+					write(out, contact);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				count[0]++;
+			});
+			return count[0];
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	
+	/**
+	 * 파일의 연락처를 순서대로 전달하고 개수를 반환
+	 */
+	public static long read(Path path, Consumer<? super Contact> action) throws IOException {
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))){
+			if(in.readInt() != MAGIC){
+				throw new IOException("not a contact record file : " + path);
+			}
+			long count = 0;
+			while(true){
+				int gender;
+				try {
+					gender = in.readByte();
+				} catch (EOFException e) {
+					return count;
+				}
+				Contact contact = new Contact();
+				contact.setGender(gender < 0 ? null : GENDERS[gender]);
+				contact.setAge(in.readInt());
+				contact.setState(readString(in));
+				contact.setCity(readString(in));
+				contact.setName(readString(in));
+				contact.setEmail(readString(in));
+				contact.setBirthday(readString(in));
+				action.accept(contact);
+				count++;
+			}
+		}
+	}
+	
+	public static long read(Path path, ContactSource source) throws IOException {
+		return read(path, source::add);
+	}
+	
+	private static void write(DataOutputStream out, Contact contact) throws IOException {
+		out.writeByte(contact.getGender() == null ? -1 : contact.getGender().ordinal());
+		out.writeInt(contact.getAge());
+		writeString(out, contact.getState());
+		writeString(out, contact.getCity());
+		writeString(out, contact.getName());
+		writeString(out, contact.getEmail());
+		writeString(out, contact.getBirthday());
+	}
+	
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if(value != null){
+			out.writeUTF(value);
+		}
+	}
+	
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+}
@@ -0,0 +1,144 @@
+package dummy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 이름과 이메일의 자동 완성/검색 인덱스 (대소문자 무시)
+ * <pre>
+ * ContactSearch search = new ContactSearch(source);
+ * search.complete(ContactField.NAME, "jo", 10);			// 자동 완성 후보 10개
+ * search.startsWith(ContactField.EMAIL, "smith", 20);	// 단어가 "smith" 로 시작하는 연락처
+ * search.contains(ContactField.EMAIL, "mith@", 20);		// 부분 문자열
+ * </pre>
+ * - 연락처마다 filter(c -&gt; c.getName().startsWith(q)) 로 전체를 읽지 않고,
+ *   정렬된 단어 시작 위치에서 접두어 구간을 이진 탐색한 뒤 상위 k 개만 꺼냄
+ * - 값이 같은 연락처는 용어 하나로 묶이고, 여러 연락처가 사용하는 값이 먼저 나옴
+ * - ContactSource 의 추가/변경/삭제를 바로 반영. 새 값은 작은 정렬 배열에 넣고, 큰 병합은 executor 에서 만든 뒤 교체
+ *   -> 변경한 쓰레드(RowListener)는 인덱스 전체를 다시 만들지 않음
+ */
+public class ContactSearch {
+	
+	private final ContactSource source;
+	private final TextIndex names;
+	private final TextIndex emails;
+	
+	/**
+	 * 현재 연락처로 인덱스를 만들고, 이후 변경을 따라감. 병합은 공용 풀에서
+	 */
+	public ContactSearch(ContactSource source) {
+		this(source, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * @param executor 인덱스의 큰 병합을 실행할 쓰레드
+	 */
+	public ContactSearch(ContactSource source, Executor executor) {
+		this.source = source;
+		this.names = new TextIndex(executor);
+		this.emails = new TextIndex(executor);
+		ContactStore store = source.store();
+		store.rows().forEach(row -> {
+			names.load(store.nameAt(row), row);
+			emails.load(store.emailAt(row), row);
+		});
+		names.indexLoaded();
+		emails.indexLoaded();
+		source.addRowListener(new ContactSource.RowListener() {
+			@Override
+			public void inserted(int id) {
+				add(id);
+			}
+
+			@Override
+			public void updating(int id) {
+				remove(id);
+			}
+
+			@Override
+			public void updated(int id) {
+				add(id);
+			}
+
+			@Override
+			public void deleting(int id) {
+				remove(id);
+			}
+		});
+	}
+	
+	/**
+	 * 단어가 prefix 로 시작하는 값. 연락처 수가 많은 값, 짧은 값 순으로 최대 limit 개
+	 * @param field {@link ContactField#NAME} 또는 {@link ContactField#EMAIL}
+	 */
+	public synchronized List<String> complete(ContactField<String> field, String prefix, int limit) {
+		TextIndex index = index(field);
+		List<String> values = new ArrayList<>();
+		for(int id : index.startsWith(prefix, limit)){
+			values.add(index.display(id));
+		}
+		return values;
+	}
+	
+	/**
+	 * 단어가 prefix 로 시작하는 연락처. complete 의 순위순, 같은 값은 행 번호순으로 최대 limit 개
+	 */
+	public synchronized List<Contact> startsWith(ContactField<String> field, String prefix, int limit) {
+		TextIndex index = index(field);
+		return contacts(index, index.startsWith(prefix, limit), limit);
+	}
+	
+	/**
+	 * 값에 text 가 포함된 연락처. 연락처 수, 일치 위치, 값 길이 순, 같은 값은 행 번호순으로 최대 limit 개
+	 * - text 가 2글자 이하면 startsWith 와 같음 (사전 전체를 검사하지 않음)
+	 */
+	public synchronized List<Contact> contains(ContactField<String> field, String text, int limit) {
+		TextIndex index = index(field);
+		return contacts(index, index.contains(text, limit), limit);
+	}
+	
+	/**
+	 * 서로 다른 값의 수 (대소문자 무시)
+	 */
+	public synchronized int termCount(ContactField<String> field) {
+		return index(field).termCount();
+	}
+	
+	private synchronized void add(int row) {
+		ContactStore store = source.store();
+		names.add(store.nameAt(row), row);
+		emails.add(store.emailAt(row), row);
+	}
+	
+	private synchronized void remove(int row) {
+		ContactStore store = source.store();
+		names.remove(store.nameAt(row), row);
+		emails.remove(store.emailAt(row), row);
+	}
+	
+	private TextIndex index(ContactField<String> field) {
+		if(field == ContactField.NAME){
+			return names;
+		}
+		if(field == ContactField.EMAIL){
+			return emails;
+		}
+		throw new IllegalArgumentException("not a searchable field : " + field);
+	}
+	
+	private List<Contact> contacts(TextIndex index, List<Integer> ids, int limit) {
+		ContactStore store = source.store();
+		List<Contact> contacts = new ArrayList<>();
+		for(int id : ids){
+			PrimitiveIterator.OfInt rows = index.rows(id).iterator();
+			while(rows.hasNext() && contacts.size() < limit){
+				contacts.add(store.get(rows.nextInt()));
+			}
+		}
+		return contacts;
+	}
+
+}
@@ -0,0 +1,478 @@
+package dummy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import csv.MappedCsvFile;
+
+/**
+ * 컬럼 기반 이진 스냅샷 파일 (버전 1)
+ * - [헤더] magic, version, footer 위치
+ * - [블록] 최대 {@link #BLOCK_ROWS} 행을 컬럼별로 기록 : 성별, 나이, 주 id, 도시 id, 생일, 이름, 이메일, 형식이 다른 생일
+ *   - 정수는 varint, 주/도시는 사전 id, yyyy-MM-dd 생일은 yyyyMMdd 정수
+ *   - 블록마다 CRC32 체크섬
+ * - [footer] 연락처 수, 주/도시 사전, 블록 위치 목록 (블록 앞에는 행 수, 길이, CRC32)
+ * - 블록은 서로 독립적이므로 병렬로 읽고 해석할 수 있음
+ */
+public class ContactSnapshot {
+	
+	static final int MAGIC = 0x43534e50;		// "CSNP"
+	static final int VERSION = 1;
+	static final int BLOCK_ROWS = 1 << 16;
+	
+	private static final int HEADER_LENGTH = 16;
+	private static final int BLOCK_HEADER_LENGTH = 16;		// 행 수, 길이, CRC32
+	
+	private static final Gender[] GENDERS = Gender.values();
+	
+	private ContactSnapshot() {}
+
+	/**
+	 * 스트림 순서대로 기록하고 기록한 개수를 반환
+	 */
+	public static long write(Path path, Stream<Contact> contacts) throws IOException {
+		try(Writer writer = new Writer(path)){
+			try {
+				contacts.forEachOrdered(contact -> {
+					try {
+						writer.add(contact);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} catch (Throwable e) {
+				writer.abort();
+				throw e;
+			}
+			return writer.count;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	public static long write(Path path, ContactSource source) throws IOException {
+		return write(path, source.stream());
+	}
+
+	/**
+	 * addressBook.csv 형식의 파일을 스냅샷으로 변환하고 변환한 개수를 반환
+	 */
+	public static long convert(Path csv, Path snapshot) throws IOException {
+		try(MappedCsvFile file = MappedCsvFile.open(csv, true);
+				Writer writer = new Writer(snapshot)){
+			try {
+				file.forEachRow(row -> {
+					try {
+						writer.add(AddressBookCsv.toContact(row));
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} catch (Throwable e) {
+				writer.abort();
+				throw e;
+			}
+			return writer.count;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * 파일의 연락처를 순서대로 전달하고 개수를 반환
+	 * @param parallel 블록 해석을 병렬로 수행. 전달 순서는 그대로 유지
+	 */
+	public static long read(Path path, Consumer<? super Contact> action, boolean parallel) throws IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+			Footer footer = readFooter(channel, path);
+			IntStream blocks = IntStream.range(0, footer.blockCount());
+			if(parallel){
+				blocks = blocks.parallel();
+			}
+			blocks.mapToObj(block -> {
+						try {
+							return readBlock(channel, footer, block);
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					})
+					.forEachOrdered(contacts -> {
+						for(Contact contact : contacts){
+							action.accept(contact);
+						}
+					});
+			return footer.count;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	public static long read(Path path, ContactSource source) throws IOException {
+		return read(path, source::add, true);
+	}
+
+	public static ContactSource load(Path path) throws IOException {
+		ContactSource source = new ContactSource();
+		read(path, source);
+		return source;
+	}
+
+	private static Footer readFooter(FileChannel channel, Path path) throws IOException {
+		ByteBuffer header = readFully(channel, 0, HEADER_LENGTH);
+		if(header.getInt() != MAGIC){
+			throw new IOException("not a contact snapshot : " + path);
+		}
+		int version = header.getInt();
+		if(version != VERSION){
+			throw new IOException("unsupported snapshot version " + version + " : " + path);
+		}
+		long footerPosition = header.getLong();
+		ByteBuffer buffer = readFully(channel, footerPosition, (int) (channel.size() - footerPosition));
+
+		Footer footer = new Footer();
+		footer.count = buffer.getLong();
+		footer.states = readStrings(buffer);
+		footer.cities = readStrings(buffer);
+		int blockCount = buffer.getInt();
+		footer.positions = new long[blockCount];
+		for(int i = 0; i < blockCount; i++){
+			footer.positions[i] = buffer.getLong();
+		}
+		return footer;
+	}
+
+	private static Contact[] readBlock(FileChannel channel, Footer footer, int block) throws IOException {
+		long position = footer.positions[block];
+		ByteBuffer header = readFully(channel, position, BLOCK_HEADER_LENGTH);
+		int rows = header.getInt();
+		int length = header.getInt();
+		long checksum = header.getLong();
+		ByteBuffer buffer = readFully(channel, position + BLOCK_HEADER_LENGTH, length);
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, length);
+		if(crc.getValue() != checksum){
+			throw new IOException("checksum mismatch in block " + block);
+		}
+
+		Contact[] contacts = new Contact[rows];
+		for(int i = 0; i < rows; i++){
+			contacts[i] = new Contact();
+			int gender = buffer.get();
+			contacts[i].setGender(gender < 0 ? null : GENDERS[gender]);
+		}
+		for(Contact contact : contacts){
+			contact.setAge(zigZagDecode(readVarInt(buffer)));
+		}
+		for(Contact contact : contacts){
+			contact.setState(lookup(footer.states, readVarInt(buffer) - 1));
+		}
+		for(Contact contact : contacts){
+			contact.setCity(lookup(footer.cities, readVarInt(buffer) - 1));
+		}
+		int[] birthdays = new int[rows];
+		for(int i = 0; i < rows; i++){
+			birthdays[i] = readVarInt(buffer);
+		}
+		for(Contact contact : contacts){
+			contact.setName(readString(buffer));
+		}
+		for(Contact contact : contacts){
+			contact.setEmail(readString(buffer));
+		}
+		for(int i = 0; i < rows; i++){
+			// 형식이 다른 생일은 문자열 컬럼에 기록됨
+			contacts[i].setBirthday(birthdays[i] == 0 ? readString(buffer) : ContactText.formatDate(birthdays[i]));
+		}
+		return contacts;
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while(buffer.hasRemaining()){
+			if(channel.read(buffer, position + buffer.position()) < 0){
+				throw new IOException("unexpected end of snapshot");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private static String lookup(String[] values, int id) {
+		return id == StringDictionary.NULL_ID ? null : values[id];
+	}
+
+	private static String[] readStrings(ByteBuffer buffer) {
+		String[] values = new String[buffer.getInt()];
+		for(int i = 0; i < values.length; i++){
+			values[i] = readString(buffer);
+		}
+		return values;
+	}
+
+	/**
+	 * [varint 길이 + 1][UTF-8]. 길이 0 은 null
+	 */
+	private static String readString(ByteBuffer buffer) {
+		int length = readVarInt(buffer) - 1;
+		if(length < 0){
+			return null;
+		}
+		String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+
+	private static int readVarInt(ByteBuffer buffer) {
+		int value = 0;
+		for(int shift = 0; ; shift += 7){
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if(b >= 0){
+				return value;
+			}
+		}
+	}
+
+	private static int zigZagDecode(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static class Footer {
+		long count;
+		String[] states;
+		String[] cities;
+		long[] positions;
+
+		int blockCount() {
+			return positions.length;
+		}
+	}
+
+	/**
+	 * 연락처를 블록 단위로 모아서 기록
+	 * - 헤더는 close 에서 마지막으로 기록하므로, 완료되지 않은 파일은 열리지 않음
+	 * - add 가 실패했거나 {@link #abort()} 를 호출했으면 close 는 footer/헤더를 쓰지 않고 파일을 지움
+	 */
+	public static class Writer implements Closeable {
+
+		private final Path path;
+		private final FileChannel channel;
+		private final StringDictionary states = new StringDictionary();
+		private final StringDictionary cities = new StringDictionary();
+		private final Contact[] block = new Contact[BLOCK_ROWS];
+		private final Bytes bytes = new Bytes();
+		private long[] positions = new long[16];
+		private int blockCount;
+		private int rows;
+		private long count;
+		private boolean failed;
+
+		public Writer(Path path) throws IOException {
+			this.path = path;
+			this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			channel.position(HEADER_LENGTH);
+		}
+
+		public void add(Contact contact) throws IOException {
+			if(failed){
+				throw new IllegalStateException("snapshot writer aborted");
+			}
+			try {
+				block[rows++] = contact;
+				count++;
+				if(rows == BLOCK_ROWS){
+					flushBlock();
+				}
+			} catch (IOException | RuntimeException e) {
+				failed = true;
+				throw e;
+			}
+		}
+
+		/**
+		 * 기록을 중단. close 는 완성되지 않은 파일을 지움
+		 */
+		public void abort() {
+			failed = true;
+		}
+
+		public long count() {
+			return count;
+		}
+
+		private void flushBlock() throws IOException {
+			if(rows == 0){
+				return;
+			}
+			Bytes bytes = this.bytes;
+			bytes.clear();
+			for(int i = 0; i < rows; i++){
+				Gender gender = block[i].getGender();
+				bytes.write(gender == null ? -1 : gender.ordinal());
+			}
+			for(int i = 0; i < rows; i++){
+				int age = block[i].getAge();
+				bytes.writeVarInt((age << 1) ^ (age >> 31));
+			}
+			for(int i = 0; i < rows; i++){
+				bytes.writeVarInt(states.idOf(block[i].getState()) + 1);
+			}
+			for(int i = 0; i < rows; i++){
+				bytes.writeVarInt(cities.idOf(block[i].getCity()) + 1);
+			}
+			int[] birthdays = new int[rows];
+			for(int i = 0; i < rows; i++){
+				birthdays[i] = ContactText.packDate(block[i].getBirthday());
+				bytes.writeVarInt(birthdays[i]);
+			}
+			for(int i = 0; i < rows; i++){
+				bytes.writeString(block[i].getName());
+			}
+			for(int i = 0; i < rows; i++){
+				bytes.writeString(block[i].getEmail());
+			}
+			for(int i = 0; i < rows; i++){
+				if(birthdays[i] == 0){
+					bytes.writeString(block[i].getBirthday());
+				}
+			}
+
+			CRC32 crc = new CRC32();
+			crc.update(bytes.array, 0, bytes.size);
+			ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_LENGTH);
+			header.putInt(rows).putInt(bytes.size).putLong(crc.getValue()).flip();
+
+			if(blockCount == positions.length){
+				positions = Arrays.copyOf(positions, blockCount * 2);
+			}
+			positions[blockCount++] = channel.position();
+			writeFully(header);
+			writeFully(ByteBuffer.wrap(bytes.array, 0, bytes.size));
+			Arrays.fill(block, 0, rows, null);
+			rows = 0;
+		}
+
+		private void writeFully(ByteBuffer buffer) throws IOException {
+			while(buffer.hasRemaining()){
+				channel.write(buffer);
+			}
+		}
+
+		/**
+		 * 남은 블록과 footer 를 기록하고 헤더에 footer 위치를 기록. 중단되었거나 기록에 실패하면 파일을 지움
+		 */
+		@Override
+		public void close() throws IOException {
+			boolean complete = false;
+			try {
+				if(failed){
+					return;
+				}
+				flushBlock();
+				long footerPosition = channel.position();
+				Bytes bytes = this.bytes;
+				bytes.clear();
+				bytes.writeLong(count);
+				bytes.writeStrings(states);
+				bytes.writeStrings(cities);
+				bytes.writeInt(blockCount);
+				for(int i = 0; i < blockCount; i++){
+					bytes.writeLong(positions[i]);
+				}
+				writeFully(ByteBuffer.wrap(bytes.array, 0, bytes.size));
+
+				ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+				header.putInt(MAGIC).putInt(VERSION).putLong(footerPosition).flip();
+				channel.position(0);
+				writeFully(header);
+				complete = true;
+			} finally {
+				channel.close();
+				if(!complete){
+					Files.deleteIfExists(path);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * 크기가 늘어나는 byte 배열
+	 */
+	private static class Bytes {
+
+		byte[] array = new byte[1 << 16];
+		int size;
+
+		void clear() {
+			size = 0;
+		}
+
+		void write(int value) {
+			ensure(1);
+			array[size++] = (byte) value;
+		}
+
+		void writeInt(int value) {
+			ensure(4);
+			for(int shift = 24; shift >= 0; shift -= 8){
+				array[size++] = (byte) (value >>> shift);
+			}
+		}
+
+		void writeLong(long value) {
+			writeInt((int) (value >>> 32));
+			writeInt((int) value);
+		}
+
+		void writeVarInt(int value) {
+			ensure(5);
+			while((value & ~0x7F) != 0){
+				array[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			array[size++] = (byte) value;
+		}
+
+		void writeString(String value) {
+			if(value == null){
+				writeVarInt(0);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(bytes.length + 1);
+			ensure(bytes.length);
+			System.arraycopy(bytes, 0, array, size, bytes.length);
+			size += bytes.length;
+		}
+
+		void writeStrings(StringDictionary dictionary) {
+			int size = dictionary.size();
+			writeInt(size);
+			for(int id = 0; id < size; id++){
+				writeString(dictionary.valueOf(id));
+			}
+		}
+
+		private void ensure(int length) {
+			if(size + length > array.length){
+				array = Arrays.copyOf(array, Math.max(array.length * 2, size + length));
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,315 @@
+package dummy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * 기본형 키 기반 연락처 정렬
+ * <pre>
+ * List&lt;Contact&gt; sorted = ContactSorter.by(ContactField.STATE)
+ *                                     .thenByDescending(ContactField.AGE)
+ *                                     .sort(contacts);
+ * </pre>
+ * - 각 키를 작은 정수로 바꾼 뒤 마지막 키부터 안정(stable) 계수 정렬 (LSD)
+ * - 나이는 값 그대로, 성별은 ordinal, 문자열은 사전순 순위로 변환
+ * - 결과는 {@link #comparator()} 로 List.sort 한 것과 같음 (null 은 오름차순에서 앞)
+ * - 키 범위가 65536 을 넘으면 16비트씩 두 번 정렬
+ */
+public class ContactSorter {
+	
+	private static final int MAX_BUCKETS = 1 << 16;
+	private static final int PARALLEL_THRESHOLD = 1 << 14;
+	
+	private final List<SortKey> keys;
+	
+	private ContactSorter(List<SortKey> keys) {
+		this.keys = keys;
+	}
+	
+	public static ContactSorter by(ContactField<?> field) {
+		return new ContactSorter(Collections.singletonList(new SortKey(field, false)));
+	}
+	
+	public static ContactSorter byDescending(ContactField<?> field) {
+		return new ContactSorter(Collections.singletonList(new SortKey(field, true)));
+	}
+	
+	public ContactSorter thenBy(ContactField<?> field) {
+		return then(new SortKey(field, false));
+	}
+	
+	public ContactSorter thenByDescending(ContactField<?> field) {
+		return then(new SortKey(field, true));
+	}
+	
+	/**
+	 * 정렬한 새 목록 (원본은 변경하지 않음)
+	 */
+	public List<Contact> sort(List<Contact> contacts) {
+		return sort(contacts, false);
+	}
+	
+	/**
+	 * 키 추출, 개수 세기, 재배치를 병렬로 수행
+	 */
+	public List<Contact> parallelSort(List<Contact> contacts) {
+		return sort(contacts, true);
+	}
+	
+	/**
+	 * 저장소의 살아있는 행 번호를 정렬. 주/도시는 사전 id 로 순위를 계산
+	 */
+	public int[] sortRows(ContactStore store) {
+		int[] rows = store.rows().toArray();
+		int[] order = identity(rows.length, false);
+		for(int k = keys.size() - 1; k >= 0; k--){
+			SortKey key = keys.get(k);
+			int[] values = new int[rows.length];
+			IntUnaryOperator extractor = rowExtractor(key.field, store);
+			for(int i = 0; i < rows.length; i++){
+				values[i] = extractor.applyAsInt(rows[i]);
+			}
+			order = sortBy(order, values, key.descending, false);
+		}
+		int[] sorted = new int[rows.length];
+		for(int i = 0; i < sorted.length; i++){
+			sorted[i] = rows[order[i]];
+		}
+		return sorted;
+	}
+	
+	/**
+	 * 같은 순서를 만드는 Comparator
+	 */
+	public Comparator<Contact> comparator() {
+		Comparator<Contact> comparator = null;
+		for(SortKey key : keys){
+			Comparator<Contact> next = key.comparator();
+			comparator = comparator == null ? next : comparator.thenComparing(next);
+		}
+		return comparator;
+	}
+	
+	private ContactSorter then(SortKey key) {
+		List<SortKey> keys = new ArrayList<>(this.keys);
+		keys.add(key);
+		return new ContactSorter(keys);
+	}
+	
+	private List<Contact> sort(List<Contact> contacts, boolean parallel) {
+		Contact[] array = contacts.toArray(new Contact[contacts.size()]);
+		parallel &= array.length >= PARALLEL_THRESHOLD;
+		int[] order = identity(array.length, parallel);
+		for(int k = keys.size() - 1; k >= 0; k--){
+			SortKey key = keys.get(k);
+			int[] values = extract(key.field, array, parallel);
+			order = sortBy(order, values, key.descending, parallel);
+		}
+		Contact[] sorted = new Contact[array.length];
+		int[] finalOrder = order;
+		range(sorted.length, parallel).forEach(i -> sorted[i] = array[finalOrder[i]]);
+		return new ArrayList<>(Arrays.asList(sorted));
+	}
+	
+	/**
+	 * 요소마다 정렬 키 (오름차순 기준, null 은 가장 작은 값)
+	 */
+	private static int[] extract(ContactField<?> field, Contact[] array, boolean parallel) {
+		int[] values = new int[array.length];
+		switch(field.kind()){
+		case AGE	: 
+			range(array.length, parallel).forEach(i -> values[i] = array[i].getAge());
+			break;
+		case GENDER	:
+			range(array.length, parallel).forEach(i -> {
+				Gender gender = array[i].getGender();
+				values[i] = gender == null ? 0 : gender.ordinal() + 1;
+			});
+			break;
+		default		: {
+			TreeSet<String> distinct = new TreeSet<>();
+			for(Contact contact : array){
+				Object value = field.valueOf(contact);
+				if(value != null){
+					distinct.add((String) value);
+				}
+			}
+			Map<String, Integer> ranks = ranks(distinct);
+			range(array.length, parallel).forEach(i -> {
+				Object value = field.valueOf(array[i]);
+				values[i] = value == null ? 0 : ranks.get(value);
+			});
+		}
+		}
+		return values;
+	}
+	
+	private static IntUnaryOperator rowExtractor(ContactField<?> field, ContactStore store) {
+		switch(field.kind()){
+		case AGE	: return store::ageAt;
+		case GENDER	: return row -> store.genderOrdinalAt(row) + 1;
+		case STATE	: {
+			int[] ranks = dictionaryRanks(store.states());
+			return row -> ranks[store.stateIdAt(row) + 1];
+		}
+		case CITY	: {
+			int[] ranks = dictionaryRanks(store.cities());
+			return row -> ranks[store.cityIdAt(row) + 1];
+		}
+		default		: {
+			TreeSet<String> distinct = new TreeSet<>();
+			store.rows().forEach(row -> {
+				Object value = field.valueAt(store, row);
+				if(value != null){
+					distinct.add((String) value);
+				}
+			});
+			Map<String, Integer> ranks = ranks(distinct);
+			return row -> {
+				Object value = field.valueAt(store, row);
+				return value == null ? 0 : ranks.get(value);
+			};
+		}
+		}
+	}
+	
+	/**
+	 * 사전 id + 1 -> 사전순 순위 + 1 (null 은 0)
+	 */
+	private static int[] dictionaryRanks(StringDictionary dictionary) {
+		Integer[] ids = new Integer[dictionary.size()];
+		for(int id = 0; id < ids.length; id++){
+			ids[id] = id;
+		}
+		Arrays.sort(ids, Comparator.comparing(dictionary::valueOf));
+		int[] ranks = new int[ids.length + 1];
+		for(int rank = 0; rank < ids.length; rank++){
+			ranks[ids[rank] + 1] = rank + 1;
+		}
+		return ranks;
+	}
+	
+	private static Map<String, Integer> ranks(TreeSet<String> distinct) {
+		Map<String, Integer> ranks = new HashMap<>(distinct.size() * 2);
+		int rank = 1;
+		for(String value : distinct){
+			ranks.put(value, rank++);
+		}
+		return ranks;
+	}
+	
+	/**
+	 * 키 값을 0부터의 버킷 번호로 바꾸어 안정 계수 정렬
+	 */
+	private static int[] sortBy(int[] order, int[] values, boolean descending, boolean parallel) {
+		if(order.length == 0){
+			return order;
+		}
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for(int value : values){
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		long range = (long) max - min + 1;
+		int low = min;
+		int high = max;
+		range(values.length, parallel).forEach(i -> values[i] = (int) (descending ? (long) high - values[i] : (long) values[i] - low));
+		if(range <= MAX_BUCKETS){
+			return countingSort(order, values, (int) range, 0, parallel);
+		}
+		// 부호 없는 32비트 값으로 보고 하위 16비트, 상위 16비트 순서로 정렬
+		order = countingSort(order, values, MAX_BUCKETS, 0, parallel);
+		return countingSort(order, values, MAX_BUCKETS, 16, parallel);
+	}
+	
+	private static int[] countingSort(int[] order, int[] values, int buckets, int shift, boolean parallel) {
+		int mask = buckets - 1;
+		int n = order.length;
+		int[] sorted = new int[n];
+		if(!parallel){
+			int[] offsets = new int[buckets + 1];
+			for(int element : order){
+				offsets[bucket(values[element], shift, mask, buckets) + 1]++;
+			}
+			for(int b = 0; b < buckets; b++){
+				offsets[b + 1] += offsets[b];
+			}
+			for(int element : order){
+				sorted[offsets[bucket(values[element], shift, mask, buckets)]++] = element;
+			}
+			return sorted;
+		}
+		// 구간별 개수 -> 구간, 버킷 순서로 시작 위치 계산 -> 구간별 재배치 (구간 순서가 유지되므로 안정)
+		int chunks = Math.min(Runtime.getRuntime().availableProcessors() * 4, Math.max(n / PARALLEL_THRESHOLD, 1));
+		int[][] counts = new int[chunks][buckets];
+		IntStream.range(0, chunks).parallel().forEach(c -> {
+			int[] count = counts[c];
+			for(int i = chunkStart(c, chunks, n), end = chunkStart(c + 1, chunks, n); i < end; i++){
+				count[bucket(values[order[i]], shift, mask, buckets)]++;
+			}
+		});
+		int offset = 0;
+		for(int b = 0; b < buckets; b++){
+			for(int c = 0; c < chunks; c++){
+				int count = counts[c][b];
+				counts[c][b] = offset;
+				offset += count;
+			}
+		}
+		IntStream.range(0, chunks).parallel().forEach(c -> {
+			int[] next = counts[c];
+			for(int i = chunkStart(c, chunks, n), end = chunkStart(c + 1, chunks, n); i < end; i++){
+				int element = order[i];
+				sorted[next[bucket(values[element], shift, mask, buckets)]++] = element;
+			}
+		});
+		return sorted;
+	}
+	
+	private static int bucket(int value, int shift, int mask, int buckets) {
+		return buckets == MAX_BUCKETS ? (value >>> shift) & mask : value;
+	}
+	
+	private static int chunkStart(int chunk, int chunks, int n) {
+		return (int) ((long) n * chunk / chunks);
+	}
+	
+	private static int[] identity(int n, boolean parallel) {
+		int[] order = new int[n];
+		range(n, parallel).forEach(i -> order[i] = i);
+		return order;
+	}
+	
+	private static IntStream range(int n, boolean parallel) {
+		IntStream range = IntStream.range(0, n);
+		return parallel ? range.parallel() : range;
+	}
+	
+	private static final class SortKey {
+		final ContactField<?> field;
+		final boolean descending;
+		
+		SortKey(ContactField<?> field, boolean descending) {
+			this.field = field;
+			this.descending = descending;
+		}
+		
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Comparator<Contact> comparator() {
+			Comparator<Contact> comparator = field.kind() == ContactField.Kind.AGE
+					? Comparator.comparingInt(Contact::getAge)
+					: Comparator.comparing(contact -> (Comparable) field.valueOf(contact), Comparator.nullsFirst(Comparator.naturalOrder()));
+			return descending ? comparator.reversed() : comparator;
+		}
+	}
+
+}
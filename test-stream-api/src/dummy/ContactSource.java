@@ -1,12 +1,226 @@
 package dummy;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class ContactSource {
+	
+	private final ContactStore store;
+	private final ContactIndex index = new ContactIndex();
+	private final ContactStatistics statistics = new ContactStatistics();
+	private final List<RowListener> rowListeners = new CopyOnWriteArrayList<>();
+	
+	public ContactSource() {
+		this(new ColumnarContactStore());
+	}
+	
+	public ContactSource(ContactStore store) {
+		this.store = store;
+		store.rows().forEach(this::attach);
+	}
 
 	public List<Contact> findAll() {
-		return new ArrayList<Contact>();
+		return store.stream().collect(Collectors.toCollection(ArrayList::new));
+	}
+	
+	public Stream<Contact> stream() {
+		return store.stream();
+	}
+	
+	/**
+	 * 조건을 조합하는 질의 빌더
+	 */
+	public ContactQuery query() {
+		return new ContactQuery(this);
+	}
+	
+	/*
+	 * 인덱스 조회 : 조건에 맞는 행만 읽음
+	 */
+	public List<Contact> findByState(String state) {
+		return toList(index.rowsByState(state));
+	}
+	
+	public Optional<Contact> findFirstByState(String state) {
+		return index.rowsByState(state).mapToObj(store::get).findFirst();
+	}
+	
+	public List<Contact> findByCity(String city) {
+		return toList(index.rowsByCity(city));
+	}
+	
+	public List<Contact> findByEmail(String email) {
+		return toList(index.rowsByEmail(email));
+	}
+	
+	public List<Contact> findByGender(Gender gender) {
+		return toList(index.rowsByGender(gender));
+	}
+	
+	public List<Contact> findByStateAndGender(String state, Gender gender) {
+		return toList(index.rowsByStateAndGender(state, gender));
+	}
+	
+	public List<Contact> findByCityAndGender(String city, Gender gender) {
+		return toList(index.rowsByCityAndGender(city, gender));
+	}
+	
+	/**
+	 * 연락처를 추가하고 id(행 번호)를 반환
+	 */
+	public int add(Contact contact) {
+		int id = store.add(contact);
+		attach(id);
+		throwIfFailed(fire(null, listener -> listener.inserted(id)));
+		return id;
+	}
+	
+	public void addAll(Collection<? extends Contact> contacts) {
+		contacts.forEach(this::add);
+	}
+	
+	public Contact get(int id) {
+		return store.get(id);
+	}
+	
+	public void update(int id, Contact contact) {
+		checkLive(id);
+		RuntimeException failure = fire(null, listener -> listener.updating(id));
+		// 바뀐 키의 인덱스와 집계만 갱신 (같은 주/성별 목록에서 빼고 다시 넣지 않음)
+		boolean sameStatistics = statistics.isUnchanged(store, id, contact);
+		if(!sameStatistics){
+			statistics.remove(store, id);
+		}
+		int changed = index.removeChanged(store, id, contact);
+		store.update(id, contact);
+		index.insertChanged(store, id, changed);
+		if(!sameStatistics){
+			statistics.insert(store, id);
+		}
+		throwIfFailed(fire(failure, listener -> listener.updated(id)));
+	}
+	
+	public void delete(int id) {
+		checkLive(id);
+		RuntimeException failure = fire(null, listener -> listener.deleting(id));
+		detach(id);
+		store.delete(id);
+		throwIfFailed(failure);
+	}
+	
+	public int size() {
+		return store.size();
+	}
+	
+	public ContactStore store() {
+		return store;
+	}
+	
+	public ContactIndex index() {
+		return index;
+	}
+	
+	public ContactStatistics statistics() {
+		return statistics;
+	}
+	
+	/*
+	 * 집계 조회 : 추가/변경/삭제 시 갱신된 값을 바로 반환 (스캔 없음)
+	 */
+	public AgeStatistics ageStatistics() {
+		return statistics.total();
+	}
+	
+	public AgeStatistics ageStatisticsByState(String state) {
+		return statistics.byState(state);
+	}
+	
+	public AgeStatistics ageStatisticsByGender(Gender gender) {
+		return statistics.byGender(gender);
+	}
+	
+	public AgeStatistics ageStatistics(String state, Gender gender) {
+		return statistics.byStateAndGender(state, gender);
+	}
+	
+	void addRowListener(RowListener listener) {
+		rowListeners.add(listener);
+	}
+	
+	void removeRowListener(RowListener listener) {
+		rowListeners.remove(listener);
+	}
+	
+	/**
+	 * 저장소의 행을 인덱스와 집계에 반영
+	 */
+	private void attach(int id) {
+		index.insert(store, id);
+		statistics.insert(store, id);
+	}
+	
+	private void detach(int id) {
+		index.remove(store, id);
+		statistics.remove(store, id);
+	}
+	
+	private List<Contact> toList(IntStream rows) {
+		return rows.mapToObj(store::get).collect(Collectors.toCollection(ArrayList::new));
+	}
+	
+	/**
+	 * 모든 리스너에 알림. 한 리스너가 예외를 던져도 나머지 리스너에는 알리고, 예외는 모아서 반환
+	 * @param failure 앞 단계에서 모은 예외 (없으면 null)
+	 */
+	private RuntimeException fire(RuntimeException failure, Consumer<RowListener> event) {
+		for(RowListener listener : rowListeners){
+			try {
+				event.accept(listener);
+			} catch (RuntimeException e) {
+				if(failure == null){
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		return failure;
+	}
+	
+	private static void throwIfFailed(RuntimeException failure) {
+		if(failure != null){
+			throw failure;
+		}
+	}
+	
+	private void checkLive(int id) {
+		if(!store.isLive(id)){
+			throw new IllegalArgumentException("no contact with id " + id);
+		}
+	}
+	
+	/**
+	 * 행 변경 알림 (캐시 무효화, 변경 피드 등)
+	 * - 변경 전 값은 updating/deleting 에서, 변경 후 값은 inserted/updated 에서 저장소로 읽을 수 있음
+	 * - 변경한 쓰레드에서 호출되므로 오래 걸리는 작업을 하지 않아야 함
+	 * - 리스너가 예외를 던져도 변경과 다른 리스너의 알림은 계속되고, 변경이 끝난 뒤 첫 예외를 던짐
+	 */
+	interface RowListener {
+		
+		void inserted(int id);
+		
+		void updating(int id);
+		
+		void updated(int id);
+		
+		void deleting(int id);
 	}
 
 }
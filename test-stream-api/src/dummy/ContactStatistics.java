@@ -0,0 +1,106 @@
+package dummy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 연락처 나이 집계 (materialized aggregate)
+ * - 전체, 주별, 성별, (주, 성별)별 집계를 추가/변경/삭제 시 바로 갱신
+ * - 조회 시 스캔하지 않음
+ */
+public class ContactStatistics {
+	
+	private static final int GENDERS = Gender.values().length;
+	
+	private final AgeAccumulator total = new AgeAccumulator();
+	private final AgeAccumulator[] byGender = new AgeAccumulator[GENDERS];
+	private final Map<String, AgeAccumulator> byState = new HashMap<>();
+	private final Map<String, AgeAccumulator[]> byStateAndGender = new HashMap<>();
+	
+	public ContactStatistics() {
+		for(int i = 0; i < GENDERS; i++){
+			byGender[i] = new AgeAccumulator();
+		}
+	}
+	
+	/**
+	 * 저장소에 추가(또는 변경)된 행을 집계에 반영
+	 */
+	public void insert(ContactStore store, int row) {
+		int age = store.ageAt(row);
+		int gender = store.genderOrdinalAt(row);
+		String state = store.states().valueOf(store.stateIdAt(row));
+		
+		total.add(age);
+		if(gender >= 0){
+			byGender[gender].add(age);
+		}
+		if(state != null){
+			byState.computeIfAbsent(state, k -> new AgeAccumulator()).add(age);
+			if(gender >= 0){
+				byStateAndGender.computeIfAbsent(state, k -> newGenderAccumulators())[gender].add(age);
+			}
+		}
+	}
+	
+	/**
+	 * 저장소에서 삭제(또는 변경)되기 전의 행을 집계에서 제거
+	 */
+	public void remove(ContactStore store, int row) {
+		int age = store.ageAt(row);
+		int gender = store.genderOrdinalAt(row);
+		String state = store.states().valueOf(store.stateIdAt(row));
+		
+		total.remove(age);
+		if(gender >= 0){
+			byGender[gender].remove(age);
+		}
+		if(state != null){
+			AgeAccumulator accumulator = byState.get(state);
+			accumulator.remove(age);
+			if(accumulator.isEmpty()){
+				byState.remove(state);
+				byStateAndGender.remove(state);
+			} else if(gender >= 0){
+				byStateAndGender.get(state)[gender].remove(age);
+			}
+		}
+	}
+	
+	/**
+	 * 나이, 성별, 주가 모두 같으면 집계가 바뀌지 않음
+	 */
+	boolean isUnchanged(ContactStore store, int row, Contact contact) {
+		return store.ageAt(row) == contact.getAge()
+				&& store.genderOrdinalAt(row) == (contact.getGender() == null ? -1 : contact.getGender().ordinal())
+				&& Objects.equals(store.states().valueOf(store.stateIdAt(row)), contact.getState());
+	}
+	
+	public AgeStatistics total() {
+		return total.toStatistics();
+	}
+	
+	public AgeStatistics byGender(Gender gender) {
+		return byGender[gender.ordinal()].toStatistics();
+	}
+	
+	public AgeStatistics byState(String state) {
+		AgeAccumulator accumulator = byState.get(state);
+		return accumulator == null ? AgeStatistics.EMPTY : accumulator.toStatistics();
+	}
+	
+	public AgeStatistics byStateAndGender(String state, Gender gender) {
+		AgeAccumulator[] accumulators = byStateAndGender.get(state);
+		return accumulators == null ? AgeStatistics.EMPTY : accumulators[gender.ordinal()].toStatistics();
+	}
+	
+	private static AgeAccumulator[] newGenderAccumulators() {
+		AgeAccumulator[] accumulators = new AgeAccumulator[GENDERS];
+		for(int i = 0; i < GENDERS; i++){
+			accumulators[i] = new AgeAccumulator();
+		}
+		return accumulators;
+	}
+
+}
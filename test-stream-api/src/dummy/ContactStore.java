@@ -0,0 +1,91 @@
+package dummy;
+
+import java.util.IntSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 연락처 저장소
+ * - 각 연락처는 행(row) 번호로 식별되며, 삭제된 행 번호는 재사용하지 않음
+ * - 컬럼 단위 접근자로 Contact 객체를 만들지 않고 값을 읽을 수 있음
+ */
+public interface ContactStore {
+	
+	/**
+	 * 연락처를 추가하고 행 번호를 반환
+	 */
+	int add(Contact contact);
+	
+	void update(int row, Contact contact);
+	
+	void delete(int row);
+	
+	/**
+	 * 행의 값으로 새 Contact 객체를 생성
+	 */
+	Contact get(int row);
+	
+	/**
+	 * 삭제된 행을 포함한 전체 행 개수
+	 */
+	int rowCount();
+	
+	/**
+	 * 삭제되지 않은 연락처 개수
+	 */
+	int size();
+	
+	boolean isLive(int row);
+	
+	int ageAt(int row);
+	
+	/**
+	 * Gender 의 ordinal. 성별이 없으면 -1
+	 */
+	int genderOrdinalAt(int row);
+	
+	int stateIdAt(int row);
+	
+	int cityIdAt(int row);
+	
+	String nameAt(int row);
+	
+	String emailAt(int row);
+	
+	String birthdayAt(int row);
+	
+	StringDictionary states();
+	
+	StringDictionary cities();
+	
+	/**
+	 * 주, 성별 조건에 맞는 연락처의 나이 요약 통계. 조건이 null 이면 전체
+	 */
+	IntSummaryStatistics ageStatistics(String state, Gender gender);
+	
+	default long count(String state, Gender gender) {
+		return ageStatistics(state, gender).getCount();
+	}
+	
+	default OptionalDouble averageAge(String state, Gender gender) {
+		IntSummaryStatistics statistics = ageStatistics(state, gender);
+		return statistics.getCount() == 0 ? OptionalDouble.empty() : OptionalDouble.of(statistics.getAverage());
+	}
+	
+	/**
+	 * 삭제되지 않은 행 번호 스트림
+	 */
+	default IntStream rows() {
+		return IntStream.range(0, rowCount()).filter(this::isLive);
+	}
+	
+	default IntStream ages() {
+		return rows().map(this::ageAt);
+	}
+	
+	default Stream<Contact> stream() {
+		return rows().mapToObj(this::get);
+	}
+
+}
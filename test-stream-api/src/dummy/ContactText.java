@@ -0,0 +1,170 @@
+package dummy;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 이름, 이메일, 생일 문자열을 하나의 byte[] 로 묶는 형식
+ * - [길이 2바이트][UTF-8] 를 NAME, EMAIL, BIRTHDAY 순서로 기록 (길이 0xFFFF 는 null)
+ * - yyyy-MM-dd 형식의 생일은 yyyyMMdd 정수로 따로 저장하고 BIRTHDAY 필드는 null
+ */
+class ContactText {
+	
+	static final int NAME = 0;
+	static final int EMAIL = 1;
+	static final int BIRTHDAY = 2;
+	
+	private static final int NULL_LENGTH = 0xFFFF;
+	
+	private ContactText() {}
+	
+	/**
+	 * 모든 필드가 null 이면 null
+	 */
+	static byte[] encode(String name, String email, String birthday) {
+		if(name == null && email == null && birthday == null){
+			return null;
+		}
+		byte[][] fields = {bytes(name), bytes(email), bytes(birthday)};
+		int length = 0;
+		for(byte[] field : fields){
+			length += 2 + (field == null ? 0 : field.length);
+		}
+		byte[] text = new byte[length];
+		int position = 0;
+		for(byte[] field : fields){
+			int fieldLength = field == null ? NULL_LENGTH : field.length;
+			text[position++] = (byte) (fieldLength >>> 8);
+			text[position++] = (byte) fieldLength;
+			if(field != null){
+				System.arraycopy(field, 0, text, position, field.length);
+				position += field.length;
+			}
+		}
+		return text;
+	}
+	
+	static String field(byte[] text, int index) {
+		if(text == null){
+			return null;
+		}
+		int position = 0;
+		for(int i = 0; ; i++){
+			int length = ((text[position] & 0xFF) << 8) | (text[position + 1] & 0xFF);
+			position += 2;
+			if(i == index){
+				return length == NULL_LENGTH ? null : new String(text, position, length, StandardCharsets.UTF_8);
+			}
+			if(length != NULL_LENGTH){
+				position += length;
+			}
+		}
+	}
+	
+	/**
+	 * index 필드만 value 로 바꾼 새 배열. 나머지 필드는 디코딩하지 않고 바이트를 그대로 복사
+	 */
+	static byte[] replace(byte[] text, int index, String value) {
+		if(text == null){
+			return encode(index == NAME ? value : null, index == EMAIL ? value : null, index == BIRTHDAY ? value : null);
+		}
+		byte[] field = bytes(value);
+		int start = 0;
+		for(int i = 0; i < index; i++){
+			start = next(text, start);
+		}
+		int end = next(text, start);
+		byte[] replaced = new byte[text.length - (end - start) + 2 + (field == null ? 0 : field.length)];
+		System.arraycopy(text, 0, replaced, 0, start);
+		int fieldLength = field == null ? NULL_LENGTH : field.length;
+		replaced[start] = (byte) (fieldLength >>> 8);
+		replaced[start + 1] = (byte) fieldLength;
+		int position = start + 2;
+		if(field != null){
+			System.arraycopy(field, 0, replaced, position, field.length);
+			position += field.length;
+		}
+		System.arraycopy(text, end, replaced, position, text.length - end);
+		return isEmpty(replaced) ? null : replaced;
+	}
+	
+	/**
+	 * yyyy-MM-dd -> yyyyMMdd. 형식이 다르면 0
+	 */
+	static int packDate(String date) {
+		if(date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-'){
+			return 0;
+		}
+		int year = digits(date, 0, 4);
+		int month = digits(date, 5, 7);
+		int day = digits(date, 8, 10);
+		if(year <= 0 || month < 1 || month > 12 || day < 1 || day > 31){
+			return 0;
+		}
+		return year * 10000 + month * 100 + day;
+	}
+	
+	/**
+	 * yyyyMMdd -> yyyy-MM-dd
+	 */
+	static String formatDate(int packed) {
+		char[] chars = new char[10];
+		format(chars, 0, packed / 10000, 4);
+		chars[4] = '-';
+		format(chars, 5, packed / 100 % 100, 2);
+		chars[7] = '-';
+		format(chars, 8, packed % 100, 2);
+		return new String(chars);
+	}
+	
+	private static byte[] bytes(String value) {
+		if(value == null){
+			return null;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if(bytes.length >= NULL_LENGTH){
+			throw new IllegalArgumentException("value too long : " + bytes.length + " bytes");
+		}
+		return bytes;
+	}
+	
+	/**
+	 * start 에서 시작하는 필드 다음 필드의 위치
+	 */
+	private static int next(byte[] text, int start) {
+		int length = length(text, start);
+		return start + 2 + (length == NULL_LENGTH ? 0 : length);
+	}
+	
+	private static int length(byte[] text, int position) {
+		return ((text[position] & 0xFF) << 8) | (text[position + 1] & 0xFF);
+	}
+	
+	private static boolean isEmpty(byte[] text) {
+		for(int position = 0; position < text.length; position = next(text, position)){
+			if(length(text, position) != NULL_LENGTH){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static int digits(String value, int from, int to) {
+		int result = 0;
+		for(int i = from; i < to; i++){
+			char c = value.charAt(i);
+			if(c < '0' || c > '9'){
+				return -1;
+			}
+			result = result * 10 + (c - '0');
+		}
+		return result;
+	}
+	
+	private static void format(char[] chars, int offset, int value, int width) {
+		for(int i = width - 1; i >= 0; i--){
+			chars[offset + i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+package dummy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import flow.BufferedPublisher;
+import flow.Flow;
+
+/**
+ * 조건을 만족하는 연락처 집합과 나이 집계를 변경에 맞춰 유지하는 질의
+ * <pre>
+ * ContinuousQuery newYork = feed.continuous(source.query().where(CITY, eq("New York")));
+ * newYork.subscribe(subscriber);				// 현재 결과를 INSERT 로 받은 뒤 변경분
+ * newYork.subscribeStatistics(subscriber);	// 나이 집계. 느리면 최신 값만
+ * </pre>
+ * - 변경분은 결과 기준 : 조건을 만족하게 되면 INSERT, 벗어나면 DELETE, 만족한 채로 바뀌면 UPDATE
+ * - 변경된 연락처 하나만 평가하므로 변경당 비용은 조건 수에 비례 (전체 결과를 다시 계산하지 않음)
+ */
+public class ContinuousQuery implements AutoCloseable {
+	
+	private static final Object STATISTICS_KEY = new Object();
+	
+	private final ChangeFeed feed;
+	private final ContactQuery query;
+	private final Map<Integer, Contact> members = new HashMap<>();
+	private final AgeAccumulator ages = new AgeAccumulator();
+	private final BufferedPublisher<ContactEvent> deltas;
+	private final BufferedPublisher<AgeStatistics> statistics;
+	private long sequence;
+	
+	ContinuousQuery(ChangeFeed feed, ContactQuery query, Executor executor) {
+		this.feed = feed;
+		this.query = query;
+		this.deltas = new BufferedPublisher<>(executor, ContactEvent::getId, ContactEvent::merge);
+		this.statistics = new BufferedPublisher<>(executor, s -> STATISTICS_KEY, (older, newer) -> newer);
+		ContactStore store = feed.source().store();
+		query.rows().forEach(row -> {
+			Contact contact = ChangeFeed.copy(store, row);
+			members.put(row, contact);
+			ages.add(contact.getAge());
+		});
+	}
+	
+	/**
+	 * 결과 변경분 구독. 현재 결과를 먼저 INSERT 로 전달
+	 */
+	public void subscribe(Flow.Subscriber<? super ContactEvent> subscriber) {
+		subscribe(subscriber, BufferedPublisher.DEFAULT_BUFFER_SIZE, false);
+	}
+	
+	/**
+	 * @param bufferSize 전달하지 못한 변경분의 최대 개수 (현재 결과는 제외)
+	 * @param coalesce 같은 연락처의 전달 전 변경분을 병합
+	 */
+	public synchronized void subscribe(Flow.Subscriber<? super ContactEvent> subscriber, int bufferSize, boolean coalesce) {
+		deltas.subscribe(subscriber, bufferSize, coalesce, initial());
+	}
+	
+	public synchronized void subscribeBatches(Flow.Subscriber<? super List<ContactEvent>> subscriber, int maxBatch, int bufferSize, boolean coalesce) {
+		deltas.subscribeBatches(subscriber, maxBatch, bufferSize, coalesce, initial());
+	}
+	
+	/**
+	 * 나이 집계 구독. 현재 값을 먼저 전달하고, 전달 전에 바뀌면 최신 값만 전달
+	 */
+	public synchronized void subscribeStatistics(Flow.Subscriber<? super AgeStatistics> subscriber) {
+		statistics.subscribe(subscriber, 1, true, Collections.singletonList(ages.toStatistics()));
+	}
+	
+	public synchronized int size() {
+		return members.size();
+	}
+	
+	/**
+	 * 현재 결과의 사본
+	 */
+	public synchronized List<Contact> list() {
+		return new ArrayList<>(members.values());
+	}
+	
+	public synchronized AgeStatistics ageStatistics() {
+		return ages.toStatistics();
+	}
+	
+	/**
+	 * 변경 이벤트를 결과에 반영하고 결과 변경분을 발행. 변경한 쓰레드에서 호출
+	 */
+	synchronized void apply(ContactEvent event) {
+		int id = event.getId();
+		Contact previous = members.get(id);
+		Contact current = event.getAfter() != null && query.matches(event.getAfter()) ? event.getAfter() : null;
+		if(previous == null && current == null){
+			return;
+		}
+		ContactEvent.Type type;
+		if(previous == null){
+			type = ContactEvent.Type.INSERT;
+			members.put(id, current);
+		} else if(current == null){
+			type = ContactEvent.Type.DELETE;
+			members.remove(id);
+			ages.remove(previous.getAge());
+		} else {
+			type = ContactEvent.Type.UPDATE;
+			members.put(id, current);
+			ages.remove(previous.getAge());
+		}
+		if(current != null){
+			ages.add(current.getAge());
+		}
+		if(deltas.hasSubscribers()){
+			deltas.submit(new ContactEvent(type, id, previous, current, ++sequence));
+		}
+		if(statistics.hasSubscribers() && (previous == null || current == null || previous.getAge() != current.getAge())){
+			statistics.submit(ages.toStatistics());
+		}
+	}
+	
+	/**
+	 * 구독자에게 남은 변경분을 전달한 뒤 onComplete
+	 */
+	@Override
+	public void close() {
+		feed.remove(this);
+		deltas.close();
+		statistics.close();
+	}
+	
+	private List<ContactEvent> initial() {
+		List<ContactEvent> events = new ArrayList<>(members.size());
+		members.forEach((id, contact) -> events.add(new ContactEvent(ContactEvent.Type.INSERT, id, null, contact, sequence)));
+		return events;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ContinuousQuery [" + query.descriptor() + ", size=" + members.size() + ", " + ages.toStatistics() + "]";
+	}
+
+}
@@ -0,0 +1,202 @@
+package dummy;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 객체 그래프의 힙 사용량 추정 (JOL 의 GraphLayout.toFootprint() 와 비슷한 형식)
+ * - 64비트 JVM, compressed oops/class pointer 가정 : 객체 헤더 12, 배열 헤더 16, 참조 4, 8바이트 정렬
+ * - 같은 객체는 한 번만 셈. static 필드, enum 상수, Class 는 공유 객체로 보고 제외
+ * - 접근할 수 없는 JDK 내부 필드는 따라가지 않음 (String 은 길이로 계산)
+ */
+public class FootprintReport {
+	
+	private static final int OBJECT_HEADER = 12;
+	private static final int ARRAY_HEADER = 16;
+	private static final int REFERENCE = 4;
+	private static final boolean COMPACT_STRINGS = !System.getProperty("java.specification.version").startsWith("1.");
+	
+	private final Map<String, long[]> byClass = new TreeMap<>();		// 클래스 -> {개수, 바이트}
+	private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+	private long totalBytes;
+	private long totalObjects;
+	
+	private FootprintReport() {}
+	
+	/**
+	 * roots 에서 도달 가능한 객체들의 사용량. roots 를 담은 컬렉션 자체는 제외
+	 */
+	public static FootprintReport of(Iterable<?> roots) {
+		FootprintReport report = new FootprintReport();
+		for(Object root : roots){
+			report.walk(root);
+		}
+		return report;
+	}
+	
+	/**
+	 * 같은 연락처를 일반 Contact 와 CompactContact 로 만들었을 때의 비교
+	 * - 일반 Contact 도 주, 도시 문자열은 값마다 하나를 공유 (intern 한 경우와 같음). 이름, 이메일, 생일은 연락처마다 별도 String
+	 */
+	public static String compare(List<? extends Contact> contacts) {
+		List<Contact> plain = new ArrayList<>(contacts.size());
+		List<CompactContact> compact = new ArrayList<>(contacts.size());
+		Map<String, String> shared = new HashMap<>();
+		for(Contact contact : contacts){
+			Contact copy = new Contact();
+			copy.setState(shared(shared, contact.getState()));
+			copy.setCity(shared(shared, contact.getCity()));
+			copy.setGender(contact.getGender());
+			copy.setAge(contact.getAge());
+			copy.setName(copyOf(contact.getName()));
+			copy.setEmail(copyOf(contact.getEmail()));
+			copy.setBirthday(copyOf(contact.getBirthday()));
+			plain.add(copy);
+			compact.add(CompactContact.of(contact));
+		}
+		FootprintReport plainReport = of(plain);
+		FootprintReport compactReport = of(compact);
+		long count = Math.max(contacts.size(), 1);
+		return "Contact (shared state/city strings) :\n" + plainReport
+				+ "\nCompactContact :\n" + compactReport
+				+ String.format("%nper contact : %d -> %d bytes (%.1f%% saved)%n",
+						plainReport.totalBytes / count, compactReport.totalBytes / count,
+						100.0 * (plainReport.totalBytes - compactReport.totalBytes) / Math.max(plainReport.totalBytes, 1));
+	}
+	
+	public long totalBytes() {
+		return totalBytes;
+	}
+	
+	public long totalObjects() {
+		return totalObjects;
+	}
+	
+	private void walk(Object root) {
+		Deque<Object> pending = new ArrayDeque<>();
+		push(pending, root);
+		while(!pending.isEmpty()){
+			Object object = pending.pop();
+			Class<?> type = object.getClass();
+			if(object instanceof String){
+				add(type, stringSize((String) object));
+			} else if(type.isArray()){
+				add(type, arraySize(object));
+				if(!type.getComponentType().isPrimitive()){
+					for(int i = 0, length = Array.getLength(object); i < length; i++){
+						push(pending, Array.get(object, i));
+					}
+				}
+			} else {
+				add(type, shallowSize(type));
+				for(Class<?> c = type; c != null; c = c.getSuperclass()){
+					for(Field field : c.getDeclaredFields()){
+						if(!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()){
+							push(pending, read(field, object));
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	private void push(Deque<Object> pending, Object object) {
+		if(object == null || object instanceof Enum || object instanceof Class || !visited.add(object)){
+			return;
+		}
+		pending.push(object);
+	}
+	
+	private void add(Class<?> type, long bytes) {
+		long[] entry = byClass.computeIfAbsent(type.getTypeName(), k -> new long[2]);
+		entry[0]++;
+		entry[1] += bytes;
+		totalObjects++;
+		totalBytes += bytes;
+	}
+	
+	private static Object read(Field field, Object object) {
+		try {
+			field.setAccessible(true);
+			return field.get(object);
+		} catch (RuntimeException | IllegalAccessException e) {
+			return null;		// 모듈 경계 등으로 접근 불가
+		}
+	}
+	
+	static long shallowSize(Class<?> type) {
+		long size = OBJECT_HEADER;
+		for(Class<?> c = type; c != null; c = c.getSuperclass()){
+			for(Field field : c.getDeclaredFields()){
+				if(!Modifier.isStatic(field.getModifiers())){
+					size += sizeOf(field.getType());
+				}
+			}
+		}
+		return align(size);
+	}
+	
+	private static long arraySize(Object array) {
+		return align(ARRAY_HEADER + (long) Array.getLength(array) * sizeOf(array.getClass().getComponentType()));
+	}
+	
+	/**
+	 * String 과 내부 배열. Java 9 이상은 Latin-1 문자열을 byte 로 저장
+	 */
+	private static long stringSize(String value) {
+		boolean latin1 = COMPACT_STRINGS && value.chars().allMatch(c -> c < 256);
+		return align(OBJECT_HEADER + REFERENCE + 4 + (COMPACT_STRINGS ? 4 : 0))
+				+ align(ARRAY_HEADER + (long) value.length() * (latin1 ? 1 : 2));
+	}
+	
+	private static int sizeOf(Class<?> type) {
+		if(!type.isPrimitive()){
+			return REFERENCE;
+		}
+		if(type == long.class || type == double.class){
+			return 8;
+		}
+		if(type == int.class || type == float.class){
+			return 4;
+		}
+		if(type == short.class || type == char.class){
+			return 2;
+		}
+		return 1;
+	}
+	
+	private static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+	
+	private static String copyOf(String value) {
+		return value == null ? null : new String(value.toCharArray());
+	}
+	
+	private static String shared(Map<String, String> shared, String value) {
+		return value == null ? null : shared.computeIfAbsent(value, FootprintReport::copyOf);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder(String.format("%10s %12s %12s   %s%n", "COUNT", "AVG", "SUM", "DESCRIPTION"));
+		for(Map.Entry<String, long[]> entry : byClass.entrySet()){
+			long[] value = entry.getValue();
+			report.append(String.format("%10d %12d %12d   %s%n", value[0], value[1] / value[0], value[1], entry.getKey()));
+		}
+		report.append(String.format("%10d %12s %12d   (total)%n", totalObjects, "", totalBytes));
+		return report.toString();
+	}
+
+}
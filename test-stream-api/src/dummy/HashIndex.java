@@ -0,0 +1,52 @@
+package dummy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * 해시 보조 인덱스 : 키 -> 행 번호 목록
+ */
+public class HashIndex {
+	
+	private final Map<String, RowList> rowsByKey = new HashMap<>();
+	
+	public void add(String key, int row) {
+		if(key != null){
+			rowsByKey.computeIfAbsent(key, k -> new RowList()).add(row);
+		}
+	}
+	
+	public void remove(String key, int row) {
+		if(key == null){
+			return;
+		}
+		RowList rows = rowsByKey.get(key);
+		if(rows != null && rows.remove(row) && rows.isEmpty()){
+			rowsByKey.remove(key);
+		}
+	}
+	
+	/**
+	 * 키에 해당하는 행 번호 (오름차순)
+	 */
+	public IntStream rows(String key) {
+		RowList rows = rowsByKey.get(key);
+		return rows == null ? IntStream.empty() : rows.stream();
+	}
+	
+	public int count(String key) {
+		RowList rows = rowsByKey.get(key);
+		return rows == null ? 0 : rows.size();
+	}
+	
+	public Set<String> keys() {
+		return rowsByKey.keySet();
+	}
+	
+	RowList rowList(String key) {
+		return rowsByKey.get(key);
+	}
+
+}
@@ -0,0 +1,447 @@
+package dummy;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.IntSummaryStatistics;
+
+/**
+ * 메모리 매핑 파일에 저장하는 연락처 저장소 (힙 밖, 영속)
+ * - slots.bin : 행마다 32바이트 고정 크기 슬롯 (나이, 주/도시 id, 생일, 문자열 위치, 성별, 상태)
+ * - arena.bin : 이름, 이메일, 생일 문자열 ({@link ContactText} 형식)
+ * - states.dict, cities.dict : 주, 도시 사전. 새 값이 등록될 때마다 뒤에 추가
+ * - 다시 열 때 파싱 없이 파일을 매핑만 하므로 행 수와 상관없이 바로 열림
+ * - get 은 슬롯을 직접 읽는 flyweight Contact 를 반환
+ * - ageStatistics 는 매핑된 슬롯을 순차 스캔 (연락처 객체를 만들지 않음)
+ * - ContactSource 로 감싸면 인덱스와 통계를 만들기 위해 전체 행을 한 번 스캔함
+ * - 수정 시 문자열은 arena 뒤에 새로 기록 (이전 공간은 재사용하지 않음)
+ * - 한 쓰레드에서 쓰고, 쓰는 동안 다른 쓰레드에서 읽지 않아야 함
+ */
+public class MappedContactStore implements ContactStore, Closeable {
+
+	private static final int MAGIC = 0x43535452;		// "CSTR"
+	private static final int VERSION = 1;
+	private static final int SEGMENT_BITS = 26;		// 64MB
+	
+	/** 헤더 : magic, version, rowCount, size, arenaEnd */
+	private static final int HEADER_MAGIC = 0;
+	private static final int HEADER_VERSION = 4;
+	private static final int HEADER_ROW_COUNT = 8;
+	private static final int HEADER_SIZE = 12;
+	private static final int HEADER_ARENA_END = 16;
+	
+	/** 슬롯 */
+	private static final int SLOT_SIZE = 32;
+	private static final int AGE = 0;
+	private static final int STATE = 4;
+	private static final int CITY = 8;
+	private static final int BIRTHDAY = 12;		// yyyyMMdd, 0 이면 문자열
+	private static final int TEXT = 16;			// arena 위치, 없으면 -1
+	private static final int GENDER = 24;
+	private static final int FLAGS = 25;
+	private static final byte LIVE = 1;
+	
+	private static final Gender[] GENDERS = Gender.values();
+	
+	private final MappedSegments slots;
+	private final MappedSegments arena;
+	private final StringDictionary states = new StringDictionary();
+	private final StringDictionary cities = new StringDictionary();
+	private final Path statesPath;
+	private final Path citiesPath;
+	
+	private int rowCount;
+	private int size;
+	private long arenaEnd;
+	private int persistedStates;
+	private int persistedCities;
+	
+	private MappedContactStore(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		this.statesPath = directory.resolve("states.dict");
+		this.citiesPath = directory.resolve("cities.dict");
+		this.slots = new MappedSegments(directory.resolve("slots.bin"), SEGMENT_BITS);
+		this.arena = new MappedSegments(directory.resolve("arena.bin"), SEGMENT_BITS);
+
+		int magic = slots.getInt(HEADER_MAGIC);
+		if(magic == 0){
+			slots.putInt(HEADER_MAGIC, MAGIC);
+			slots.putInt(HEADER_VERSION, VERSION);
+		}else if(magic != MAGIC || slots.getInt(HEADER_VERSION) != VERSION){
+			throw new IOException("not a contact store : " + directory);
+		}
+		rowCount = slots.getInt(HEADER_ROW_COUNT);
+		size = slots.getInt(HEADER_SIZE);
+		arenaEnd = slots.getLong(HEADER_ARENA_END);
+		persistedStates = load(statesPath, states);
+		persistedCities = load(citiesPath, cities);
+	}
+
+	/**
+	 * 디렉토리의 저장소를 열고, 없으면 새로 만듦
+	 */
+	public static MappedContactStore open(Path directory) throws IOException {
+		return new MappedContactStore(directory);
+	}
+
+	@Override
+	public int add(Contact contact) {
+		int row = rowCount;
+		try {
+			slots.ensureCapacity(slot(row + 1));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		write(row, contact);
+		rowCount++;
+		size++;
+		slots.putInt(HEADER_ROW_COUNT, rowCount);
+		slots.putInt(HEADER_SIZE, size);
+		return row;
+	}
+
+	@Override
+	public void update(int row, Contact contact) {
+		checkLive(row);
+		write(row, contact);
+	}
+
+	@Override
+	public void delete(int row) {
+		checkLive(row);
+		slots.put(slot(row) + FLAGS, (byte) 0);
+		size--;
+		slots.putInt(HEADER_SIZE, size);
+	}
+
+	/**
+	 * 슬롯을 직접 읽는 Contact. setter 를 호출하면 그 시점의 값을 복사해서 일반 Contact 처럼 동작
+	 */
+	@Override
+	public Contact get(int row) {
+		checkLive(row);
+		return new MappedContact(row);
+	}
+
+	@Override
+	public int rowCount() {
+		return rowCount;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isLive(int row) {
+		return row >= 0 && row < rowCount && slots.get(slot(row) + FLAGS) == LIVE;
+	}
+
+	@Override
+	public int ageAt(int row) {
+		return slots.getInt(slot(row) + AGE);
+	}
+
+	@Override
+	public int genderOrdinalAt(int row) {
+		return slots.get(slot(row) + GENDER);
+	}
+
+	@Override
+	public int stateIdAt(int row) {
+		return slots.getInt(slot(row) + STATE);
+	}
+
+	@Override
+	public int cityIdAt(int row) {
+		return slots.getInt(slot(row) + CITY);
+	}
+
+	@Override
+	public String nameAt(int row) {
+		return ContactText.field(text(row), ContactText.NAME);
+	}
+
+	@Override
+	public String emailAt(int row) {
+		return ContactText.field(text(row), ContactText.EMAIL);
+	}
+
+	@Override
+	public String birthdayAt(int row) {
+		int birthday = slots.getInt(slot(row) + BIRTHDAY);
+		return birthday == 0 ? ContactText.field(text(row), ContactText.BIRTHDAY) : ContactText.formatDate(birthday);
+	}
+
+	@Override
+	public StringDictionary states() {
+		return states;
+	}
+
+	@Override
+	public StringDictionary cities() {
+		return cities;
+	}
+
+	@Override
+	public IntSummaryStatistics ageStatistics(String state, Gender gender) {
+		IntSummaryStatistics statistics = new IntSummaryStatistics();
+		int stateId = states.find(state);
+		if(state != null && stateId == StringDictionary.NULL_ID){
+			return statistics;		// 등록되지 않은 주
+		}
+		boolean anyState = state == null;
+		boolean anyGender = gender == null;
+		int genderOrdinal = anyGender ? -1 : gender.ordinal();
+
+		// 구간 단위로 ByteBuffer 절대 위치를 바로 읽음
+		int slotsPerSegment = slots.segmentSize() / SLOT_SIZE;
+		for(int segment = 0; segment < slots.segmentCount(); segment++){
+			ByteBuffer buffer = slots.segment(segment);
+			int first = segment == 0 ? 1 : 0;		// 첫 슬롯은 헤더
+			int last = (int) Math.min(slotsPerSegment, (long) rowCount + 1 - (long) segment * slotsPerSegment);
+			for(int i = first; i < last; i++){
+				int offset = i * SLOT_SIZE;
+				if((anyState || buffer.getInt(offset + STATE) == stateId)
+						&& (anyGender || buffer.get(offset + GENDER) == genderOrdinal)
+						&& buffer.get(offset + FLAGS) == LIVE){
+					statistics.accept(buffer.getInt(offset + AGE));
+				}
+			}
+		}
+		return statistics;
+	}
+
+	/**
+	 * 매핑된 내용을 디스크에 기록
+	 */
+	public void flush() {
+		slots.force();
+		arena.force();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			slots.close();
+		} finally {
+			arena.close();
+		}
+	}
+
+	private void write(int row, Contact contact) {
+		long slot = slot(row);
+		int stateId = states.idOf(contact.getState());
+		int cityId = cities.idOf(contact.getCity());
+		int birthday = ContactText.packDate(contact.getBirthday());
+		byte[] text = ContactText.encode(contact.getName(), contact.getEmail(), birthday == 0 ? contact.getBirthday() : null);
+		long textPosition = text == null ? -1 : append(text);
+
+		persistedStates = persist(statesPath, states, persistedStates);
+		persistedCities = persist(citiesPath, cities, persistedCities);
+		slots.putInt(slot + AGE, contact.getAge());
+		slots.putInt(slot + STATE, stateId);
+		slots.putInt(slot + CITY, cityId);
+		slots.putInt(slot + BIRTHDAY, birthday);
+		slots.putLong(slot + TEXT, textPosition);
+		slots.put(slot + GENDER, (byte) (contact.getGender() == null ? -1 : contact.getGender().ordinal()));
+		slots.put(slot + FLAGS, LIVE);
+	}
+
+	/**
+	 * [길이 4바이트][ContactText] 를 arena 끝에 기록하고 위치를 반환
+	 */
+	private long append(byte[] text) {
+		long position = (arenaEnd + 3) & ~3L;		// int 가 구간 경계에 걸치지 않도록 4바이트 정렬
+		try {
+			arena.ensureCapacity(position + 4 + text.length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		arena.putInt(position, text.length);
+		arena.put(position + 4, text);
+		arenaEnd = position + 4 + text.length;
+		slots.putLong(HEADER_ARENA_END, arenaEnd);
+		return position;
+	}
+
+	private byte[] text(int row) {
+		long position = slots.getLong(slot(row) + TEXT);
+		if(position < 0){
+			return null;
+		}
+		byte[] text = new byte[arena.getInt(position)];
+		arena.get(position + 4, text, 0, text.length);
+		return text;
+	}
+
+	/**
+	 * 사전에 새로 등록된 값을 파일 뒤에 추가하고 기록된 개수를 반환
+	 */
+	private static int persist(Path path, StringDictionary dictionary, int persisted) {
+		int size = dictionary.size();
+		if(persisted == size){
+			return persisted;
+		}
+		try(OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+				DataOutputStream data = new DataOutputStream(out)){
+			for(int id = persisted; id < size; id++){
+				data.writeUTF(dictionary.valueOf(id));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return size;
+	}
+
+	private static int load(Path path, StringDictionary dictionary) throws IOException {
+		if(Files.exists(path)){
+			try(InputStream in = new BufferedInputStream(Files.newInputStream(path));
+					DataInputStream data = new DataInputStream(in)){
+				while(true){
+					dictionary.idOf(data.readUTF());
+				}
+			} catch (EOFException e) {
+				// 파일 끝
+			}
+		}
+		return dictionary.size();
+	}
+
+	private static long slot(int row) {
+		return (long) (row + 1) * SLOT_SIZE;
+	}
+
+	private void checkLive(int row) {
+		if(!isLive(row)){
+			throw new IllegalArgumentException("no contact at row " + row);
+		}
+	}
+
+	/**
+	 * 슬롯을 가리키는 flyweight 연락처
+	 */
+	private class MappedContact extends Contact {
+
+		private final int row;
+		private boolean copied;
+
+		MappedContact(int row) {
+			this.row = row;
+		}
+
+		/**
+		 * setter 가 호출되면 슬롯의 값을 복사한 뒤 Contact 필드를 사용
+		 */
+		private void copy() {
+			if(copied){
+				return;
+			}
+			String state = getState(), city = getCity(), name = getName(), email = getEmail(), birthday = getBirthday();
+			Gender gender = getGender();
+			int age = getAge();
+			copied = true;
+			super.setState(state);
+			super.setCity(city);
+			super.setName(name);
+			super.setEmail(email);
+			super.setBirthday(birthday);
+			super.setGender(gender);
+			super.setAge(age);
+		}
+
+		@Override
+		public String getState() {
+			return copied ? super.getState() : states.valueOf(stateIdAt(row));
+		}
+
+		@Override
+		public void setState(String state) {
+			copy();
+			super.setState(state);
+		}
+
+		@Override
+		public Gender getGender() {
+			if(copied){
+				return super.getGender();
+			}
+			int ordinal = genderOrdinalAt(row);
+			return ordinal < 0 ? null : GENDERS[ordinal];
+		}
+
+		@Override
+		public void setGender(Gender gender) {
+			copy();
+			super.setGender(gender);
+		}
+
+		@Override
+		public int getAge() {
+			return copied ? super.getAge() : ageAt(row);
+		}
+
+		@Override
+		public void setAge(int age) {
+			copy();
+			super.setAge(age);
+		}
+
+		@Override
+		public String getEmail() {
+			return copied ? super.getEmail() : emailAt(row);
+		}
+
+		@Override
+		public void setEmail(String email) {
+			copy();
+			super.setEmail(email);
+		}
+
+		@Override
+		public String getCity() {
+			return copied ? super.getCity() : cities.valueOf(cityIdAt(row));
+		}
+
+		@Override
+		public void setCity(String city) {
+			copy();
+			super.setCity(city);
+		}
+
+		@Override
+		public String getName() {
+			return copied ? super.getName() : nameAt(row);
+		}
+
+		@Override
+		public void setName(String name) {
+			copy();
+			super.setName(name);
+		}
+
+		@Override
+		public String getBirthday() {
+			return copied ? super.getBirthday() : birthdayAt(row);
+		}
+
+		@Override
+		public void setBirthday(String birthday) {
+			copy();
+			super.setBirthday(birthday);
+		}
+
+	}
+
+}
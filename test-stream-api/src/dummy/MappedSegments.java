@@ -0,0 +1,124 @@
+package dummy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 고정 크기 구간(segment)으로 나누어 매핑한 읽기/쓰기 파일
+ * - 2GB 를 넘는 파일도 long 위치로 접근
+ * - 필요한 만큼 구간을 추가로 매핑해서 파일을 늘림
+ * - 값(int, long)은 구간 경계에 걸치지 않도록 정렬된 위치에 써야 함. 바이트열은 걸쳐도 됨
+ */
+class MappedSegments implements Closeable {
+	
+	private final FileChannel channel;
+	private final int segmentBits;
+	private final int segmentSize;
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+	
+	MappedSegments(Path path, int segmentBits) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.segmentBits = segmentBits;
+		this.segmentSize = 1 << segmentBits;
+		ensureCapacity(Math.max(channel.size(), 1));
+	}
+	
+	/**
+	 * [0, capacity) 구간을 쓸 수 있도록 매핑
+	 */
+	void ensureCapacity(long capacity) throws IOException {
+		while((long) segments.size() << segmentBits < capacity){
+			long position = (long) segments.size() << segmentBits;
+			segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, segmentSize));
+		}
+	}
+	
+	MappedByteBuffer segment(int index) {
+		return segments.get(index);
+	}
+	
+	int segmentCount() {
+		return segments.size();
+	}
+	
+	int segmentSize() {
+		return segmentSize;
+	}
+	
+	int getInt(long position) {
+		return segments.get((int) (position >>> segmentBits)).getInt(offset(position));
+	}
+	
+	void putInt(long position, int value) {
+		segments.get((int) (position >>> segmentBits)).putInt(offset(position), value);
+	}
+	
+	long getLong(long position) {
+		return segments.get((int) (position >>> segmentBits)).getLong(offset(position));
+	}
+	
+	void putLong(long position, long value) {
+		segments.get((int) (position >>> segmentBits)).putLong(offset(position), value);
+	}
+	
+	byte get(long position) {
+		return segments.get((int) (position >>> segmentBits)).get(offset(position));
+	}
+	
+	void put(long position, byte value) {
+		segments.get((int) (position >>> segmentBits)).put(offset(position), value);
+	}
+	
+	void get(long position, byte[] target, int from, int length) {
+		while(length > 0){
+			ByteBuffer segment = segments.get((int) (position >>> segmentBits)).duplicate();
+			int offset = offset(position);
+			int chunk = Math.min(length, segmentSize - offset);
+			segment.position(offset);
+			segment.get(target, from, chunk);
+			position += chunk;
+			from += chunk;
+			length -= chunk;
+		}
+	}
+	
+	void put(long position, byte[] source) {
+		int from = 0;
+		while(from < source.length){
+			ByteBuffer segment = segments.get((int) (position >>> segmentBits)).duplicate();
+			int offset = offset(position);
+			int chunk = Math.min(source.length - from, segmentSize - offset);
+			segment.position(offset);
+			segment.put(source, from, chunk);
+			position += chunk;
+			from += chunk;
+		}
+	}
+	
+	/**
+	 * 매핑된 내용을 디스크에 기록
+	 */
+	void force() {
+		for(MappedByteBuffer segment : segments){
+			segment.force();
+		}
+	}
+	
+	private int offset(long position) {
+		return (int) (position & (segmentSize - 1));
+	}
+
+	@Override
+	public void close() throws IOException {
+		force();
+		channel.close();
+	}
+
+}
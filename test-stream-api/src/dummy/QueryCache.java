@@ -0,0 +1,262 @@
+package dummy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * ContactSource 앞에 두는 질의 결과 캐시
+ * <pre>
+ * QueryCache cache = new QueryCache(source, 1000);
+ * cache.query()
+ *      .where(STATE, eq("Florida"))
+ *      .findFirst();
+ * </pre>
+ * - 키는 람다가 아닌 질의 내용 : 연산 + 정렬된 조건 목록 (예: "findFirst where [state eq(\"Florida\")]")
+ *   값은 형식과 함께 따옴표로 감싸므로 eq(null) 과 eq("null"), in("a, b") 와 in("a", "b") 는 다른 키
+ * - 결과는 행 번호로 저장하고, 조회할 때마다 Contact 를 새로 만들어 반환
+ * - 최대 개수를 넘으면 가장 오래 사용하지 않은 결과부터 제거 (LRU), 유효 시간은 선택
+ * - 연락처가 추가/변경/삭제되면 그 연락처가 조건을 만족하는 결과만 제거
+ *   (텍사스 연락처 변경은 플로리다 결과에 영향 없음)
+ * - 주/도시/성별 같음 조건이 있는 결과는 그 값별로 나누어 두고, 변경된 행의 값에 해당하는 결과만 검사
+ * - 계산하는 동안 연락처가 바뀌었으면 그 결과는 저장하지 않음
+ * - 다 쓴 캐시는 close() 로 ContactSource 에서 분리
+ */
+public class QueryCache implements AutoCloseable {
+	
+	private final ContactSource source;
+	private final ContactSource.RowListener listener;
+	private final int maximumSize;
+	private final long ttlNanos;		// 0 이면 만료 없음
+	private final LinkedHashMap<String, Entry> entries;
+	/** 파티션("state=\"Florida\"" 등) -> 결과. 파티션이 없는 결과는 null. LRU 순서에 영향을 주지 않고 검사 */
+	private final Map<String, Map<String, Entry>> partitions = new HashMap<>();
+	
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long invalidationCount;
+	private long modificationCount;		// invalidate 호출마다 증가 : 계산 중 변경 감지
+	private boolean closed;
+	
+	public QueryCache(ContactSource source, int maximumSize) {
+		this(source, maximumSize, 0, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * @param ttl 결과 유효 시간. 0 이면 만료 없음
+	 */
+	public QueryCache(ContactSource source, int maximumSize, long ttl, TimeUnit unit) {
+		if(maximumSize <= 0){
+			throw new IllegalArgumentException("maximumSize must be positive : " + maximumSize);
+		}
+		this.source = source;
+		this.maximumSize = maximumSize;
+		this.ttlNanos = unit.toNanos(ttl);
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+		this.listener = new ContactSource.RowListener() {
+			@Override
+			public void inserted(int id) {
+				invalidate(id);
+			}
+
+			@Override
+			public void updating(int id) {
+				invalidate(id);
+			}
+
+			@Override
+			public void updated(int id) {
+				invalidate(id);
+			}
+
+			@Override
+			public void deleting(int id) {
+				invalidate(id);
+			}
+		};
+		source.addRowListener(listener);
+	}
+	
+	/**
+	 * 결과를 캐시하는 질의 빌더
+	 */
+	public ContactQuery query() {
+		return new ContactQuery(source, this);
+	}
+	
+	/**
+	 * 캐시된 결과를 반환하고, 없거나 만료되었으면 계산해서 저장
+	 */
+	@SuppressWarnings("unchecked")
+	<R> R get(ContactQuery query, String operation, Supplier<R> compute) {
+		String key = operation + " where " + query.key();
+		long modifications;
+		synchronized(this){
+			if(closed){
+				return compute.get();
+			}
+			modifications = modificationCount;
+			Entry entry = entries.get(key);
+			if(entry != null && !entry.isExpired(System.nanoTime())){
+				hitCount++;
+				return (R) entry.value;
+			}
+			if(entry != null){
+				remove(key, entry);		// 만료
+				evictionCount++;
+			}
+			missCount++;
+		}
+		R value = compute.get();
+		synchronized(this){
+			if(closed || modificationCount != modifications){
+				return value;		// 계산 중 변경된 행이 결과에 반영되지 않았을 수 있음
+			}
+			long expiresAt = ttlNanos == 0 ? 0 : System.nanoTime() + ttlNanos;
+			Entry entry = new Entry(query, value, expiresAt);
+			Entry previous = entries.put(key, entry);
+			if(previous != null){
+				unlink(key, previous);
+			}
+			partitions.computeIfAbsent(query.partition(), k -> new HashMap<>()).put(key, entry);
+			evict();
+		}
+		return value;
+	}
+	
+	/**
+	 * 행이 조건을 만족하는 결과를 제거. 변경 전/후에 호출
+	 */
+	private synchronized void invalidate(int row) {
+		modificationCount++;
+		ContactStore store = source.store();
+		List<String> stale = new ArrayList<>();
+		collect(partitions.get(null), store, row, stale);
+		collect(partitions.get("state=" + Condition.key(store.states().valueOf(store.stateIdAt(row)))), store, row, stale);
+		collect(partitions.get("city=" + Condition.key(store.cities().valueOf(store.cityIdAt(row)))), store, row, stale);
+		int gender = store.genderOrdinalAt(row);
+		collect(partitions.get("gender=" + Condition.key(gender < 0 ? null : Gender.values()[gender])), store, row, stale);
+		for(String key : stale){
+			Entry entry = entries.remove(key);
+			if(entry != null){
+				unlink(key, entry);
+				invalidationCount++;
+			}
+		}
+	}
+	
+	public synchronized void clear() {
+		entries.clear();
+		partitions.clear();
+	}
+	
+	/**
+	 * ContactSource 의 변경 알림에서 분리하고 결과를 비움. 이후 질의는 캐시 없이 실행
+	 */
+	@Override
+	public void close() {
+		source.removeRowListener(listener);
+		synchronized(this){
+			closed = true;
+			clear();
+		}
+	}
+	
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+	
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+	
+	/**
+	 * 최대 개수를 넘거나 만료되어 제거된 결과 수
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+	
+	/**
+	 * 연락처 변경으로 제거된 결과 수
+	 */
+	public synchronized long getInvalidationCount() {
+		return invalidationCount;
+	}
+	
+	public synchronized double getHitRate() {
+		long requests = hitCount + missCount;
+		return requests == 0 ? 0 : (double) hitCount / requests;
+	}
+	
+	private static void collect(Map<String, Entry> partition, ContactStore store, int row, List<String> stale) {
+		if(partition == null){
+			return;
+		}
+		partition.forEach((key, entry) -> {
+			if(entry.query.matches(store, row)){
+				stale.add(key);
+			}
+		});
+	}
+	
+	private void evict() {
+		long now = System.nanoTime();
+		Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+		while(iterator.hasNext() && (entries.size() > maximumSize || ttlNanos != 0)){
+			Map.Entry<String, Entry> eldest = iterator.next();
+			if(entries.size() <= maximumSize && !eldest.getValue().isExpired(now)){
+				break;
+			}
+			iterator.remove();
+			unlink(eldest.getKey(), eldest.getValue());
+			evictionCount++;
+		}
+	}
+	
+	private void remove(String key, Entry entry) {
+		entries.remove(key);
+		unlink(key, entry);
+	}
+	
+	private void unlink(String key, Entry entry) {
+		String partition = entry.query.partition();
+		Map<String, Entry> keys = partitions.get(partition);
+		if(keys != null && keys.remove(key, entry) && keys.isEmpty()){
+			partitions.remove(partition);
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "QueryCache [size=" + entries.size() + ", hits=" + hitCount + ", misses=" + missCount
+				+ ", evictions=" + evictionCount + ", invalidations=" + invalidationCount + "]";
+	}
+	
+	private static final class Entry {
+		final ContactQuery query;
+		final Object value;
+		final long expiresAt;
+		
+		Entry(ContactQuery query, Object value, long expiresAt) {
+			this.query = query;
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+		
+		boolean isExpired(long now) {
+			return expiresAt != 0 && now - expiresAt >= 0;
+		}
+	}
+
+}
@@ -0,0 +1,367 @@
+package dummy;
+
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 병렬 연락처 질의를 전용 ForkJoinPool 에서 실행
+ * <pre>
+ * QueryExecutor executor = new QueryExecutor("report", 4);
+ * Map&lt;String, List&lt;Contact&gt;&gt; byState = executor.query(source)
+ *                                            .parallelism(2)
+ *                                            .timeout(1, TimeUnit.SECONDS)
+ *                                            .execute(s -&gt; s.collect(groupingBy(Contact::getState)));
+ * </pre>
+ * - parallelStream() 은 JVM 공용 풀을 사용하므로 무거운 질의 하나가 다른 병렬 스트림을 모두 지연시킴
+ *   -> 풀 안에서 시작한 병렬 스트림은 그 풀의 쓰레드에서 실행됨
+ * - 질의별 병렬도 : 행 구간을 최대 parallelism 개까지만 나눔
+ * - 분할 기준 : 이보다 작은 구간은 나누지 않고 순차 처리
+ * - 취소, 제한 시간 : 행을 읽는 도중에 확인해서 중단
+ * - 풀의 쓰레드 수는 parallelism 으로 고정 (작업이 join 으로 대기하는 경우에만 일시적으로 보충될 수 있음)
+ * - 질의 중에 ContactSource 를 변경하지 않아야 함
+ */
+public class QueryExecutor implements AutoCloseable {
+	
+	/** 기본 분할 기준 (행 수) */
+	public static final int DEFAULT_SPLIT_THRESHOLD = 1 << 12;
+	
+	private final String name;
+	private final ForkJoinPool pool;
+	
+	private final AtomicLong submitted = new AtomicLong();
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong cancelled = new AtomicLong();
+	private final AtomicLong timedOut = new AtomicLong();
+	
+	public QueryExecutor(String name, int parallelism) {
+		AtomicInteger threads = new AtomicInteger();
+		this.name = name;
+		this.pool = new ForkJoinPool(parallelism, pool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName(name + "-" + threads.incrementAndGet());
+			return thread;
+		}, null, false);
+	}
+	
+	/**
+	 * 연락처 질의 설정. 기본값은 풀의 병렬도, {@link #DEFAULT_SPLIT_THRESHOLD}, 제한 시간 없음
+	 */
+	public Query query(ContactSource source) {
+		return new Query(source);
+	}
+	
+	/**
+	 * 임의의 작업을 이 풀에서 실행. 작업 안에서 시작한 병렬 스트림도 이 풀을 사용
+	 */
+	public <R> QueryTask<R> submit(Callable<R> work) {
+		QueryTask<R> task = new QueryTask<>(0);
+		task.start(pool.submit(() -> run(task, work)));
+		return task;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public Metrics metrics() {
+		return new Metrics(this);
+	}
+	
+	/**
+	 * 새 작업을 받지 않고, 실행 중인 작업이 끝나면 쓰레드를 정리
+	 */
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+	
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return pool.awaitTermination(timeout, unit);
+	}
+	
+	private <R> R run(QueryTask<R> task, Callable<R> work) throws Exception {
+		submitted.incrementAndGet();
+		try {
+			task.check();
+			R result = work.call();
+			completed.incrementAndGet();
+			return result;
+		} catch (QueryTask.DeadlineExceeded e) {
+			timedOut.incrementAndGet();
+			throw e;
+		} catch (CancellationException e) {
+			cancelled.incrementAndGet();
+			throw e;
+		} catch (Exception | Error e) {
+			failed.incrementAndGet();
+			throw e;
+		}
+	}
+	
+	/**
+	 * 질의 하나의 실행 설정
+	 */
+	public final class Query {
+		
+		private final ContactSource source;
+		private int parallelism = pool.getParallelism();
+		private int splitThreshold = DEFAULT_SPLIT_THRESHOLD;
+		private long timeoutNanos;
+		
+		private Query(ContactSource source) {
+			this.source = source;
+		}
+		
+		/**
+		 * 이 질의가 동시에 사용할 최대 쓰레드 수 (1 이면 순차)
+		 */
+		public Query parallelism(int parallelism) {
+			if(parallelism < 1){
+				throw new IllegalArgumentException("parallelism must be positive : " + parallelism);
+			}
+			this.parallelism = parallelism;
+			return this;
+		}
+		
+		/**
+		 * 이보다 작은 행 구간은 나누지 않음
+		 */
+		public Query splitThreshold(int rows) {
+			this.splitThreshold = Math.max(rows, 1);
+			return this;
+		}
+		
+		/**
+		 * 제한 시간을 넘기면 중단. get() 은 원인이 TimeoutException 인 ExecutionException
+		 */
+		public Query timeout(long timeout, TimeUnit unit) {
+			this.timeoutNanos = unit.toNanos(timeout);
+			return this;
+		}
+		
+		/**
+		 * 병렬 스트림에 pipeline 을 적용하는 작업을 시작
+		 */
+		public <R> QueryTask<R> submit(Function<? super Stream<Contact>, ? extends R> pipeline) {
+			QueryTask<R> task = new QueryTask<>(timeoutNanos);
+			ContactStore store = source.store();
+			Spliterator<Contact> rows = new RowSpliterator(store, 0, store.rowCount(), parallelism, splitThreshold, task);
+			task.start(pool.submit(() -> run(task, () -> pipeline.apply(StreamSupport.stream(rows, parallelism > 1)))));
+			return task;
+		}
+		
+		/**
+		 * submit 후 결과를 기다림
+		 */
+		public <R> R execute(Function<? super Stream<Contact>, ? extends R> pipeline) throws Exception {
+			return submit(pipeline).get();
+		}
+	}
+	
+	/**
+	 * 저장소 행 구간 [from, to) 의 연락처
+	 * - budget : 이 구간을 나눌 수 있는 최대 조각 수. 나눌 때마다 반씩 나누어 가짐
+	 */
+	private static final class RowSpliterator implements Spliterator<Contact> {
+		
+		/** 취소/제한 시간 확인 주기 (행 수) */
+		private static final int CHECK_INTERVAL = 256;
+		
+		private final ContactStore store;
+		private int row;
+		private final int end;
+		private int budget;
+		private final int splitThreshold;
+		private final QueryTask<?> task;
+		
+		RowSpliterator(ContactStore store, int from, int to, int budget, int splitThreshold, QueryTask<?> task) {
+			this.store = store;
+			this.row = from;
+			this.end = to;
+			this.budget = budget;
+			this.splitThreshold = splitThreshold;
+			this.task = task;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Contact> action) {
+			while(row < end){
+				int current = row++;
+				if((current & (CHECK_INTERVAL - 1)) == 0){
+					task.check();
+				}
+				if(store.isLive(current)){
+					action.accept(store.get(current));
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		@Override
+		public void forEachRemaining(Consumer<? super Contact> action) {
+			ContactStore store = this.store;
+			for(int current = row; current < end; current++){
+				if((current & (CHECK_INTERVAL - 1)) == 0){
+					task.check();
+				}
+				if(store.isLive(current)){
+					action.accept(store.get(current));
+				}
+			}
+			row = end;
+		}
+
+		@Override
+		public Spliterator<Contact> trySplit() {
+			int size = end - row;
+			if(budget < 2 || size < 2 * splitThreshold){
+				return null;
+			}
+			int middle = row + size / 2;
+			int prefixBudget = budget / 2;
+			Spliterator<Contact> prefix = new RowSpliterator(store, row, middle, prefixBudget, splitThreshold, task);
+			row = middle;
+			budget -= prefixBudget;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return end - row;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | NONNULL;
+		}
+	}
+	
+	/**
+	 * 실행기 상태
+	 */
+	public static final class Metrics {
+		
+		private final String name;
+		private final int parallelism;
+		private final int poolSize;
+		private final int activeThreads;
+		private final int runningThreads;
+		private final long queuedTasks;
+		private final int queuedSubmissions;
+		private final long stealCount;
+		private final long submitted;
+		private final long completed;
+		private final long failed;
+		private final long cancelled;
+		private final long timedOut;
+		
+		private Metrics(QueryExecutor executor) {
+			ForkJoinPool pool = executor.pool;
+			this.name = executor.name;
+			this.parallelism = pool.getParallelism();
+			this.poolSize = pool.getPoolSize();
+			this.activeThreads = pool.getActiveThreadCount();
+			this.runningThreads = pool.getRunningThreadCount();
+			this.queuedTasks = pool.getQueuedTaskCount();
+			this.queuedSubmissions = pool.getQueuedSubmissionCount();
+			this.stealCount = pool.getStealCount();
+			this.submitted = executor.submitted.get();
+			this.completed = executor.completed.get();
+			this.failed = executor.failed.get();
+			this.cancelled = executor.cancelled.get();
+			this.timedOut = executor.timedOut.get();
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public int getParallelism() {
+			return parallelism;
+		}
+		
+		/**
+		 * 시작된 작업자 쓰레드 수
+		 */
+		public int getPoolSize() {
+			return poolSize;
+		}
+		
+		/**
+		 * 작업을 실행하거나 훔치는 중인 쓰레드 수
+		 */
+		public int getActiveThreads() {
+			return activeThreads;
+		}
+		
+		/**
+		 * 대기(join 등)하지 않고 실행 중인 쓰레드 수
+		 */
+		public int getRunningThreads() {
+			return runningThreads;
+		}
+		
+		/**
+		 * 작업자 큐에 쌓인 분할 작업 수
+		 */
+		public long getQueuedTasks() {
+			return queuedTasks;
+		}
+		
+		/**
+		 * 아직 시작하지 않은 질의 수
+		 */
+		public int getQueuedSubmissions() {
+			return queuedSubmissions;
+		}
+		
+		public long getStealCount() {
+			return stealCount;
+		}
+		
+		/**
+		 * 실행을 시작한 질의 수
+		 */
+		public long getSubmitted() {
+			return submitted;
+		}
+		
+		public long getCompleted() {
+			return completed;
+		}
+		
+		public long getFailed() {
+			return failed;
+		}
+		
+		public long getCancelled() {
+			return cancelled;
+		}
+		
+		public long getTimedOut() {
+			return timedOut;
+		}
+
+		@Override
+		public String toString() {
+			return "Metrics [name=" + name + ", parallelism=" + parallelism + ", poolSize=" + poolSize
+					+ ", activeThreads=" + activeThreads + ", runningThreads=" + runningThreads
+					+ ", queuedTasks=" + queuedTasks + ", queuedSubmissions=" + queuedSubmissions
+					+ ", steals=" + stealCount + ", submitted=" + submitted + ", completed=" + completed
+					+ ", failed=" + failed + ", cancelled=" + cancelled + ", timedOut=" + timedOut + "]";
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+package dummy;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link QueryExecutor} 에서 실행 중인 질의
+ * - cancel() 은 쓰레드를 인터럽트하지 않음. 취소 즉시 isDone() 이 true 이고 get() 은 CancellationException,
+ *   실행 중인 질의는 다음 행을 읽을 때 중단
+ * - 질의의 제한 시간을 넘기면 get() 에서 ExecutionException (원인 TimeoutException)
+ * - get(timeout) 이 시간을 넘기면 질의를 취소하고 TimeoutException
+ */
+public class QueryTask<R> implements Future<R> {
+	
+	private final long deadline;		// System.nanoTime 기준, 0 이면 없음
+	private volatile boolean cancelled;
+	private ForkJoinTask<R> task;
+	
+	QueryTask(long timeoutNanos) {
+		this.deadline = timeoutNanos == 0 ? 0 : System.nanoTime() + timeoutNanos;
+	}
+	
+	void start(ForkJoinTask<R> task) {
+		this.task = task;
+	}
+	
+	/**
+	 * 취소되었거나 제한 시간을 넘겼으면 예외로 중단
+	 */
+	void check() {
+		if(cancelled){
+			throw new CancellationException("query cancelled");
+		}
+		if(deadline != 0 && System.nanoTime() - deadline > 0){
+			throw new DeadlineExceeded();
+		}
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		if(!task.cancel(false)){
+			return false;
+		}
+		cancelled = true;
+		return true;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return task.isCancelled();
+	}
+
+	@Override
+	public boolean isDone() {
+		return task.isDone();
+	}
+
+	@Override
+	public R get() throws InterruptedException, ExecutionException {
+		try {
+			return task.get();
+		} catch (ExecutionException e) {
+			throw translate(e);
+		}
+	}
+	
+	/**
+	 * 제한 시간을 넘기면 질의를 취소하고 TimeoutException
+	 */
+	@Override
+	public R get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		try {
+			return task.get(timeout, unit);
+		} catch (TimeoutException e) {
+			cancel(false);
+			throw e;
+		} catch (ExecutionException e) {
+			throw translate(e);
+		}
+	}
+	
+	/**
+	 * 작업 쓰레드에서 발생한 취소/시간 초과를 호출한 쪽의 예외로 변환
+	 */
+	private ExecutionException translate(ExecutionException e) {
+		for(Throwable cause = e.getCause(); cause != null; cause = cause.getCause()){
+			if(cause instanceof CancellationException){
+				throw (CancellationException) new CancellationException(cause.getMessage()).initCause(e.getCause());
+			}
+			if(cause instanceof DeadlineExceeded){
+				return new ExecutionException(new TimeoutException("query timed out"));
+			}
+		}
+		return e;
+	}
+	
+	/**
+	 * 질의의 제한 시간 초과
+	 */
+	static final class DeadlineExceeded extends RuntimeException {
+		
+		private static final long serialVersionUID = 1L;
+		
+		DeadlineExceeded() {
+			super("query timed out");
+		}
+	}
+
+}
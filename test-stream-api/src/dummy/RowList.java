@@ -0,0 +1,157 @@
+package dummy;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 오름차순으로 정렬된 행 번호 목록 (인덱스의 posting list)
+ * - 새 행(가장 큰 번호)은 배열 끝에 추가
+ * - 삭제는 위치만 표시하고 (이진 탐색), 삭제된 위치가 절반을 넘으면 한 번에 정리
+ * - 중간 번호의 추가(변경으로 다른 키로 옮겨온 행)는 작은 정렬 버퍼에 모았다가 버퍼가 차면 병합
+ * - 읽기는 배열과 버퍼를 병합하며 삭제 위치를 건너뜀 : 읽기는 목록을 바꾸지 않음
+ */
+class RowList {
+	
+	private static final int[] EMPTY = new int[0];
+	private static final int MIN_PENDING = 64;
+	
+	private int[] rows = new int[4];
+	private int size;
+	private final BitSet dead = new BitSet();
+	private int deadCount;
+	private int[] pending = EMPTY;
+	private int pendingSize;
+	
+	void add(int row) {
+		if(size == 0 || row > rows[size - 1]){
+			append(row);		// 새 행은 항상 가장 큰 번호
+			return;
+		}
+		int index = Arrays.binarySearch(rows, 0, size, row);
+		if(index >= 0){
+			if(dead.get(index)){
+				dead.clear(index);
+				deadCount--;
+			}
+			return;
+		}
+		int at = Arrays.binarySearch(pending, 0, pendingSize, row);
+		if(at >= 0){
+			return;
+		}
+		int insertAt = -at - 1;
+		if(pendingSize == pending.length){
+			pending = Arrays.copyOf(pending, Math.max(8, pendingSize * 2));
+		}
+		System.arraycopy(pending, insertAt, pending, insertAt + 1, pendingSize - insertAt);
+		pending[insertAt] = row;
+		pendingSize++;
+		if(pendingSize > Math.max(MIN_PENDING, (int) Math.sqrt(size))){
+			compact();
+		}
+	}
+	
+	private void append(int row) {
+		if(size == rows.length){
+			rows = Arrays.copyOf(rows, size * 2);
+		}
+		rows[size++] = row;
+	}
+	
+	boolean remove(int row) {
+		int index = Arrays.binarySearch(rows, 0, size, row);
+		if(index >= 0){
+			if(dead.get(index)){
+				return false;
+			}
+			dead.set(index);
+			deadCount++;
+			if(deadCount > MIN_PENDING && deadCount > size / 2){
+				compact();
+			}
+			return true;
+		}
+		int at = Arrays.binarySearch(pending, 0, pendingSize, row);
+		if(at < 0){
+			return false;
+		}
+		System.arraycopy(pending, at + 1, pending, at, pendingSize - at - 1);
+		pendingSize--;
+		return true;
+	}
+	
+	int size() {
+		return size - deadCount + pendingSize;
+	}
+	
+	boolean isEmpty() {
+		return size() == 0;
+	}
+	
+	/**
+	 * 오름차순
+	 */
+	PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+			private int index = dead.nextClearBit(0);
+			private int at;
+
+			@Override
+			public boolean hasNext() {
+				return index < size || at < pendingSize;
+			}
+
+			@Override
+			public int nextInt() {
+				if(!hasNext()){
+					throw new NoSuchElementException();
+				}
+				int row;
+				if(at >= pendingSize || (index < size && rows[index] < pending[at])){
+					row = rows[index];
+					index = dead.nextClearBit(index + 1);
+				} else {
+					row = pending[at++];
+				}
+				return row;
+			}
+		};
+	}
+	
+	void forEach(IntConsumer action) {
+		iterator().forEachRemaining(action);
+	}
+	
+	IntStream stream() {
+		if(deadCount == 0 && pendingSize == 0){
+			return Arrays.stream(rows, 0, size);
+		}
+		return StreamSupport.intStream(Spliterators.spliterator(iterator(), size(),
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+	}
+	
+	/**
+	 * 삭제 위치를 지우고 버퍼를 배열에 병합
+	 */
+	private void compact() {
+		int[] merged = new int[Math.max(4, size())];
+		int count = 0;
+		PrimitiveIterator.OfInt iterator = iterator();
+		while(iterator.hasNext()){
+			merged[count++] = iterator.nextInt();
+		}
+		rows = merged;
+		size = count;
+		dead.clear();
+		deadCount = 0;
+		pendingSize = 0;
+	}
+
+}
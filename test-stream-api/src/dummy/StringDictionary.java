@@ -0,0 +1,65 @@
+package dummy;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 문자열 사전 (Dictionary Encoding)
+ * - 반복되는 문자열(주, 도시 등)을 작은 정수 id 로 치환
+ * - id 는 등록 순서대로 0부터 부여되며, null 은 {@link #NULL_ID}
+ * - 여러 쓰레드에서 사용 가능 : 조회는 잠금 없음, 새 문자열 등록만 동기화
+ */
+public class StringDictionary {
+	
+	public static final int NULL_ID = -1;
+	
+	private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+	private volatile String[] values = new String[16];
+	private int size;
+	
+	/**
+	 * 문자열의 id 를 반환. 등록되지 않은 문자열이면 새로 등록
+	 */
+	public int idOf(String value) {
+		if(value == null){
+			return NULL_ID;
+		}
+		Integer id = ids.get(value);
+		return id != null ? id : register(value);
+	}
+	
+	/**
+	 * 문자열의 id 를 반환. 등록되지 않은 문자열이면 {@link #NULL_ID}
+	 */
+	public int find(String value) {
+		if(value == null){
+			return NULL_ID;
+		}
+		Integer id = ids.get(value);
+		return id == null ? NULL_ID : id;
+	}
+	
+	public String valueOf(int id) {
+		return id == NULL_ID ? null : values[id];
+	}
+	
+	public synchronized int size() {
+		return size;
+	}
+	
+	private synchronized int register(String value) {
+		Integer id = ids.get(value);
+		if(id != null){
+			return id;
+		}
+		String[] values = this.values;
+		if(size == values.length){
+			values = Arrays.copyOf(values, size * 2);
+		}
+		values[size] = value;
+		this.values = values;		// 배열에 쓴 뒤 공개
+		ids.put(value, size);
+		return size++;
+	}
+
+}
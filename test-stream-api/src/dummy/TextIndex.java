@@ -0,0 +1,814 @@
+package dummy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 문자열 필드 하나의 접두어/부분 문자열 검색 인덱스
+ * - 값은 소문자로 바꾼 용어(term)로 사전에 한 번만 저장. 용어 -> 행 번호 목록. 용어 id 는 바뀌지 않음
+ * - 접두어 : 각 용어의 단어 시작 위치(첫 글자, 영숫자가 아닌 문자 다음)를 (용어, 위치) 로 정렬한 배열(segment)
+ *   "smith" 는 "John Smith", "smith.j@mail.com" 모두 찾음
+ * - 순위 : 행 수가 많은 용어, 같으면 짧은 용어 우선
+ *   segment 마다 구간 최댓값 트리를 두고, 모든 segment 의 접두어 구간을 한 우선순위 큐에서 꺼냄 : O(segment 수 * log n + k log n)
+ * - 변경 : 행 수가 바뀐 용어는 트리 경로만 갱신
+ *   새 용어는 작은 active segment 에 정렬해 넣고(최대 ACTIVE_LIMIT), 가득 차면 얼리고 새로 시작
+ *   작은 segment 끼리는 크기가 비슷하면 바로 병합 (최대 MERGE_LIMIT), 쌓인 양이 가장 큰 segment 의 1/8 을 넘으면
+ *   executor 에서 전체를 병합한 뒤 다음 호출에서 교체 : 쓰는 쓰레드는 큰 병합을 기다리지 않음
+ * - 행이 없는 용어는 병합할 때 segment 에서 빠지고, 사전과 trigram 에는 남아 같은 값이 다시 오면 재사용
+ * - 부분 문자열 : 3글자 조각(trigram) -> 용어 id 목록 중 가장 짧은 목록의 후보만 검사하고, 상위 limit 개만 힙으로 고름
+ *   2글자 이하는 후보가 사전 대부분이므로 부분 문자열 대신 단어 시작(접두어)으로 찾음
+ */
+class TextIndex {
+	
+	/** 새 용어를 바로 정렬해 넣는 segment 의 최대 entry 수 */
+	private static final int ACTIVE_LIMIT = 256;
+	/** 쓰는 쓰레드에서 병합하는 segment 의 최대 entry 수 */
+	private static final int MERGE_LIMIT = 1 << 14;
+	/** 작은 segment 의 entry 수/병합되지 않은 삭제 용어 수가 이 수와 기준의 1/8 중 큰 값을 넘으면 백그라운드 병합 */
+	private static final int MIN_REBUILD = 1024;
+	private static final int CHUNK_BITS = 12;
+	
+	private final Executor executor;
+	
+	/* 사전 : 용어 id -> Term. 배열을 옮기지 않는 조각 배열이라 백그라운드 병합이 쓰기와 동시에 읽을 수 있음 */
+	private final Map<String, Integer> ids = new HashMap<>();
+	private Term[][] chunks = new Term[16][];
+	private int nextId;
+	private int deadTerms;			// 행이 없는 용어 수
+	private int deadIndexed;		// 그중 아직 segment 에 entry 가 있는 용어 수
+	
+	/* 접두어 : 0 번이 가장 큰 segment, 마지막이 active */
+	private final List<Segment> segments = new ArrayList<>();
+	private Segment active = new Segment(chunks, new long[0]);
+	private Build build;			// 진행 중인 백그라운드 병합 (없으면 null)
+	
+	/* 부분 문자열 */
+	private final Map<Long, RowList> trigrams = new HashMap<>();
+	
+	/**
+	 * @param executor 큰 segment 를 병합할 쓰레드
+	 */
+	TextIndex(Executor executor) {
+		this.executor = executor;
+		segments.add(active);
+	}
+	
+	void add(String value, int row) {
+		add(value, row, false);
+	}
+	
+	/**
+	 * 사전에만 추가. 모두 추가한 뒤 {@link #indexLoaded()} 를 호출해야 검색에 반영됨
+	 */
+	void load(String value, int row) {
+		add(value, row, true);
+	}
+	
+	void remove(String value, int row) {
+		if(value == null){
+			return;
+		}
+		install();
+		Integer id = ids.get(normalize(value));
+		if(id == null){
+			return;
+		}
+		Term term = term(id);
+		if(!term.rows.remove(row)){
+			return;
+		}
+		if(term.rows.isEmpty()){
+			deadTerms++;
+			if(term.segment != null){
+				deadIndexed++;
+			}
+		}
+		changed(id, term);
+		maybeRebuild();
+	}
+	
+	/**
+	 * 접두어로 시작하는 단어가 있는 용어 id. 순위순, 최대 limit 개
+	 */
+	List<Integer> startsWith(String prefix, int limit) {
+		install();
+		String query = normalize(prefix);
+		List<Integer> found = new ArrayList<>();
+		if(limit <= 0){
+			return found;
+		}
+		// (segment 번호 << 32 | 트리 노드) 를 노드 구간의 최고 순위로 함께 꺼냄
+		PriorityQueue<Long> queue = new PriorityQueue<>(Comparator.comparingInt(this::candidateRank));
+		for(int i = 0; i < segments.size(); i++){
+			Segment segment = segments.get(i);
+			int from = segment.lowerBound(chunks, query, false), to = segment.lowerBound(chunks, query, true);
+			for(int lo = from + segment.capacity, hi = to + segment.capacity; lo < hi; lo >>= 1, hi >>= 1){
+				if((lo & 1) == 1){
+					queue.add((long) i << 32 | lo++);
+				}
+				if((hi & 1) == 1){
+					queue.add((long) i << 32 | --hi);
+				}
+			}
+		}
+		Set<Integer> seen = new HashSet<>();
+		while(!queue.isEmpty() && found.size() < limit){
+			long candidate = queue.poll();
+			int index = (int) (candidate >>> 32), node = (int) candidate;
+			Segment segment = segments.get(index);
+			if(node < segment.capacity){
+				addChild(queue, index, 2 * node);
+				addChild(queue, index, 2 * node + 1);
+				continue;
+			}
+			int id = termOf(segment.entries[node - segment.capacity]);
+			if(term(id).rows.isEmpty()){
+				break;		// 순위순이므로 나머지도 모두 삭제된 용어
+			}
+			if(seen.add(id)){
+				found.add(id);
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * 부분 문자열을 포함하는 용어 id. 행 수, 일치 위치, 길이 순으로 최대 limit 개
+	 * - 2글자 이하는 {@link #startsWith(String, int)} 와 같음 (단어 시작만, 행 수와 길이 순)
+	 */
+	List<Integer> contains(String text, int limit) {
+		String query = normalize(text);
+		if(query.length() < 3){
+			return startsWith(query, limit);
+		}
+		List<Integer> found = new ArrayList<>();
+		if(limit <= 0){
+			return found;
+		}
+		RowList candidates = null;
+		for(int i = 0; i + 3 <= query.length(); i++){
+			RowList ids = trigrams.get(trigram(query, i));
+			if(ids == null){
+				return found;
+			}
+			if(candidates == null || ids.size() < candidates.size()){
+				candidates = ids;
+			}
+		}
+		SmallestKeys top = new SmallestKeys(Math.min(limit, candidates.size()));
+		PrimitiveIterator.OfInt ids = candidates.iterator();
+		while(ids.hasNext()){
+			long key = matchKey(ids.nextInt(), query);
+			if(key >= 0){
+				top.add(key);
+			}
+		}
+		for(long key : top.sorted()){
+			found.add((int) key);
+		}
+		return found;
+	}
+	
+	/**
+	 * 용어의 행 번호 (오름차순)
+	 */
+	RowList rows(int id) {
+		return term(id).rows;
+	}
+	
+	String display(int id) {
+		return term(id).display;
+	}
+	
+	int termCount() {
+		return nextId - deadTerms;
+	}
+	
+	/**
+	 * load 한 용어를 segment 하나로 정렬하고 trigram 을 만듦 (호출한 쓰레드에서)
+	 */
+	void indexLoaded() {
+		install();
+		int count = 0;
+		for(int id = 0; id < nextId; id++){
+			Term term = term(id);
+			if(term.segment == null && !term.rows.isEmpty()){
+				count += wordStarts(term.term).length;
+			}
+		}
+		long[] entries = new long[count];
+		int n = 0;
+		for(int id = 0; id < nextId; id++){
+			Term term = term(id);
+			if(term.segment == null && !term.rows.isEmpty()){
+				for(int offset : wordStarts(term.term)){
+					entries[n++] = (long) id << 16 | offset;
+				}
+				addTrigrams(term.term, id);
+			}
+		}
+		sort(chunks, entries, new long[entries.length], 0, entries.length);
+		Segment loaded = new Segment(chunks, entries);
+		for(long entry : entries){
+			term(termOf(entry)).segment = loaded;
+		}
+		segments.add(segments.size() - 1, loaded);
+	}
+	
+	static String normalize(String value) {
+		return value.toLowerCase(Locale.ROOT);
+	}
+	
+	private void add(String value, int row, boolean loading) {
+		if(value == null){
+			return;
+		}
+		install();
+		String normalized = normalize(value);
+		Integer id = ids.get(normalized);
+		boolean created = id == null;
+		Term term;
+		if(created){
+			id = nextId;
+			term = new Term(normalized, value);
+			append(term);
+			ids.put(normalized, id);
+			if(!loading){
+				addTrigrams(normalized, id);
+			}
+		} else {
+			term = term(id);
+		}
+		if(term.rows.isEmpty() && !created){
+			deadTerms--;		// 행이 없던 용어가 다시 사용됨
+			if(term.segment != null){
+				deadIndexed--;
+			}
+		}
+		term.rows.add(row);
+		if(!loading){
+			if(term.segment == null){
+				index(term, id);
+			} else {
+				changed(id, term);
+			}
+			maybeRebuild();
+		}
+	}
+	
+	private void append(Term term) {
+		int chunk = nextId >>> CHUNK_BITS;
+		if(chunk == chunks.length){
+			chunks = Arrays.copyOf(chunks, chunk * 2);
+		}
+		if(chunks[chunk] == null){
+			chunks[chunk] = new Term[1 << CHUNK_BITS];
+		}
+		chunks[chunk][nextId & ((1 << CHUNK_BITS) - 1)] = term;
+		nextId++;
+	}
+	
+	private Term term(int id) {
+		return term(chunks, id);
+	}
+	
+	private static Term term(Term[][] chunks, int id) {
+		return chunks[id >>> CHUNK_BITS][id & ((1 << CHUNK_BITS) - 1)];
+	}
+	
+	/**
+	 * segment 에 없는 용어의 entry 를 active 에 넣음
+	 */
+	private void index(Term term, int id) {
+		for(int offset : wordStarts(term.term)){
+			active.insert(chunks, (long) id << 16 | offset);
+		}
+		term.segment = active;
+		if(active.entries.length >= ACTIVE_LIMIT){
+			active = new Segment(chunks, new long[0]);
+			segments.add(active);
+			mergeSmall();
+		}
+	}
+	
+	/**
+	 * 행 수가 바뀐 용어의 순위를 반영. 병합 중인 segment 의 용어는 교체할 때 다시 반영하도록 기록
+	 */
+	private void changed(int id, Term term) {
+		Segment segment = segmentOf(term);
+		if(segment == null){
+			return;
+		}
+		for(int offset : wordStarts(term.term)){
+			segment.update(chunks, segment.find(chunks, (long) id << 16 | offset));
+		}
+		if(segment.building){
+			build.changed.set(id);
+		}
+	}
+	
+	/**
+	 * active 바로 앞의 두 segment 가 비슷한 크기면 쓰는 쓰레드에서 병합 (크기가 2배씩 늘어나므로 segment 수는 log)
+	 */
+	private void mergeSmall() {
+		for(int last = segments.size() - 2; last >= 1; last--){
+			Segment previous = segments.get(last - 1), segment = segments.get(last);
+			int size = previous.entries.length + segment.entries.length;
+			if(previous.building || previous.entries.length > 2 * segment.entries.length || size > MERGE_LIMIT){
+				return;
+			}
+			BitSet dropped = new BitSet();
+			Segment merged = merge(chunks, Arrays.asList(previous, segment), dropped);
+			retire(previous, merged);
+			retire(segment, merged);
+			segments.set(last - 1, merged);
+			segments.remove(last);
+			for(int id = dropped.nextSetBit(0); id >= 0; id = dropped.nextSetBit(id + 1)){
+				term(id).segment = null;
+				deadIndexed--;
+			}
+		}
+	}
+	
+	/**
+	 * 작은 segment 가 쌓였거나 segment 에 남은 삭제 용어가 많으면 active 를 제외한 전체를 백그라운드에서 병합
+	 */
+	private void maybeRebuild() {
+		if(build != null){
+			return;
+		}
+		int largest = segments.get(0).entries.length, others = 0;
+		for(int i = 1; i < segments.size(); i++){
+			others += segments.get(i).entries.length;
+		}
+		if(others <= Math.max(MIN_REBUILD, largest / 8) && deadIndexed <= Math.max(MIN_REBUILD, nextId / 8)){
+			return;
+		}
+		if(active.entries.length > 0){
+			active = new Segment(chunks, new long[0]);
+			segments.add(active);
+		}
+		List<Segment> inputs = new ArrayList<>(segments.subList(0, segments.size() - 1));
+		for(Segment segment : inputs){
+			segment.building = true;
+		}
+		build = new Build(chunks, inputs);
+		try {
+			executor.execute(build);
+		} catch (RejectedExecutionException e) {
+			build.run();
+		}
+	}
+	
+	/**
+	 * 끝난 백그라운드 병합을 교체. 병합 중에 바뀐 용어의 순위와 다시 사용된 용어를 반영
+	 */
+	private void install() {
+		Build build = this.build;
+		if(build == null || !build.done){
+			return;
+		}
+		this.build = null;
+		if(build.failure != null){
+			for(Segment segment : build.inputs){
+				segment.building = false;
+			}
+			throw new IllegalStateException("text index merge failed", build.failure);
+		}
+		Segment merged = build.result;
+		for(Segment segment : build.inputs){
+			retire(segment, merged);
+		}
+		segments.subList(0, build.inputs.size()).clear();
+		segments.add(0, merged);
+		BitSet dropped = build.dropped;
+		for(int id = dropped.nextSetBit(0); id >= 0; id = dropped.nextSetBit(id + 1)){
+			term(id).segment = null;
+		}
+		for(int id = build.changed.nextSetBit(0); id >= 0; id = build.changed.nextSetBit(id + 1)){
+			Term term = term(id);
+			if(term.segment != null){
+				changed(id, term);
+			}
+		}
+		for(int id = dropped.nextSetBit(0); id >= 0; id = dropped.nextSetBit(id + 1)){
+			Term term = term(id);
+			if(term.rows.isEmpty()){
+				deadIndexed--;
+			} else {
+				index(term, id);		// 병합 중에 다시 사용됨
+			}
+		}
+	}
+	
+	/**
+	 * 병합된 segment 의 배열을 놓아주고 용어가 새 segment 를 찾아가도록 연결
+	 */
+	private static void retire(Segment segment, Segment merged) {
+		segment.mergedInto = merged;
+		segment.entries = null;
+		segment.best = null;
+	}
+	
+	private static Segment segmentOf(Term term) {
+		Segment segment = term.segment;
+		if(segment != null && segment.mergedInto != null){
+			while(segment.mergedInto != null){
+				segment = segment.mergedInto;
+			}
+			term.segment = segment;
+		}
+		return segment;
+	}
+	
+	/**
+	 * segment 들을 하나로 병합. 행이 없는 용어는 빼고 dropped 에 기록 (용어 단위로 한 번만 판단)
+	 */
+	private static Segment merge(Term[][] chunks, List<Segment> inputs, BitSet dropped) {
+		BitSet kept = new BitSet();
+		List<long[]> runs = new ArrayList<>(inputs.size());
+		for(Segment segment : inputs){
+			long[] run = new long[segment.entries.length];
+			int n = 0;
+			for(long entry : segment.entries){
+				int id = termOf(entry);
+				if(!kept.get(id) && !dropped.get(id)){
+					if(term(chunks, id).rows.isEmpty()){
+						dropped.set(id);
+					} else {
+						kept.set(id);
+					}
+				}
+				if(kept.get(id)){
+					run[n++] = entry;
+				}
+			}
+			runs.add(n == run.length ? run : Arrays.copyOf(run, n));
+		}
+		while(runs.size() > 1){
+			List<long[]> next = new ArrayList<>((runs.size() + 1) / 2);
+			for(int i = 0; i < runs.size(); i += 2){
+				next.add(i + 1 < runs.size() ? merge(chunks, runs.get(i), runs.get(i + 1)) : runs.get(i));
+			}
+			runs = next;
+		}
+		return new Segment(chunks, runs.isEmpty() ? new long[0] : runs.get(0));
+	}
+	
+	private static long[] merge(Term[][] chunks, long[] left, long[] right) {
+		long[] merged = new long[left.length + right.length];
+		for(int i = 0, l = 0, r = 0; i < merged.length; i++){
+			if(r >= right.length || l < left.length && compare(chunks, left[l], right[r]) <= 0){
+				merged[i] = left[l++];
+			} else {
+				merged[i] = right[r++];
+			}
+		}
+		return merged;
+	}
+	
+	/**
+	 * 용어가 query 를 포함하면 (정렬 키 << 32 | id), 아니면 -1
+	 * 정렬 키 : 행 수 내림차순 19비트, 일치 위치 6비트, 길이 6비트 (넘는 값은 최댓값으로)
+	 */
+	private long matchKey(int id, String query) {
+		Term term = term(id);
+		int position = term.term.indexOf(query);
+		if(position < 0 || term.rows.isEmpty()){
+			return -1;
+		}
+		int rows = Math.min(term.rows.size(), (1 << 19) - 1);
+		long key = ((1 << 19) - 1 - rows) << 12 | Math.min(position, 63) << 6 | Math.min(term.term.length(), 63);
+		return key << 32 | id;
+	}
+	
+	private void addChild(PriorityQueue<Long> queue, int index, int node) {
+		if(segments.get(index).best[node] >= 0){
+			queue.add((long) index << 32 | node);
+		}
+	}
+	
+	/**
+	 * 작을수록 앞. 트리 노드 구간의 최고 순위 entry 의 용어
+	 */
+	private int candidateRank(long candidate) {
+		Segment segment = segments.get((int) (candidate >>> 32));
+		return -rank(term(termOf(segment.entries[segment.best[(int) candidate]])));
+	}
+	
+	/**
+	 * 행 수, 같으면 짧은 용어. 행 수는 2^20 - 1 까지만 구분
+	 */
+	private static int rank(Term term) {
+		int count = Math.min(term.rows.size(), (1 << 20) - 1);
+		return count << 10 | (1023 - Math.min(term.term.length(), 1023));
+	}
+	
+	/**
+	 * 접미사, 같으면 용어 id 순
+	 */
+	private static int compare(Term[][] chunks, long a, long b) {
+		String termA = term(chunks, termOf(a)).term, termB = term(chunks, termOf(b)).term;
+		int offsetA = offsetOf(a), offsetB = offsetOf(b);
+		int lengthA = termA.length() - offsetA, lengthB = termB.length() - offsetB;
+		for(int i = 0, length = Math.min(lengthA, lengthB); i < length; i++){
+			int diff = termA.charAt(offsetA + i) - termB.charAt(offsetB + i);
+			if(diff != 0){
+				return diff;
+			}
+		}
+		return lengthA != lengthB ? lengthA - lengthB : Integer.compare(termOf(a), termOf(b));
+	}
+	
+	/**
+	 * 병합 정렬 [from, to)
+	 */
+	private static void sort(Term[][] chunks, long[] array, long[] buffer, int from, int to) {
+		if(to - from < 2){
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		sort(chunks, array, buffer, from, middle);
+		sort(chunks, array, buffer, middle, to);
+		if(compare(chunks, array[middle - 1], array[middle]) <= 0){
+			return;
+		}
+		System.arraycopy(array, from, buffer, from, to - from);
+		for(int i = from, left = from, right = middle; i < to; i++){
+			if(right >= to || left < middle && compare(chunks, buffer[left], buffer[right]) <= 0){
+				array[i] = buffer[left++];
+			} else {
+				array[i] = buffer[right++];
+			}
+		}
+	}
+	
+	private void addTrigrams(String term, int id) {
+		for(int i = 0; i + 3 <= term.length(); i++){
+			trigrams.computeIfAbsent(trigram(term, i), k -> new RowList()).add(id);
+		}
+	}
+	
+	/**
+	 * 세 글자를 21비트씩. Long.hashCode(상위 ^ 하위)에서 ASCII 조각끼리 겹치지 않는 배치
+	 */
+	private static long trigram(String text, int i) {
+		return (long) text.charAt(i + 2) << 42 | (long) text.charAt(i + 1) << 21 | text.charAt(i);
+	}
+	
+	/**
+	 * 단어 시작 위치 : 0 과 영숫자가 아닌 문자 다음의 영숫자 (65535 이하)
+	 */
+	private static int[] wordStarts(String term) {
+		int length = Math.min(term.length(), 1 << 16);
+		int count = 1;
+		for(int i = 1; i < length; i++){
+			if(isWordStart(term, i)){
+				count++;
+			}
+		}
+		int[] starts = new int[count];
+		for(int i = 1, n = 1; i < length; i++){
+			if(isWordStart(term, i)){
+				starts[n++] = i;
+			}
+		}
+		return starts;
+	}
+	
+	private static boolean isWordStart(String term, int i) {
+		return Character.isLetterOrDigit(term.charAt(i)) && !Character.isLetterOrDigit(term.charAt(i - 1));
+	}
+	
+	private static int termOf(long entry) {
+		return (int) (entry >>> 16);
+	}
+	
+	private static int offsetOf(long entry) {
+		return (int) entry & 0xFFFF;
+	}
+	
+	/**
+	 * 사전의 용어 하나. term/display 는 바뀌지 않고, rows 와 segment 는 쓰는 쓰레드만 변경
+	 */
+	private static final class Term {
+		
+		final String term;
+		final String display;		// 처음 추가된 원래 값
+		final RowList rows = new RowList();
+		Segment segment;			// entry 가 있는 segment (병합되었으면 mergedInto 를 따라감), 없으면 null
+		
+		Term(String term, String display) {
+			this.term = term;
+			this.display = display;
+		}
+	}
+	
+	/**
+	 * (용어 id << 16 | 위치) 를 접미사 순으로 정렬한 배열과 그 위의 구간 최댓값 트리
+	 * - entries 는 active 일 때만 바뀌고, 얼린 뒤에는 백그라운드 병합이 읽을 수 있음
+	 * - best 는 쓰는 쓰레드만 갱신 (백그라운드 병합은 읽지 않음)
+	 */
+	private static final class Segment {
+		
+		long[] entries;
+		int capacity;
+		int[] best;				// 노드 -> 순위가 가장 높은 entry 번호 (없으면 -1)
+		boolean building;		// 진행 중인 백그라운드 병합의 입력
+		Segment mergedInto;
+		
+		Segment(Term[][] chunks, long[] entries) {
+			this.entries = entries;
+			buildTree(chunks);
+		}
+		
+		/**
+		 * active 에 entry 하나를 정렬 위치에 넣고 트리를 다시 만듦 (ACTIVE_LIMIT 이하라 O(작은 수))
+		 */
+		void insert(Term[][] chunks, long entry) {
+			int lo = 0, hi = entries.length;
+			while(lo < hi){
+				int mid = (lo + hi) >>> 1;
+				if(compare(chunks, entries[mid], entry) < 0){
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			long[] inserted = new long[entries.length + 1];
+			System.arraycopy(entries, 0, inserted, 0, lo);
+			inserted[lo] = entry;
+			System.arraycopy(entries, lo, inserted, lo + 1, entries.length - lo);
+			entries = inserted;
+			buildTree(chunks);
+		}
+		
+		/**
+		 * entry 번호 index 의 순위가 바뀜 : 루트까지의 경로만 갱신
+		 */
+		void update(Term[][] chunks, int index) {
+			for(int node = (index + capacity) >> 1; node > 0; node >>= 1){
+				best[node] = better(chunks, best[2 * node], best[2 * node + 1]);
+			}
+		}
+		
+		/**
+		 * 접미사가 query 이상인 첫 entry. afterPrefix 이면 query 로 시작하지도 않는 첫 entry
+		 */
+		int lowerBound(Term[][] chunks, String query, boolean afterPrefix) {
+			int lo = 0, hi = entries.length;
+			while(lo < hi){
+				int mid = (lo + hi) >>> 1;
+				int compared = comparePrefix(chunks, entries[mid], query);
+				if(compared < 0 || afterPrefix && compared == 0){
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			return lo;
+		}
+		
+		int find(Term[][] chunks, long entry) {
+			int lo = 0, hi = entries.length - 1;
+			while(lo <= hi){
+				int mid = (lo + hi) >>> 1;
+				int compared = compare(chunks, entries[mid], entry);
+				if(compared == 0){
+					return mid;
+				}
+				if(compared < 0){
+					lo = mid + 1;
+				} else {
+					hi = mid - 1;
+				}
+			}
+			throw new IllegalStateException("entry not indexed : " + term(chunks, termOf(entry)).term);
+		}
+		
+		private void buildTree(Term[][] chunks) {
+			capacity = Integer.highestOneBit(Math.max(entries.length - 1, 1)) << 1;
+			best = new int[2 * capacity];
+			Arrays.fill(best, -1);
+			for(int i = 0; i < entries.length; i++){
+				best[capacity + i] = i;
+			}
+			for(int node = capacity - 1; node > 0; node--){
+				best[node] = better(chunks, best[2 * node], best[2 * node + 1]);
+			}
+		}
+		
+		private int better(Term[][] chunks, int a, int b) {
+			if(a < 0 || b < 0){
+				return a < 0 ? b : a;
+			}
+			return rank(term(chunks, termOf(entries[b]))) > rank(term(chunks, termOf(entries[a]))) ? b : a;
+		}
+		
+		/**
+		 * entry 의 접미사가 query 로 시작하면 0
+		 */
+		private static int comparePrefix(Term[][] chunks, long entry, String query) {
+			String term = term(chunks, termOf(entry)).term;
+			int offset = offsetOf(entry);
+			int length = Math.min(term.length() - offset, query.length());
+			for(int i = 0; i < length; i++){
+				int diff = term.charAt(offset + i) - query.charAt(i);
+				if(diff != 0){
+					return diff;
+				}
+			}
+			return term.length() - offset < query.length() ? -1 : 0;
+		}
+	}
+	
+	/**
+	 * 백그라운드 병합. 행 수는 쓰는 쓰레드와 동시에 읽으므로 순위가 어긋날 수 있지만,
+	 * 병합 중에 바뀐 용어는 changed 에 기록했다가 교체할 때 다시 반영
+	 */
+	private static final class Build implements Runnable {
+		
+		final Term[][] chunks;
+		final List<Segment> inputs;
+		final BitSet changed = new BitSet();		// 쓰는 쓰레드만 사용
+		final BitSet dropped = new BitSet();		// done 이후에만 읽음
+		Segment result;
+		Throwable failure;
+		volatile boolean done;
+		
+		Build(Term[][] chunks, List<Segment> inputs) {
+			this.chunks = chunks;
+			this.inputs = inputs;
+		}
+
+		@Override
+		public void run() {
+			try {
+				result = merge(chunks, inputs, dropped);
+			} catch (Throwable e) {
+				failure = e;
+			} finally {
+				done = true;
+			}
+		}
+	}
+	
+	/**
+	 * 가장 작은 limit 개의 키만 유지하는 최대 힙. 후보 전체를 정렬하지 않음 : O(후보 수 * log limit)
+	 */
+	private static final class SmallestKeys {
+		
+		private final long[] heap;
+		private int size;
+		
+		SmallestKeys(int limit) {
+			this.heap = new long[limit];
+		}
+		
+		void add(long key) {
+			if(size < heap.length){
+				int i = size++;
+				while(i > 0 && heap[(i - 1) >>> 1] < key){
+					heap[i] = heap[(i - 1) >>> 1];
+					i = (i - 1) >>> 1;
+				}
+				heap[i] = key;
+			} else if(size > 0 && key < heap[0]){
+				int i = 0;
+				for(int child = 1; child < size; child = 2 * i + 1){
+					if(child + 1 < size && heap[child + 1] > heap[child]){
+						child++;
+					}
+					if(heap[child] <= key){
+						break;
+					}
+					heap[i] = heap[child];
+					i = child;
+				}
+				heap[i] = key;
+			}
+		}
+		
+		/**
+		 * 작은 키부터
+		 */
+		long[] sorted() {
+			long[] keys = Arrays.copyOf(heap, size);
+			Arrays.sort(keys);
+			return keys;
+		}
+	}
+
+}
@@ -0,0 +1,322 @@
+package flow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * 구독자마다 크기가 정해진 버퍼를 두는 발행자 (Java 9 SubmissionPublisher 와 비슷)
+ * - submit 은 버퍼에 넣고 바로 반환 : 쓰는 쪽은 느린 구독자 때문에 막히지 않음
+ * - 전달은 executor 에서 구독자별로 순서대로, 요청한(request) 개수만큼만
+ * - 구독자별 설정
+ *   - 버퍼 크기 : 넘치면 그 구독자만 onError(IllegalStateException) 후 해제
+ *   - 병합(coalesce) : 같은 키의 요소가 아직 전달 전이면 merge 로 하나로 합침 (null 이면 둘 다 버림)
+ *   - 묶음(batch) : 최대 maxBatch 개를 List 하나로 전달. request(n) 은 묶음 수
+ */
+public class BufferedPublisher<T> implements Flow.Publisher<T>, AutoCloseable {
+	
+	public static final int DEFAULT_BUFFER_SIZE = 1024;
+	
+	private final Executor executor;
+	private final Function<? super T, ?> key;
+	private final BinaryOperator<T> merge;
+	private final List<BufferedSubscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+	private volatile boolean closed;
+	
+	/**
+	 * 병합을 지원하지 않는 발행자
+	 */
+	public BufferedPublisher(Executor executor) {
+		this(executor, null, null);
+	}
+	
+	/**
+	 * @param key 병합 키
+	 * @param merge (먼저 들어온 요소, 나중 요소) -> 합친 요소. null 이면 둘 다 버림
+	 */
+	public BufferedPublisher(Executor executor, Function<? super T, ?> key, BinaryOperator<T> merge) {
+		this.executor = executor;
+		this.key = key;
+		this.merge = merge;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		subscribe(subscriber, DEFAULT_BUFFER_SIZE, false);
+	}
+	
+	public void subscribe(Flow.Subscriber<? super T> subscriber, int bufferSize, boolean coalesce) {
+		subscribe(subscriber, bufferSize, coalesce, Collections.emptyList());
+	}
+	
+	/**
+	 * @param initial 다른 요소보다 먼저 전달할 요소 (버퍼 크기 제한에 포함하지 않음)
+	 */
+	public void subscribe(Flow.Subscriber<? super T> subscriber, int bufferSize, boolean coalesce, Collection<? extends T> initial) {
+		register(new BufferedSubscription<>(subscriber, batch -> batch.get(0), 1, bufferSize, coalesce), initial);
+	}
+	
+	/**
+	 * 최대 maxBatch 개씩 묶어서 전달
+	 */
+	public void subscribeBatches(Flow.Subscriber<? super List<T>> subscriber, int maxBatch, int bufferSize, boolean coalesce) {
+		subscribeBatches(subscriber, maxBatch, bufferSize, coalesce, Collections.emptyList());
+	}
+	
+	public void subscribeBatches(Flow.Subscriber<? super List<T>> subscriber, int maxBatch, int bufferSize, boolean coalesce, Collection<? extends T> initial) {
+		if(maxBatch < 1){
+			throw new IllegalArgumentException("maxBatch must be positive : " + maxBatch);
+		}
+		register(new BufferedSubscription<>(subscriber, Collections::unmodifiableList, maxBatch, bufferSize, coalesce), initial);
+	}
+	
+	/**
+	 * 모든 구독자의 버퍼에 넣고 전달을 예약
+	 */
+	public void submit(T item) {
+		Objects.requireNonNull(item);
+		if(closed){
+			throw new IllegalStateException("publisher closed");
+		}
+		for(BufferedSubscription<?> subscription : subscriptions){
+			subscription.offer(item);
+		}
+	}
+	
+	public boolean hasSubscribers() {
+		return !subscriptions.isEmpty();
+	}
+	
+	public int getSubscriberCount() {
+		return subscriptions.size();
+	}
+	
+	/**
+	 * 남은 요소를 전달한 뒤 onComplete
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for(BufferedSubscription<?> subscription : subscriptions){
+			subscription.complete();
+		}
+	}
+	
+	private void register(BufferedSubscription<?> subscription, Collection<? extends T> initial) {
+		subscription.subscriber.onSubscribe(subscription);
+		for(T item : initial){
+			subscription.add(item);
+		}
+		if(closed){
+			subscription.complete();
+		} else {
+			subscriptions.add(subscription);
+		}
+		subscription.schedule();
+	}
+	
+	/**
+	 * 구독자 하나의 버퍼와 요청 수
+	 * @param <R> 구독자가 받는 타입 (T 또는 List&lt;T&gt;)
+	 */
+	private final class BufferedSubscription<R> implements Flow.Subscription, Runnable {
+		
+		final Flow.Subscriber<? super R> subscriber;
+		private final Function<List<T>, R> pack;
+		private final int maxBatch;
+		private final int bufferSize;
+		private final ArrayDeque<T> queue;
+		private final LinkedHashMap<Object, T> coalesced;
+		private final AtomicInteger wip = new AtomicInteger();
+		
+		/* synchronized(this) */
+		private long demand;
+		private boolean cancelled;
+		private boolean completed;
+		private Throwable error;
+		
+		BufferedSubscription(Flow.Subscriber<? super R> subscriber, Function<List<T>, R> pack, int maxBatch, int bufferSize, boolean coalesce) {
+			if(bufferSize < 1){
+				throw new IllegalArgumentException("bufferSize must be positive : " + bufferSize);
+			}
+			if(coalesce && key == null){
+				throw new IllegalStateException("publisher does not support coalescing");
+			}
+			this.subscriber = subscriber;
+			this.pack = pack;
+			this.maxBatch = maxBatch;
+			this.bufferSize = bufferSize;
+			this.queue = coalesce ? null : new ArrayDeque<>();
+			this.coalesced = coalesce ? new LinkedHashMap<>() : null;
+		}
+		
+		void offer(T item) {
+			synchronized(this){
+				if(cancelled || error != null){
+					return;
+				}
+				add(item);
+				if(size() > bufferSize){
+					error = new IllegalStateException("subscriber buffer overflow (" + bufferSize + ")");
+					clear();
+					subscriptions.remove(this);
+				}
+			}
+			schedule();
+		}
+		
+		synchronized void add(T item) {
+			if(queue != null){
+				queue.add(item);
+				return;
+			}
+			Object k = key.apply(item);
+			T previous = coalesced.get(k);
+			if(previous == null){
+				coalesced.put(k, item);
+				return;
+			}
+			T merged = merge.apply(previous, item);
+			if(merged == null){
+				coalesced.remove(k);
+			} else {
+				coalesced.put(k, merged);		// 처음 들어온 위치 유지
+			}
+		}
+		
+		void complete() {
+			synchronized(this){
+				completed = true;
+			}
+			schedule();
+		}
+		
+		void schedule() {
+			if(wip.getAndIncrement() == 0){
+				executor.execute(this);
+			}
+		}
+
+		@Override
+		public void request(long n) {
+			synchronized(this){
+				if(cancelled){
+					return;
+				}
+				if(n <= 0){
+					error = new IllegalArgumentException("non-positive request : " + n);
+					clear();
+					subscriptions.remove(this);
+				} else {
+					demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+				}
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			synchronized(this){
+				cancelled = true;
+				clear();
+			}
+			subscriptions.remove(this);
+		}
+		
+		/**
+		 * 전달 루프. 구독자 하나에 대해 동시에 하나만 실행
+		 */
+		@Override
+		public void run() {
+			int missed = 1;
+			while(true){
+				while(deliverOne()){
+					// 요청과 요소가 남아 있는 동안 계속
+				}
+				missed = wip.addAndGet(-missed);
+				if(missed == 0){
+					return;
+				}
+			}
+		}
+		
+		/**
+		 * @return 신호를 하나 보냈으면 true
+		 */
+		private boolean deliverOne() {
+			List<T> batch;
+			Throwable failure;
+			synchronized(this){
+				if(cancelled){
+					return false;
+				}
+				failure = error;
+				if(failure != null){
+					cancelled = true;
+					batch = null;
+				} else if(demand > 0 && size() > 0){
+					batch = take();
+					demand--;
+				} else if(completed && size() == 0){
+					cancelled = true;
+					batch = null;
+				} else {
+					return false;
+				}
+			}
+			try {
+				if(failure != null){
+					subscriber.onError(failure);
+				} else if(batch == null){
+					subscriber.onComplete();
+				} else {
+					subscriber.onNext(pack.apply(batch));
+				}
+			} catch (RuntimeException e) {
+				cancel();		// 구독자의 예외는 구독 취소로 처리
+				return false;
+			}
+			return true;
+		}
+		
+		private List<T> take() {
+			int count = Math.min(maxBatch, size());
+			List<T> batch = new ArrayList<>(count);
+			if(queue != null){
+				for(int i = 0; i < count; i++){
+					batch.add(queue.poll());
+				}
+			} else {
+				Iterator<T> values = coalesced.values().iterator();
+				for(int i = 0; i < count; i++){
+					batch.add(values.next());
+					values.remove();
+				}
+			}
+			return batch;
+		}
+		
+		private int size() {
+			return queue != null ? queue.size() : coalesced.size();
+		}
+		
+		private void clear() {
+			if(queue != null){
+				queue.clear();
+			} else {
+				coalesced.clear();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package flow;
+
+/**
+ * java.util.concurrent.Flow (Java 9) 와 같은 모양의 Reactive Streams 인터페이스
+ * - 이 프로젝트는 Java 8 대상이므로 같은 계약을 그대로 옮겨 둠
+ * - Java 9 이상으로 올리면 import 만 java.util.concurrent.Flow 로 바꾸면 됨
+ */
+public final class Flow {
+	
+	private Flow() {}
+	
+	/**
+	 * 구독자에게 요소를 발행
+	 */
+	@FunctionalInterface
+	public interface Publisher<T> {
+		void subscribe(Subscriber<? super T> subscriber);
+	}
+	
+	/**
+	 * 요소를 받는 쪽
+	 * - onSubscribe 후 request(n) 한 개수만큼만 onNext 를 받음 (배압)
+	 * - onError 또는 onComplete 이후에는 아무 신호도 받지 않음
+	 */
+	public interface Subscriber<T> {
+		void onSubscribe(Subscription subscription);
+		
+		void onNext(T item);
+		
+		void onError(Throwable throwable);
+		
+		void onComplete();
+	}
+	
+	/**
+	 * 발행자와 구독자 사이의 연결
+	 */
+	public interface Subscription {
+		/**
+		 * n 개를 더 받을 수 있음 (누적)
+		 */
+		void request(long n);
+		
+		void cancel();
+	}
+	
+	/**
+	 * 구독자이면서 발행자인 중간 단계
+	 */
+	public interface Processor<T, R> extends Subscriber<T>, Publisher<R> {
+	}
+
+}
@@ -0,0 +1,169 @@
+package log;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 아파치 접근 로그 한 행에 대한 재사용 뷰 (flyweight)
+ * <pre>
+ * 127.0.0.1 - frank [10/Oct/2000:13:55:36 -0700] "GET /index.html HTTP/1.0" 200 2326 ... 1234
+ * </pre>
+ * - 공통 로그 형식(common/combined) 뒤에 응답 시간(%D, 마지막 필드)이 붙은 형식
+ * - 정규식 없이 바이트 단위로 요청, 상태 코드, 응답 시간 위치만 찾음
+ */
+public final class AccessLogLine {
+	
+	private ByteBuffer buffer;
+	private int methodStart, methodEnd;
+	private int pathStart, pathEnd;
+	private int status;
+	private long bytes;
+	private long responseTime;
+	
+	AccessLogLine() {}
+	
+	/**
+	 * buffer 의 [start, end) 를 해석. 형식이 맞지 않으면 false
+	 */
+	boolean parse(ByteBuffer buffer, int start, int end) {
+		this.buffer = buffer;
+		while(end > start && isSpace(buffer.get(end - 1))){
+			end--;
+		}
+		// 요청 : 첫 번째 따옴표 안의 "METHOD PATH PROTOCOL"
+		int quote = indexOf(buffer, start, end, (byte) '"');
+		if(quote < 0){
+			return false;
+		}
+		methodStart = quote + 1;
+		methodEnd = indexOf(buffer, methodStart, end, (byte) ' ');
+		if(methodEnd < 0){
+			return false;
+		}
+		pathStart = methodEnd + 1;
+		int requestEnd = indexOf(buffer, pathStart, end, (byte) '"');
+		if(requestEnd < 0){
+			return false;
+		}
+		pathEnd = indexOf(buffer, pathStart, requestEnd, (byte) ' ');
+		if(pathEnd < 0){
+			pathEnd = requestEnd;
+		}
+		// 상태 코드와 전송 크기
+		int position = requestEnd + 1;
+		while(position < end && buffer.get(position) == ' '){
+			position++;
+		}
+		int statusEnd = tokenEnd(buffer, position, end);
+		long statusCode = parseLong(buffer, position, statusEnd);
+		if(statusCode < 0 || statusCode >= AccessLogStatistics.STATUS_LIMIT){
+			return false;		// HTTP 상태 코드는 세 자리 (600 이상은 형식 오류로 셈)
+		}
+		status = (int) statusCode;
+		position = statusEnd + 1;
+		int bytesEnd = tokenEnd(buffer, position, end);
+		bytes = parseLong(buffer, position, bytesEnd);		// "-" 이면 -1
+		// 응답 시간 : 마지막 필드
+		int lastStart = end;
+		while(lastStart > position && !isSpace(buffer.get(lastStart - 1))){
+			lastStart--;
+		}
+		responseTime = lastStart > bytesEnd ? parseLong(buffer, lastStart, end) : -1;
+		return true;
+	}
+	
+	public int statusCode() {
+		return status;
+	}
+	
+	/**
+	 * 응답 시간 (%D, 마이크로초). 없으면 -1
+	 */
+	public long responseTime() {
+		return responseTime;
+	}
+	
+	/**
+	 * 전송 크기. "-" 이면 -1
+	 */
+	public long bytes() {
+		return bytes;
+	}
+	
+	public boolean methodEquals(byte[] method) {
+		return regionEquals(methodStart, methodEnd, method, false);
+	}
+	
+	public boolean pathStartsWith(byte[] prefix) {
+		return regionEquals(pathStart, pathEnd, prefix, true);
+	}
+	
+	public String method() {
+		return string(methodStart, methodEnd);
+	}
+	
+	public String path() {
+		return string(pathStart, pathEnd);
+	}
+	
+	private boolean regionEquals(int start, int end, byte[] value, boolean prefix) {
+		int length = end - start;
+		if(prefix ? length < value.length : length != value.length){
+			return false;
+		}
+		for(int i = 0; i < value.length; i++){
+			if(buffer.get(start + i) != value[i]){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private String string(int start, int end) {
+		byte[] bytes = new byte[end - start];
+		for(int i = 0; i < bytes.length; i++){
+			bytes[i] = buffer.get(start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private static int indexOf(ByteBuffer buffer, int start, int end, byte value) {
+		for(int i = start; i < end; i++){
+			if(buffer.get(i) == value){
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private static int tokenEnd(ByteBuffer buffer, int start, int end) {
+		int i = start;
+		while(i < end && buffer.get(i) != ' '){
+			i++;
+		}
+		return i;
+	}
+	
+	/**
+	 * 10진수 해석. 숫자가 아니거나 비어 있으면 -1
+	 */
+	private static long parseLong(ByteBuffer buffer, int start, int end) {
+		if(start >= end){
+			return -1;
+		}
+		long value = 0;
+		for(int i = start; i < end; i++){
+			int digit = buffer.get(i) - '0';
+			if(digit < 0 || digit > 9){
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+	
+	private static boolean isSpace(byte value) {
+		return value == ' ' || value == '\r' || value == '\t';
+	}
+
+}
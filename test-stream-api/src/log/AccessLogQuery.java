@@ -0,0 +1,109 @@
+package log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+import csv.MappedLines;
+
+/**
+ * 아파치 접근 로그 분석
+ * <pre>
+ * AccessLogStatistics statistics = AccessLogQuery.of(path)
+ *                                                .status(200)
+ *                                                .method("GET")
+ *                                                .pathPrefix("/api/")
+ *                                                .analyze();
+ * </pre>
+ * - 파일을 메모리 매핑으로 읽고, 행마다 객체를 만들지 않음
+ * - parallel() 이면 파일을 행 경계로 나누어 구간별로 집계한 뒤 병합
+ */
+public class AccessLogQuery {
+	
+	private final Path path;
+	private int status = -1;
+	private byte[] method;
+	private byte[] pathPrefix;
+	private int parallelism = 1;
+	
+	private AccessLogQuery(Path path) {
+		this.path = path;
+	}
+	
+	public static AccessLogQuery of(Path path) {
+		return new AccessLogQuery(path);
+	}
+	
+	public AccessLogQuery status(int status) {
+		this.status = status;
+		return this;
+	}
+	
+	public AccessLogQuery method(String method) {
+		this.method = method.getBytes(StandardCharsets.US_ASCII);
+		return this;
+	}
+	
+	public AccessLogQuery pathPrefix(String prefix) {
+		this.pathPrefix = prefix.getBytes(StandardCharsets.UTF_8);
+		return this;
+	}
+	
+	public AccessLogQuery parallel() {
+		return parallel(Runtime.getRuntime().availableProcessors());
+	}
+	
+	public AccessLogQuery parallel(int parallelism) {
+		this.parallelism = Math.max(parallelism, 1);
+		return this;
+	}
+	
+	public AccessLogStatistics analyze() throws IOException {
+		try(MappedLines lines = MappedLines.open(path)){
+			if(parallelism == 1){
+				return analyze(lines, 0, lines.size());
+			}
+			long[] bounds = lines.split(parallelism * 4);
+			try {
+				return IntStream.range(0, bounds.length - 1)
+								.parallel()
+								.mapToObj(i -> {
+									try {
+										return analyze(lines, bounds[i], bounds[i + 1]);
+									} catch (IOException e) {
+										throw new UncheckedIOException(e);
+									}
+								})
+								.reduce(AccessLogStatistics::merge)
+								.orElseGet(AccessLogStatistics::new);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+	}
+	
+	private AccessLogStatistics analyze(MappedLines lines, long from, long to) throws IOException {
+		AccessLogStatistics statistics = new AccessLogStatistics();
+		AccessLogLine line = new AccessLogLine();
+		lines.forEachLine(from, to, (buffer, start, end) -> {
+			if(end == start){
+				return;
+			}
+			boolean parsed = line.parse(buffer, start, end);
+			statistics.line(parsed);
+			if(parsed && matches(line)){
+				statistics.accept(line);
+			}
+		});
+		return statistics;
+	}
+	
+	private boolean matches(AccessLogLine line) {
+		return (status < 0 || line.statusCode() == status)
+				&& (method == null || line.methodEquals(method))
+				&& (pathPrefix == null || line.pathStartsWith(pathPrefix));
+	}
+
+}
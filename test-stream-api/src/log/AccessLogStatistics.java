@@ -0,0 +1,114 @@
+package log;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 접근 로그 집계
+ * - 응답 시간 히스토그램 (개수, 평균, p50/p95/p99)
+ * - 상태 코드별 개수와 응답 시간 합계
+ * - 병합 가능 : 파일 구간별로 집계한 뒤 합침
+ */
+public class AccessLogStatistics {
+	
+	static final int STATUS_LIMIT = 600;
+	
+	private final LatencyHistogram responseTimes = new LatencyHistogram();
+	private final long[] countByStatus = new long[STATUS_LIMIT];
+	private final long[] responseTimeByStatus = new long[STATUS_LIMIT];
+	private long lines;
+	private long malformed;
+	
+	void accept(AccessLogLine line) {
+		int status = line.statusCode();
+		long responseTime = line.responseTime();
+		if(responseTime >= 0){
+			responseTimes.record(responseTime);
+		}
+		countByStatus[status]++;
+		responseTimeByStatus[status] += Math.max(responseTime, 0);
+	}
+	
+	void line(boolean parsed) {
+		lines++;
+		if(!parsed){
+			malformed++;
+		}
+	}
+	
+	public AccessLogStatistics merge(AccessLogStatistics other) {
+		responseTimes.merge(other.responseTimes);
+		for(int i = 0; i < STATUS_LIMIT; i++){
+			countByStatus[i] += other.countByStatus[i];
+			responseTimeByStatus[i] += other.responseTimeByStatus[i];
+		}
+		lines += other.lines;
+		malformed += other.malformed;
+		return this;
+	}
+	
+	/**
+	 * 조건을 만족한 요청 수
+	 */
+	public long count() {
+		long count = 0;
+		for(long statusCount : countByStatus){
+			count += statusCount;
+		}
+		return count;
+	}
+	
+	public double mean() {
+		return responseTimes.mean();
+	}
+	
+	public long percentile(double percentile) {
+		return responseTimes.percentile(percentile);
+	}
+	
+	public LatencyHistogram responseTimes() {
+		return responseTimes;
+	}
+	
+	public long count(int status) {
+		return status >= 0 && status < STATUS_LIMIT ? countByStatus[status] : 0;
+	}
+	
+	public double mean(int status) {
+		long count = count(status);
+		return count == 0 ? 0.0 : (double) responseTimeByStatus[status] / count;
+	}
+	
+	/**
+	 * 상태 코드별 요청 수 (상태 코드 오름차순)
+	 */
+	public Map<Integer, Long> countByStatus() {
+		Map<Integer, Long> counts = new LinkedHashMap<>();
+		for(int status = 0; status < STATUS_LIMIT; status++){
+			if(countByStatus[status] > 0){
+				counts.put(status, countByStatus[status]);
+			}
+		}
+		return counts;
+	}
+	
+	/**
+	 * 읽은 전체 행 수 (조건과 무관)
+	 */
+	public long lines() {
+		return lines;
+	}
+	
+	/**
+	 * 형식이 맞지 않아 건너뛴 행 수
+	 */
+	public long malformed() {
+		return malformed;
+	}
+
+	@Override
+	public String toString() {
+		return "AccessLogStatistics [" + responseTimes + ", status=" + countByStatus() + ", lines=" + lines + ", malformed=" + malformed + "]";
+	}
+
+}
@@ -0,0 +1,125 @@
+package log;
+
+import java.util.Arrays;
+
+/**
+ * 병합 가능한 응답 시간 히스토그램
+ * - 0 ~ 127 은 값 그대로, 그 이상은 2의 거듭제곱 구간마다 64개 하위 구간 (상대 오차 약 1.6% 이하)
+ * - 고정 크기 long[] 이므로 값이 많아도 메모리가 늘지 않음
+ * - 여러 파일/쓰레드의 결과를 {@link #merge(LatencyHistogram)} 로 합칠 수 있음
+ */
+public class LatencyHistogram {
+	
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;		// 64
+	private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;			// 128
+	private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+	
+	private final long[] counts = new long[BUCKET_COUNT];
+	private long count;
+	private long sum;
+	private long min = Long.MAX_VALUE;
+	private long max = Long.MIN_VALUE;
+	
+	/**
+	 * 값 기록. 음수는 0으로 기록
+	 */
+	public void record(long value) {
+		if(value < 0){
+			value = 0;
+		}
+		counts[bucketOf(value)]++;
+		count++;
+		sum += value;
+		if(value < min){
+			min = value;
+		}
+		if(value > max){
+			max = value;
+		}
+	}
+	
+	public void merge(LatencyHistogram other) {
+		for(int i = 0; i < BUCKET_COUNT; i++){
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+	
+	public long count() {
+		return count;
+	}
+	
+	public long sum() {
+		return sum;
+	}
+	
+	public double mean() {
+		return count == 0 ? 0.0 : (double) sum / count;
+	}
+	
+	public long min() {
+		return count == 0 ? 0 : min;
+	}
+	
+	public long max() {
+		return count == 0 ? 0 : max;
+	}
+	
+	/**
+	 * 백분위 값 (0 ~ 100). 해당 구간의 상한을 반환하되 실제 최댓값을 넘지 않음
+	 */
+	public long percentile(double percentile) {
+		if(count == 0){
+			return 0;
+		}
+		long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100.0 * count);
+		rank = Math.max(rank, 1);
+		long seen = 0;
+		for(int i = 0; i < BUCKET_COUNT; i++){
+			seen += counts[i];
+			if(seen >= rank){
+				return Math.max(Math.min(upperBoundOf(i), max), min);
+			}
+		}
+		return max;
+	}
+	
+	public void reset() {
+		Arrays.fill(counts, 0);
+		count = 0;
+		sum = 0;
+		min = Long.MAX_VALUE;
+		max = Long.MIN_VALUE;
+	}
+	
+	static int bucketOf(long value) {
+		if(value < LINEAR_LIMIT){
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);		// 7 이상
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+		return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+	}
+	
+	static long upperBoundOf(int bucket) {
+		if(bucket < LINEAR_LIMIT){
+			return bucket;
+		}
+		int index = bucket - LINEAR_LIMIT;
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+		long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+		long lower = subBucket << (exponent - SUB_BUCKET_BITS);
+		return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + count + ", mean=" + String.format("%.2f", mean()) + ", p50=" + percentile(50)
+				+ ", p95=" + percentile(95) + ", p99=" + percentile(99) + ", max=" + max();
+	}
+
+}
@@ -0,0 +1,145 @@
+package profiler;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * 스트림 파이프라인의 단계별 측정
+ * <pre>
+ * PipelineProfiler profiler = new PipelineProfiler("florida-male-average");
+ * double average = profiler.profile(contacts.stream())
+ *                          .filter("florida", c -&gt; "Florida".equals(c.getState()))
+ *                          .filter("male", c -&gt; Gender.Male == c.getGender())
+ *                          .mapToInt("age", Contact::getAge)
+ *                          .average("average")
+ *                          .orElse(0);
+ * System.out.println(profiler.report());
+ * </pre>
+ * - 단계마다 들어온/나간 요소 수, 통과 비율, 함수에서 보낸 시간(표본 추정)을 기록
+ * - 같은 프로파일러로 여러 번 실행하면 같은 위치의 단계에 누적
+ * - 병렬 스트림에서도 사용 가능 (쓰레드별 카운터)
+ * - 시간은 표본 추정이므로 GC 등으로 멈춘 시간이 표본에 걸리면 크게 나올 수 있음. 최종 연산 행의 시간은 실제 경과 시간
+ */
+public class PipelineProfiler implements PipelineProfilerMXBean {
+	
+	/** 기본 시간 측정 간격 : 쓰레드별로 64 개 요소마다 한 번 */
+	public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+	
+	private final String pipeline;
+	private final int sampleInterval;
+	private final List<Stage> stages = new ArrayList<>();
+	private final AtomicLong runs = new AtomicLong();
+	private final AtomicLong wallNanos = new AtomicLong();
+	
+	public PipelineProfiler(String pipeline) {
+		this(pipeline, DEFAULT_SAMPLE_INTERVAL);
+	}
+	
+	/**
+	 * @param sampleInterval 시간 측정 간격 (2의 거듭제곱으로 내림). 1 이면 모든 요소를 측정
+	 */
+	public PipelineProfiler(String pipeline, int sampleInterval) {
+		this.pipeline = pipeline;
+		this.sampleInterval = sampleInterval;
+	}
+	
+	/**
+	 * 스트림의 단계를 측정하는 래퍼. 최종 연산까지 래퍼의 메소드로 연결해야 함
+	 */
+	public <T> ProfiledStream<T> profile(Stream<T> stream) {
+		return new ProfiledStream<>(this, stream, 0);
+	}
+	
+	/**
+	 * position 번째 단계. 처음 실행할 때 만들고 이후 실행에서는 재사용
+	 */
+	synchronized Stage stage(int position, String name, String operation, boolean terminal) {
+		if(position < stages.size()){
+			Stage stage = stages.get(position);
+			if(!stage.name.equals(name) || !stage.operation.equals(operation)){
+				throw new IllegalStateException("pipeline " + pipeline + " changed at stage " + position
+						+ " : " + stage.name + "(" + stage.operation + ") -> " + name + "(" + operation + ")");
+			}
+			return stage;
+		}
+		Stage stage = new Stage(position, name, operation, terminal, sampleInterval);
+		stages.add(stage);
+		return stage;
+	}
+	
+	void completed(long nanos) {
+		runs.incrementAndGet();
+		wallNanos.addAndGet(nanos);
+	}
+	
+	public synchronized List<StageSnapshot> snapshot() {
+		List<StageSnapshot> snapshots = new ArrayList<>(stages.size());
+		for(Stage stage : stages){
+			snapshots.add(stage.snapshot());
+		}
+		return snapshots;
+	}
+	
+	/**
+	 * 단계별 측정값 표
+	 */
+	public String report() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("pipeline %s : runs %d, wall %.3f ms%n", pipeline, runs.get(), wallNanos.get() / 1e6));
+		report.append(String.format("%2s  %-16s %-14s %12s %12s %9s %10s %9s%n", "#", "stage", "operation", "in", "out", "select", "est. ms", "ns/elem"));
+		for(StageSnapshot stage : snapshot()){
+			report.append(stage).append(String.format("%n"));
+		}
+		return report.toString();
+	}
+	
+	/**
+	 * 플랫폼 MBean 서버에 등록 (contact.profiler:type=Pipeline,name=...)
+	 */
+	public ObjectName register() throws JMException {
+		ObjectName objectName = new ObjectName("contact.profiler:type=Pipeline,name=" + ObjectName.quote(pipeline));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		return objectName;
+	}
+
+	@Override
+	public String getPipeline() {
+		return pipeline;
+	}
+
+	@Override
+	public long getRuns() {
+		return runs.get();
+	}
+
+	@Override
+	public long getWallNanos() {
+		return wallNanos.get();
+	}
+
+	@Override
+	public String getReport() {
+		return report();
+	}
+
+	@Override
+	public synchronized void reset() {
+		for(Stage stage : stages){
+			stage.reset();
+		}
+		runs.set(0);
+		wallNanos.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return report();
+	}
+
+}
@@ -0,0 +1,21 @@
+package profiler;
+
+/**
+ * JMX 로 노출하는 프로파일러 정보
+ */
+public interface PipelineProfilerMXBean {
+	
+	String getPipeline();
+	
+	long getRuns();
+	
+	long getWallNanos();
+	
+	/**
+	 * 단계별 측정값 텍스트
+	 */
+	String getReport();
+	
+	void reset();
+
+}
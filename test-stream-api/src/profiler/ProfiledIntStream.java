@@ -0,0 +1,105 @@
+package profiler;
+
+import java.util.IntSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+import profiler.Stage.Cell;
+
+/**
+ * 단계마다 이름을 붙여 측정하는 IntStream 래퍼
+ */
+public final class ProfiledIntStream {
+	
+	private final PipelineProfiler profiler;
+	private final IntStream stream;
+	private final int position;
+	
+	ProfiledIntStream(PipelineProfiler profiler, IntStream stream, int position) {
+		this.profiler = profiler;
+		this.stream = stream;
+		this.position = position;
+	}
+	
+	public ProfiledIntStream filter(String name, IntPredicate predicate) {
+		Stage stage = profiler.stage(position, name, "filter", false);
+		return new ProfiledIntStream(profiler, stream.filter(value -> {
+			Cell cell = stage.cell();
+			boolean passed;
+			if(stage.enter(cell)){
+				long start = System.nanoTime();
+				passed = predicate.test(value);
+				cell.time(start);
+			} else {
+				passed = predicate.test(value);
+			}
+			if(passed){
+				cell.out++;
+			}
+			return passed;
+		}), position + 1);
+	}
+	
+	public ProfiledIntStream map(String name, IntUnaryOperator mapper) {
+		Stage stage = profiler.stage(position, name, "map", false);
+		return new ProfiledIntStream(profiler, stream.map(value -> {
+			Cell cell = stage.cell();
+			int result;
+			if(stage.enter(cell)){
+				long start = System.nanoTime();
+				result = mapper.applyAsInt(value);
+				cell.time(start);
+			} else {
+				result = mapper.applyAsInt(value);
+			}
+			cell.out++;
+			return result;
+		}), position + 1);
+	}
+	
+	public ProfiledIntStream parallel() {
+		return new ProfiledIntStream(profiler, stream.parallel(), position);
+	}
+	
+	public ProfiledIntStream sequential() {
+		return new ProfiledIntStream(profiler, stream.sequential(), position);
+	}
+	
+	/*
+	 * 최종 연산
+	 */
+	public OptionalDouble average(String name) {
+		return terminal(name, "average", IntStream::average);
+	}
+	
+	public int sum(String name) {
+		return terminal(name, "sum", IntStream::sum);
+	}
+	
+	public long count(String name) {
+		return terminal(name, "count", IntStream::count);
+	}
+	
+	public IntSummaryStatistics summaryStatistics(String name) {
+		return terminal(name, "summaryStatistics", IntStream::summaryStatistics);
+	}
+	
+	public <R> R terminal(String name, Function<? super IntStream, ? extends R> operation) {
+		return terminal(name, "terminal", operation);
+	}
+	
+	private <R> R terminal(String name, String operationName, Function<? super IntStream, ? extends R> operation) {
+		Stage stage = profiler.stage(position, name, operationName, true);
+		IntStream counted = stream.peek(value -> stage.cell().in++);
+		long start = System.nanoTime();
+		R result = operation.apply(counted);
+		long nanos = System.nanoTime() - start;
+		stage.finish(nanos);
+		profiler.completed(nanos);
+		return result;
+	}
+
+}
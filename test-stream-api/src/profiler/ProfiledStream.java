@@ -0,0 +1,133 @@
+package profiler;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+import profiler.Stage.Cell;
+
+/**
+ * 단계마다 이름을 붙여 측정하는 Stream 래퍼
+ */
+public final class ProfiledStream<T> {
+	
+	private final PipelineProfiler profiler;
+	private final Stream<T> stream;
+	private final int position;
+	
+	ProfiledStream(PipelineProfiler profiler, Stream<T> stream, int position) {
+		this.profiler = profiler;
+		this.stream = stream;
+		this.position = position;
+	}
+	
+	public ProfiledStream<T> filter(String name, Predicate<? super T> predicate) {
+		Stage stage = profiler.stage(position, name, "filter", false);
+		return new ProfiledStream<>(profiler, stream.filter(value -> {
+			Cell cell = stage.cell();
+			boolean passed;
+			if(stage.enter(cell)){
+				long start = System.nanoTime();
+				passed = predicate.test(value);
+				cell.time(start);
+			} else {
+				passed = predicate.test(value);
+			}
+			if(passed){
+				cell.out++;
+			}
+			return passed;
+		}), position + 1);
+	}
+	
+	public <R> ProfiledStream<R> map(String name, Function<? super T, ? extends R> mapper) {
+		Stage stage = profiler.stage(position, name, "map", false);
+		return new ProfiledStream<>(profiler, stream.map(value -> {
+			Cell cell = stage.cell();
+			R result;
+			if(stage.enter(cell)){
+				long start = System.nanoTime();
+				result = mapper.apply(value);
+				cell.time(start);
+			} else {
+				result = mapper.apply(value);
+			}
+			cell.out++;
+			return result;
+		}), position + 1);
+	}
+	
+	public ProfiledIntStream mapToInt(String name, ToIntFunction<? super T> mapper) {
+		Stage stage = profiler.stage(position, name, "mapToInt", false);
+		return new ProfiledIntStream(profiler, stream.mapToInt(value -> {
+			Cell cell = stage.cell();
+			int result;
+			if(stage.enter(cell)){
+				long start = System.nanoTime();
+				result = mapper.applyAsInt(value);
+				cell.time(start);
+			} else {
+				result = mapper.applyAsInt(value);
+			}
+			cell.out++;
+			return result;
+		}), position + 1);
+	}
+	
+	public ProfiledStream<T> parallel() {
+		return new ProfiledStream<>(profiler, stream.parallel(), position);
+	}
+	
+	public ProfiledStream<T> sequential() {
+		return new ProfiledStream<>(profiler, stream.sequential(), position);
+	}
+	
+	/*
+	 * 최종 연산 : 들어온 요소 수와 파이프라인 전체 경과 시간을 기록
+	 */
+	public <R, A> R collect(String name, Collector<? super T, A, R> collector) {
+		return terminal(name, "collect", s -> s.collect(collector));
+	}
+	
+	public long count(String name) {
+		return terminal(name, "count", Stream::count);
+	}
+	
+	public Optional<T> findFirst(String name) {
+		return terminal(name, "findFirst", Stream::findFirst);
+	}
+	
+	public Optional<T> findAny(String name) {
+		return terminal(name, "findAny", Stream::findAny);
+	}
+	
+	public void forEach(String name, Consumer<? super T> action) {
+		terminal(name, "forEach", s -> {
+			s.forEach(action);
+			return null;
+		});
+	}
+	
+	/**
+	 * 임의의 최종 연산
+	 */
+	public <R> R terminal(String name, Function<? super Stream<T>, ? extends R> operation) {
+		return terminal(name, "terminal", operation);
+	}
+	
+	private <R> R terminal(String name, String operationName, Function<? super Stream<T>, ? extends R> operation) {
+		Stage stage = profiler.stage(position, name, operationName, true);
+		Stream<T> counted = stream.peek(value -> stage.cell().in++);
+		long start = System.nanoTime();
+		R result = operation.apply(counted);
+		long nanos = System.nanoTime() - start;
+		stage.finish(nanos);
+		profiler.completed(nanos);
+		return result;
+	}
+
+}
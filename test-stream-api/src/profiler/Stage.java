@@ -0,0 +1,102 @@
+package profiler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 파이프라인 단계 하나의 카운터
+ * - 쓰레드마다 자기 Cell 에만 기록 (병렬 스트림에서도 경합/원자 연산 없음)
+ * - 시간은 쓰레드별로 2^n 번째 요소마다 한 번만 측정하고, 전체 시간은 측정한 비율로 추정
+ * - 측정값에서 System.nanoTime() 호출 자체의 비용은 뺌
+ * - 조회 시 모든 Cell 을 합산. 최종 연산이 끝난 뒤 조회하면 정확한 값
+ */
+final class Stage {
+	
+	/** nanoTime() 두 번 호출하는 비용 */
+	private static final long TIMER_OVERHEAD = timerOverhead();
+	
+	final int position;
+	final String name;
+	final String operation;
+	final boolean terminal;
+	
+	private final long sampleMask;
+	private final Queue<Cell> cells = new ConcurrentLinkedQueue<>();
+	private final ThreadLocal<Cell> local = ThreadLocal.withInitial(this::register);
+	
+	Stage(int position, String name, String operation, boolean terminal, int sampleInterval) {
+		this.position = position;
+		this.name = name;
+		this.operation = operation;
+		this.terminal = terminal;
+		this.sampleMask = Integer.highestOneBit(Math.max(sampleInterval, 1)) - 1;
+	}
+	
+	Cell cell() {
+		return local.get();
+	}
+	
+	/**
+	 * 요소 하나가 들어옴. 시간을 측정할 요소이면 true
+	 */
+	boolean enter(Cell cell) {
+		return (cell.in++ & sampleMask) == 0;
+	}
+	
+	/**
+	 * 최종 연산이 끝남. 결과 하나와 파이프라인 전체 경과 시간을 기록
+	 */
+	void finish(long nanos) {
+		Cell cell = cell();
+		cell.out++;
+		cell.sampledNanos += nanos;
+	}
+	
+	StageSnapshot snapshot() {
+		long in = 0, out = 0, sampled = 0, sampledNanos = 0;
+		for(Cell cell : cells){
+			in += cell.in;
+			out += cell.out;
+			sampled += cell.sampled;
+			sampledNanos += cell.sampledNanos;
+		}
+		return new StageSnapshot(position, name, operation, in, out, sampled, sampledNanos, terminal);
+	}
+	
+	void reset() {
+		for(Cell cell : cells){
+			cell.in = 0;
+			cell.out = 0;
+			cell.sampled = 0;
+			cell.sampledNanos = 0;
+		}
+	}
+	
+	private Cell register() {
+		Cell cell = new Cell();
+		cells.add(cell);
+		return cell;
+	}
+	
+	static final class Cell {
+		long in;
+		long out;
+		long sampled;
+		long sampledNanos;
+		
+		void time(long startNanos) {
+			sampledNanos += Math.max(System.nanoTime() - startNanos - TIMER_OVERHEAD, 0);
+			sampled++;
+		}
+	}
+	
+	private static long timerOverhead() {
+		long minimum = Long.MAX_VALUE;
+		for(int i = 0; i < 10000; i++){
+			long start = System.nanoTime();
+			minimum = Math.min(minimum, System.nanoTime() - start);
+		}
+		return minimum;
+	}
+
+}
@@ -0,0 +1,101 @@
+package profiler;
+
+/**
+ * 단계 하나의 측정값
+ */
+public final class StageSnapshot {
+	
+	private final int position;
+	private final String name;
+	private final String operation;
+	private final long in;
+	private final long out;
+	private final long sampled;
+	private final long sampledNanos;
+	private final boolean terminal;
+	
+	StageSnapshot(int position, String name, String operation, long in, long out, long sampled, long sampledNanos, boolean terminal) {
+		this.position = position;
+		this.name = name;
+		this.operation = operation;
+		this.in = in;
+		this.out = out;
+		this.sampled = sampled;
+		this.sampledNanos = sampledNanos;
+		this.terminal = terminal;
+	}
+	
+	/**
+	 * 파이프라인에서의 순서 (0부터)
+	 */
+	public int getPosition() {
+		return position;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * filter, map, mapToInt, 최종 연산 이름 등
+	 */
+	public String getOperation() {
+		return operation;
+	}
+	
+	public long getIn() {
+		return in;
+	}
+	
+	public long getOut() {
+		return out;
+	}
+	
+	/**
+	 * 통과 비율 (out / in)
+	 */
+	public double getSelectivity() {
+		return in == 0 ? 0 : (double) out / in;
+	}
+	
+	/**
+	 * 시간을 측정한 요소 수
+	 */
+	public long getSampled() {
+		return sampled;
+	}
+	
+	/**
+	 * 최종 연산 단계인지. 최종 연산의 시간은 앞 단계를 모두 포함한 실제 경과 시간
+	 */
+	public boolean isTerminal() {
+		return terminal;
+	}
+	
+	/**
+	 * 요소 하나당 평균 시간 (측정한 요소 기준)
+	 */
+	public double getNanosPerElement() {
+		if(terminal){
+			return in == 0 ? 0 : (double) sampledNanos / in;
+		}
+		return sampled == 0 ? 0 : (double) sampledNanos / sampled;
+	}
+	
+	/**
+	 * 이 단계의 함수에서 보낸 누적 시간 추정값
+	 */
+	public long getEstimatedNanos() {
+		if(terminal){
+			return sampledNanos;
+		}
+		return sampled == 0 ? 0 : Math.round(getNanosPerElement() * in);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%2d  %-16s %-14s %12d %12d %8.2f%% %10.3f %9.1f",
+				position, name, operation, in, out, getSelectivity() * 100, getEstimatedNanos() / 1e6, getNanosPerElement());
+	}
+
+}
@@ -0,0 +1,103 @@
+package sequence;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * 수열의 [from, to) 구간을 순회하는 Spliterator
+ * - 다음 항은 상태를 갱신해서 계산 (항마다 객체를 만들지 않음)
+ * - trySplit() 은 구간을 절반으로 나누고, 나뉜 구간은 처음 사용할 때 시작 항으로 바로 이동 (O(log n))
+ */
+abstract class JumpSpliterator implements Spliterator.OfLong {
+	
+	/** 이보다 작은 구간은 분할하지 않음 */
+	static final long MIN_SPLIT_SIZE = 1 << 10;
+	
+	private long index;
+	private final long end;
+	private boolean positioned;
+	
+	JumpSpliterator(long from, long to) {
+		this.index = from;
+		this.end = to;
+	}
+	
+	/**
+	 * 상태를 index 번째 항으로 이동
+	 */
+	abstract void jumpTo(long index);
+	
+	/**
+	 * 현재 항
+	 */
+	abstract long current();
+	
+	/**
+	 * 다음 항으로 이동
+	 */
+	abstract void next();
+	
+	/**
+	 * 같은 수열의 [from, to) 구간
+	 */
+	abstract JumpSpliterator slice(long from, long to);
+
+	@Override
+	public boolean tryAdvance(LongConsumer action) {
+		if(index >= end){
+			return false;
+		}
+		position();
+		action.accept(current());
+		if(++index < end){
+			next();
+		}
+		return true;
+	}
+	
+	@Override
+	public void forEachRemaining(LongConsumer action) {
+		if(index >= end){
+			return;
+		}
+		position();
+		long remaining = end - index;
+		for(long i = 1; i < remaining; i++){
+			action.accept(current());
+			next();
+		}
+		action.accept(current());
+		index = end;
+	}
+	
+	@Override
+	public Spliterator.OfLong trySplit() {
+		long size = end - index;
+		if(size < MIN_SPLIT_SIZE){
+			return null;
+		}
+		long middle = index + size / 2;
+		JumpSpliterator prefix = slice(index, middle);
+		index = middle;
+		positioned = false;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return end - index;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+	}
+	
+	private void position() {
+		if(!positioned){
+			jumpTo(index);
+			positioned = true;
+		}
+	}
+
+}
@@ -0,0 +1,307 @@
+package sequence;
+
+import java.math.BigInteger;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 선형 점화식 수열 스트림 (카운터, 피보나치, 선형 합동 난수)
+ * - Stream.iterate 와 달리 항마다 객체를 만들지 않고, parallel() 시 구간을 나누어 처리
+ * - 나뉜 구간의 시작 항은 O(log n) 으로 바로 계산 (jump-ahead)
+ * - long 수열은 2^64 를 법으로 계산 (오버플로 시 하위 64비트). 정확한 값은 BigInteger 수열 사용
+ * - count 를 생략하면 Long.MAX_VALUE 개 (사실상 무한). limit(n) 과 함께 사용
+ */
+public class Sequences {
+	
+	/** 선형 합동 난수 상수 (Knuth MMIX) */
+	public static final long LCG_MULTIPLIER = 6364136223846793005L;
+	public static final long LCG_INCREMENT = 1442695040888963407L;
+	
+	private Sequences() {}
+	
+	/**
+	 * start, start + step, start + 2 * step, ...
+	 */
+	public static LongStream counter(long start, long step, long count) {
+		return StreamSupport.longStream(new CounterSpliterator(start, step, 0, count), false);
+	}
+	
+	public static LongStream counter(long start, long step) {
+		return counter(start, step, Long.MAX_VALUE);
+	}
+	
+	/**
+	 * 0, 1, 1, 2, 3, 5, ... (F(93) 부터 오버플로)
+	 */
+	public static LongStream fibonacci(long count) {
+		return StreamSupport.longStream(new FibonacciSpliterator(0, count), false);
+	}
+	
+	public static LongStream fibonacci() {
+		return fibonacci(Long.MAX_VALUE);
+	}
+	
+	/**
+	 * 정확한 피보나치 수열. 항마다 BigInteger 를 생성
+	 */
+	public static Stream<BigInteger> exactFibonacci(long count) {
+		return StreamSupport.stream(new BigFibonacciSpliterator(0, count), false);
+	}
+	
+	/**
+	 * 끝이 없는 정확한 피보나치 수열. 크기를 모르므로 parallel() 시 앞에서부터 점점 커지는 묶음으로만 나눔
+	 * - 뒤쪽 항은 자릿수가 계속 늘어나므로 limit(n) 이나 takeWhile 로 먼저 끊어서 사용
+	 */
+	public static Stream<BigInteger> exactFibonacci() {
+		return exactFibonacci(Long.MAX_VALUE);
+	}
+	
+	/**
+	 * x(n+1) = multiplier * x(n) + increment (mod 2^64), x(0) = seed
+	 * - 하위 비트는 주기가 짧으므로 난수로는 상위 비트를 사용 (예: x >>> 32)
+	 */
+	public static LongStream lcg(long seed, long multiplier, long increment, long count) {
+		return StreamSupport.longStream(new LcgSpliterator(seed, multiplier, increment, 0, count), false);
+	}
+	
+	public static LongStream lcg(long seed, long count) {
+		return lcg(seed, LCG_MULTIPLIER, LCG_INCREMENT, count);
+	}
+	
+	/**
+	 * n 번째 피보나치 수 (mod 2^64). 빠른 배가(fast doubling)로 O(log n)
+	 * - F(2k) = F(k) * (2F(k+1) - F(k))
+	 * - F(2k+1) = F(k)^2 + F(k+1)^2
+	 * @return {F(n), F(n+1)}
+	 */
+	static long[] fibonacciPair(long n) {
+		long a = 0;		// F(k)
+		long b = 1;		// F(k+1)
+		for(int bit = 63 - Long.numberOfLeadingZeros(n); bit >= 0; bit--){
+			long c = a * (2 * b - a);
+			long d = a * a + b * b;
+			if(((n >>> bit) & 1) == 0){
+				a = c;
+				b = d;
+			} else {
+				a = d;
+				b = c + d;
+			}
+		}
+		return new long[]{a, b};
+	}
+	
+	static BigInteger[] exactFibonacciPair(long n) {
+		BigInteger a = BigInteger.ZERO;
+		BigInteger b = BigInteger.ONE;
+		for(int bit = 63 - Long.numberOfLeadingZeros(n); bit >= 0; bit--){
+			BigInteger c = a.multiply(b.shiftLeft(1).subtract(a));
+			BigInteger d = a.multiply(a).add(b.multiply(b));
+			if(((n >>> bit) & 1) == 0){
+				a = c;
+				b = d;
+			} else {
+				a = d;
+				b = c.add(d);
+			}
+		}
+		return new BigInteger[]{a, b};
+	}
+	
+	/**
+	 * x 에 점화식 x -> multiplier * x + increment 를 n 번 적용. 제곱을 반복해서 O(log n)
+	 */
+	static long lcgSkip(long x, long multiplier, long increment, long n) {
+		long accMultiplier = 1;
+		long accIncrement = 0;
+		long curMultiplier = multiplier;
+		long curIncrement = increment;
+		while(n > 0){
+			if((n & 1) != 0){
+				accMultiplier *= curMultiplier;
+				accIncrement = accIncrement * curMultiplier + curIncrement;
+			}
+			curIncrement *= curMultiplier + 1;
+			curMultiplier *= curMultiplier;
+			n >>>= 1;
+		}
+		return accMultiplier * x + accIncrement;
+	}
+	
+	private static final class CounterSpliterator extends JumpSpliterator {
+		private final long start;
+		private final long step;
+		private long value;
+		
+		CounterSpliterator(long start, long step, long from, long to) {
+			super(from, to);
+			this.start = start;
+			this.step = step;
+		}
+		
+		@Override
+		void jumpTo(long index) {
+			value = start + index * step;
+		}
+		
+		@Override
+		long current() {
+			return value;
+		}
+		
+		@Override
+		void next() {
+			value += step;
+		}
+		
+		@Override
+		JumpSpliterator slice(long from, long to) {
+			return new CounterSpliterator(start, step, from, to);
+		}
+	}
+	
+	private static final class FibonacciSpliterator extends JumpSpliterator {
+		private long a;		// F(i)
+		private long b;		// F(i+1)
+		
+		FibonacciSpliterator(long from, long to) {
+			super(from, to);
+		}
+		
+		@Override
+		void jumpTo(long index) {
+			long[] pair = fibonacciPair(index);
+			a = pair[0];
+			b = pair[1];
+		}
+		
+		@Override
+		long current() {
+			return a;
+		}
+		
+		@Override
+		void next() {
+			long next = a + b;
+			a = b;
+			b = next;
+		}
+		
+		@Override
+		JumpSpliterator slice(long from, long to) {
+			return new FibonacciSpliterator(from, to);
+		}
+	}
+	
+	private static final class LcgSpliterator extends JumpSpliterator {
+		private final long seed;
+		private final long multiplier;
+		private final long increment;
+		private long x;
+		
+		LcgSpliterator(long seed, long multiplier, long increment, long from, long to) {
+			super(from, to);
+			this.seed = seed;
+			this.multiplier = multiplier;
+			this.increment = increment;
+		}
+		
+		@Override
+		void jumpTo(long index) {
+			x = lcgSkip(seed, multiplier, increment, index);
+		}
+		
+		@Override
+		long current() {
+			return x;
+		}
+		
+		@Override
+		void next() {
+			x = multiplier * x + increment;
+		}
+		
+		@Override
+		JumpSpliterator slice(long from, long to) {
+			return new LcgSpliterator(seed, multiplier, increment, from, to);
+		}
+	}
+	
+	/**
+	 * BigInteger 피보나치. 값 자체가 커지므로 분할 기준을 long 수열보다 작게 둠
+	 * - end 가 Long.MAX_VALUE 면 끝이 없는 수열 : 가운데로 건너뛰면 2^62 번째 항을 계산하게 되므로
+	 *   SIZED 를 보고하지 않고, 앞에서부터 MIN_SPLIT_SIZE 부터 두 배씩 커지는 묶음만 떼어 줌
+	 */
+	private static final class BigFibonacciSpliterator implements Spliterator<BigInteger> {
+		private static final long MIN_SPLIT_SIZE = 64;
+		private static final long MAX_BATCH_SIZE = 1 << 16;
+		
+		private long index;
+		private final long end;
+		private long batch = MIN_SPLIT_SIZE;
+		private BigInteger a;
+		private BigInteger b;
+		
+		BigFibonacciSpliterator(long from, long to) {
+			this.index = from;
+			this.end = to;
+		}
+		
+		@Override
+		public boolean tryAdvance(Consumer<? super BigInteger> action) {
+			if(index >= end){
+				return false;
+			}
+			if(a == null){
+				BigInteger[] pair = exactFibonacciPair(index);
+				a = pair[0];
+				b = pair[1];
+			}
+			action.accept(a);
+			if(++index < end){
+				BigInteger next = a.add(b);
+				a = b;
+				b = next;
+			}
+			return true;
+		}
+		
+		@Override
+		public Spliterator<BigInteger> trySplit() {
+			long size = end - index;
+			if(size < MIN_SPLIT_SIZE){
+				return null;
+			}
+			long middle;
+			if(isUnbounded()){
+				middle = index + batch;
+				batch = Math.min(batch * 2, MAX_BATCH_SIZE);
+			} else {
+				middle = index + size / 2;
+			}
+			Spliterator<BigInteger> prefix = new BigFibonacciSpliterator(index, middle);
+			index = middle;
+			a = null;
+			b = null;
+			return prefix;
+		}
+		
+		@Override
+		public long estimateSize() {
+			return isUnbounded() ? Long.MAX_VALUE : end - index;
+		}
+		
+		@Override
+		public int characteristics() {
+			return isUnbounded() ? ORDERED | IMMUTABLE | NONNULL : ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+		}
+		
+		private boolean isUnbounded() {
+			return end == Long.MAX_VALUE;
+		}
+	}
+
+}
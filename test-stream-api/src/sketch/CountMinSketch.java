@@ -0,0 +1,163 @@
+package sketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 값별 빈도 추정 (Count-Min)
+ * - 메모리 : depth x width 개의 long. width = ceil(e / epsilon), depth = ceil(ln(1 / delta))
+ * - 오차 : 추정값은 실제 빈도 이상이고, 1 - delta 확률로 실제 빈도 + epsilon * 전체 개수 이하
+ * - 병합 : 칸별 합. 같은 width/depth 끼리만
+ */
+public final class CountMinSketch {
+	
+	private static final int MAGIC = 0x434D5331;		// "CMS1"
+	
+	private final int width;
+	private final int depth;
+	private final long[] table;
+	private long total;
+	
+	/**
+	 * @param epsilon 전체 개수 대비 허용 오차 (예: 0.001)
+	 * @param delta 오차를 넘을 확률 (예: 0.01)
+	 */
+	public CountMinSketch(double epsilon, double delta) {
+		this(width(epsilon), depth(delta));
+	}
+	
+	private CountMinSketch(int width, int depth) {
+		this.width = width;
+		this.depth = depth;
+		this.table = new long[width * depth];
+	}
+	
+	public void add(Object item) {
+		add(item, 1);
+	}
+	
+	/**
+	 * null 은 무시. 문자열, 정수, enum 외의 값은 toString() 으로 구분
+	 * @throws IllegalArgumentException toString() 을 재정의하지 않은 클래스의 객체
+	 */
+	public void add(Object item, long count) {
+		if(count < 0){
+			throw new IllegalArgumentException("count must be >= 0 : " + count);
+		}
+		if(item == null){
+			return;
+		}
+		long hash = Hashing.hash(item);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for(int i = 0; i < depth; i++){
+			table[i * width + index(h1 + i * h2)] += count;
+		}
+		total += count;
+	}
+	
+	/**
+	 * item 의 빈도 추정값 (실제 빈도 이상)
+	 */
+	public long estimate(Object item) {
+		if(item == null){
+			return 0;
+		}
+		long hash = Hashing.hash(item);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		long min = Long.MAX_VALUE;
+		for(int i = 0; i < depth; i++){
+			min = Math.min(min, table[i * width + index(h1 + i * h2)]);
+		}
+		return min;
+	}
+	
+	/**
+	 * 추가된 전체 개수
+	 */
+	public long getTotal() {
+		return total;
+	}
+	
+	/**
+	 * 1 - delta 확률로 보장되는 추정 오차 상한 (epsilon * 전체 개수)
+	 */
+	public long getErrorBound() {
+		return (long) Math.ceil(Math.E / width * total);
+	}
+	
+	public int getWidth() {
+		return width;
+	}
+	
+	public int getDepth() {
+		return depth;
+	}
+	
+	/**
+	 * other 의 값을 이 스케치에 합침
+	 */
+	public CountMinSketch merge(CountMinSketch other) {
+		if(other.width != width || other.depth != depth){
+			throw new IllegalArgumentException("size mismatch : " + width + "x" + depth + " / " + other.width + "x" + other.depth);
+		}
+		for(int i = 0; i < table.length; i++){
+			table[i] += other.table[i];
+		}
+		total += other.total;
+		return this;
+	}
+	
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(width);
+		out.writeInt(depth);
+		out.writeLong(total);
+		for(long cell : table){
+			out.writeLong(cell);
+		}
+	}
+	
+	public static CountMinSketch readFrom(DataInput in) throws IOException {
+		if(in.readInt() != MAGIC){
+			throw new IOException("not a CountMinSketch");
+		}
+		int width = in.readInt();
+		int depth = in.readInt();
+		if(width <= 0 || depth <= 0 || (long) width * depth > Integer.MAX_VALUE){
+			throw new IOException("invalid size : " + width + "x" + depth);
+		}
+		CountMinSketch sketch = new CountMinSketch(width, depth);
+		sketch.total = in.readLong();
+		for(int i = 0; i < sketch.table.length; i++){
+			sketch.table[i] = in.readLong();
+		}
+		return sketch;
+	}
+	
+	private int index(int hash) {
+		return (int) ((hash & 0xFFFFFFFFL) % width);
+	}
+	
+	private static int width(double epsilon) {
+		if(!(epsilon > 0 && epsilon < 1)){
+			throw new IllegalArgumentException("epsilon must be 0 ~ 1 : " + epsilon);
+		}
+		return (int) Math.ceil(Math.E / epsilon);
+	}
+	
+	private static int depth(double delta) {
+		if(!(delta > 0 && delta < 1)){
+			throw new IllegalArgumentException("delta must be 0 ~ 1 : " + delta);
+		}
+		return (int) Math.ceil(Math.log(1 / delta));
+	}
+
+	@Override
+	public String toString() {
+		return "CountMinSketch [width=" + width + ", depth=" + depth + ", total=" + total + "]";
+	}
+
+}
@@ -0,0 +1,68 @@
+package sketch;
+
+/**
+ * 스케치용 64비트 해시. 다른 JVM 에서 만든 스케치와 병합할 수 있도록 hashCode() 에 의존하지 않음
+ * - 문자열 : 문자 단위 FNV-1a 후 murmur3 fmix64 로 섞음 (String.hashCode 는 32비트라 수십억 건에서 충돌이 많음)
+ * - Long/Integer 등 정수 : 값을 그대로 섞음
+ * - enum : name() 의 문자열 해시
+ * - 그 밖의 객체 : toString() 의 문자열 해시. toString() 을 재정의하지 않은 클래스(실행마다 값이 달라짐)는 거부
+ */
+final class Hashing {
+	
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	
+	/** 클래스가 Object.toString() 을 그대로 쓰는지 */
+	private static final ClassValue<Boolean> IDENTITY_TO_STRING = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("toString").getDeclaringClass() == Object.class;
+			} catch (NoSuchMethodException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	};
+	
+	private Hashing() {}
+	
+	/**
+	 * @throws IllegalArgumentException toString() 을 재정의하지 않은 클래스의 객체
+	 */
+	static long hash(Object item) {
+		if(item instanceof CharSequence){
+			return text((CharSequence) item);
+		}
+		if(item instanceof Long || item instanceof Integer || item instanceof Short || item instanceof Byte){
+			return mix(((Number) item).longValue());
+		}
+		if(item instanceof Enum){
+			return text(((Enum<?>) item).name());
+		}
+		if(IDENTITY_TO_STRING.get(item.getClass())){
+			throw new IllegalArgumentException("no stable hash for " + item.getClass().getName() + " (override toString() or add a String key)");
+		}
+		return text(item.toString());
+	}
+	
+	/**
+	 * murmur3 fmix64
+	 */
+	static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return value;
+	}
+	
+	private static long text(CharSequence text) {
+		long hash = FNV_OFFSET;
+		for(int i = 0; i < text.length(); i++){
+			hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+		}
+		return mix(hash ^ text.length());
+	}
+
+}
@@ -0,0 +1,159 @@
+package sketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 서로 다른 값의 개수 추정 (HyperLogLog)
+ * - 메모리 : 2^precision 바이트 (precision 14 = 16KB). 값이 몇 개든 늘지 않음
+ * - 표준 오차 : 1.04 / sqrt(2^precision) (precision 14 = 약 0.81%, 약 95% 확률로 ±1.6% 이내)
+ * - 개수가 작을 때(빈 레지스터가 많을 때)도 같은 식으로 보정되어 별도 linear counting 이 필요 없음
+ * - 병합 : 레지스터별 최댓값. 같은 precision 끼리만. 병합 결과는 두 입력을 합쳐서 만든 것과 같음
+ */
+public final class HyperLogLog {
+	
+	public static final int DEFAULT_PRECISION = 14;
+	
+	private static final int MAGIC = 0x484C4C31;		// "HLL1"
+	
+	private final int precision;
+	private final byte[] registers;
+	
+	public HyperLogLog() {
+		this(DEFAULT_PRECISION);
+	}
+	
+	/**
+	 * @param precision 4 ~ 18. 레지스터 수 2^precision
+	 */
+	public HyperLogLog(int precision) {
+		if(precision < 4 || precision > 18){
+			throw new IllegalArgumentException("precision must be 4 ~ 18 : " + precision);
+		}
+		this.precision = precision;
+		this.registers = new byte[1 << precision];
+	}
+	
+	/**
+	 * null 은 무시. 문자열, 정수, enum 외의 값은 toString() 으로 구분
+	 * @throws IllegalArgumentException toString() 을 재정의하지 않은 클래스의 객체
+	 */
+	public void add(Object item) {
+		if(item != null){
+			addHash(Hashing.hash(item));
+		}
+	}
+	
+	public void addLong(long value) {
+		addHash(Hashing.mix(value));
+	}
+	
+	/**
+	 * 상위 precision 비트로 레지스터를 고르고, 나머지 비트의 앞쪽 0 개수 + 1 을 최댓값으로 기록
+	 */
+	void addHash(long hash) {
+		int index = (int) (hash >>> (64 - precision));
+		int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+		if(rank > registers[index]){
+			registers[index] = (byte) rank;
+		}
+	}
+	
+	/**
+	 * Ertl(2017) 의 개선된 추정식. 레지스터 값별 개수만으로 계산하며, 작은 개수와 큰 개수 사이 구간에서도 편향이 없음
+	 */
+	public long estimate() {
+		int m = registers.length;
+		int q = 64 - precision;
+		int[] histogram = new int[q + 2];
+		for(byte register : registers){
+			histogram[register]++;
+		}
+		double z = m * tau(1 - (double) histogram[q + 1] / m);
+		for(int k = q; k >= 1; k--){
+			z = (z + histogram[k]) * 0.5;
+		}
+		z += m * sigma((double) histogram[0] / m);
+		return Math.round(m * m / (2 * Math.log(2)) / z);
+	}
+	
+	/**
+	 * other 의 값을 이 스케치에 합침
+	 */
+	public HyperLogLog merge(HyperLogLog other) {
+		if(other.precision != precision){
+			throw new IllegalArgumentException("precision mismatch : " + precision + " / " + other.precision);
+		}
+		for(int i = 0; i < registers.length; i++){
+			if(other.registers[i] > registers[i]){
+				registers[i] = other.registers[i];
+			}
+		}
+		return this;
+	}
+	
+	public int getPrecision() {
+		return precision;
+	}
+	
+	/**
+	 * 추정값의 상대 표준 오차
+	 */
+	public double getStandardError() {
+		return 1.04 / Math.sqrt(registers.length);
+	}
+	
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeByte(precision);
+		out.write(registers);
+	}
+	
+	public static HyperLogLog readFrom(DataInput in) throws IOException {
+		if(in.readInt() != MAGIC){
+			throw new IOException("not a HyperLogLog sketch");
+		}
+		HyperLogLog sketch = new HyperLogLog(in.readByte());
+		in.readFully(sketch.registers);
+		return sketch;
+	}
+	
+	private static double sigma(double x) {
+		if(x == 1){
+			return Double.POSITIVE_INFINITY;
+		}
+		double y = 1;
+		double z = x;
+		double previous;
+		do{
+			x *= x;
+			previous = z;
+			z += x * y;
+			y += y;
+		}while(z != previous);
+		return z;
+	}
+	
+	private static double tau(double x) {
+		if(x == 0 || x == 1){
+			return 0;
+		}
+		double y = 1;
+		double z = 1 - x;
+		double previous;
+		do{
+			x = Math.sqrt(x);
+			previous = z;
+			y *= 0.5;
+			z -= (1 - x) * (1 - x) * y;
+		}while(z != previous);
+		return z / 3;
+	}
+
+	@Override
+	public String toString() {
+		return "HyperLogLog [precision=" + precision + ", estimate=" + estimate() + "]";
+	}
+
+}
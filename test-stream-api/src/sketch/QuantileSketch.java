@@ -0,0 +1,310 @@
+package sketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 분위수(중앙값, p90 ...) 추정 (DDSketch 방식)
+ * - 값을 (gamma^(i-1), gamma^i] 구간의 개수로만 저장. gamma = (1 + alpha) / (1 - alpha)
+ * - 오차 : 분위수 추정값과 실제 분위수 값의 상대 오차가 alpha 이하 (0.01 이면 나이 50 은 49.5 ~ 50.5)
+ * - 메모리 : 값 범위의 로그에 비례. 양수/음수 각각 최대 maxBins 개 구간, 넘치면 0 에 가까운 구간부터 합침
+ *   (alpha 0.01, 2048 구간이면 최댓값/최솟값 비율 e^40 까지 오차 보장)
+ * - 개수, 합계, 최솟값, 최댓값은 정확한 값
+ * - 병합 : 구간별 합. 같은 alpha 끼리만
+ * <pre>
+ * QuantileSketch ages = contacts.stream().mapToInt(Contact::getAge)
+ * 		.collect(() -&gt; new QuantileSketch(0.01), QuantileSketch::add, QuantileSketch::merge);
+ * ages.quantile(0.5);
+ * </pre>
+ */
+public final class QuantileSketch {
+	
+	public static final double DEFAULT_ACCURACY = 0.01;
+	public static final int DEFAULT_MAX_BINS = 2048;
+	
+	private static final int MAGIC = 0x51534B31;		// "QSK1"
+	
+	private final double alpha;
+	private final int maxBins;
+	private final double gamma;
+	private final double logGamma;
+	private final Bins positives;
+	private final Bins negatives;
+	private long zeroCount;
+	private long count;
+	private double sum;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+	
+	public QuantileSketch() {
+		this(DEFAULT_ACCURACY);
+	}
+	
+	/**
+	 * @param alpha 상대 오차 (0 ~ 1)
+	 */
+	public QuantileSketch(double alpha) {
+		this(alpha, DEFAULT_MAX_BINS);
+	}
+	
+	public QuantileSketch(double alpha, int maxBins) {
+		if(!(alpha > 0 && alpha < 1)){
+			throw new IllegalArgumentException("alpha must be 0 ~ 1 : " + alpha);
+		}
+		if(maxBins <= 0){
+			throw new IllegalArgumentException("maxBins must be > 0 : " + maxBins);
+		}
+		this.alpha = alpha;
+		this.maxBins = maxBins;
+		this.gamma = (1 + alpha) / (1 - alpha);
+		this.logGamma = Math.log(gamma);
+		this.positives = new Bins(maxBins);
+		this.negatives = new Bins(maxBins);
+	}
+	
+	public void add(double value) {
+		add(value, 1);
+	}
+	
+	/**
+	 * NaN 은 무시
+	 */
+	public void add(double value, long n) {
+		if(n < 0){
+			throw new IllegalArgumentException("count must be >= 0 : " + n);
+		}
+		if(Double.isNaN(value) || n == 0){
+			return;
+		}
+		if(value >= Double.MIN_NORMAL){
+			positives.add(index(value), n);
+		}else if(value <= -Double.MIN_NORMAL){
+			negatives.add(index(-value), n);
+		}else{
+			zeroCount += n;
+		}
+		count += n;
+		sum += value * n;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+	
+	/**
+	 * q 분위수 (0 = 최솟값, 0.5 = 중앙값, 1 = 최댓값). 값이 없으면 NaN
+	 */
+	public double quantile(double q) {
+		if(q < 0 || q > 1){
+			throw new IllegalArgumentException("q must be 0 ~ 1 : " + q);
+		}
+		if(count == 0){
+			return Double.NaN;
+		}
+		if(q == 0){
+			return min;
+		}
+		if(q == 1){
+			return max;
+		}
+		double rank = q * (count - 1);
+		long seen = 0;
+		for(int i = negatives.length - 1; i >= 0; i--){
+			seen += negatives.counts[i];
+			if(seen > rank){
+				return clamp(-value(negatives.offset + i));
+			}
+		}
+		seen += zeroCount;
+		if(seen > rank){
+			return 0;
+		}
+		for(int i = 0; i < positives.length; i++){
+			seen += positives.counts[i];
+			if(seen > rank){
+				return clamp(value(positives.offset + i));
+			}
+		}
+		return max;
+	}
+	
+	public double[] quantiles(double... qs) {
+		double[] values = new double[qs.length];
+		for(int i = 0; i < qs.length; i++){
+			values[i] = quantile(qs[i]);
+		}
+		return values;
+	}
+	
+	public long getCount() {
+		return count;
+	}
+	
+	public double getSum() {
+		return sum;
+	}
+	
+	public double getAverage() {
+		return count == 0 ? Double.NaN : sum / count;
+	}
+	
+	public double getMin() {
+		return min;
+	}
+	
+	public double getMax() {
+		return max;
+	}
+	
+	public double getRelativeAccuracy() {
+		return alpha;
+	}
+	
+	/**
+	 * other 의 값을 이 스케치에 합침
+	 */
+	public QuantileSketch merge(QuantileSketch other) {
+		if(Double.compare(other.alpha, alpha) != 0){
+			throw new IllegalArgumentException("alpha mismatch : " + alpha + " / " + other.alpha);
+		}
+		positives.addAll(other.positives);
+		negatives.addAll(other.negatives);
+		zeroCount += other.zeroCount;
+		count += other.count;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		return this;
+	}
+	
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeDouble(alpha);
+		out.writeInt(maxBins);
+		out.writeLong(count);
+		out.writeLong(zeroCount);
+		out.writeDouble(sum);
+		out.writeDouble(min);
+		out.writeDouble(max);
+		positives.writeTo(out);
+		negatives.writeTo(out);
+	}
+	
+	public static QuantileSketch readFrom(DataInput in) throws IOException {
+		if(in.readInt() != MAGIC){
+			throw new IOException("not a QuantileSketch");
+		}
+		QuantileSketch sketch = new QuantileSketch(in.readDouble(), in.readInt());
+		sketch.count = in.readLong();
+		sketch.zeroCount = in.readLong();
+		sketch.sum = in.readDouble();
+		sketch.min = in.readDouble();
+		sketch.max = in.readDouble();
+		sketch.positives.readFrom(in);
+		sketch.negatives.readFrom(in);
+		return sketch;
+	}
+	
+	private int index(double value) {
+		return (int) Math.ceil(Math.log(value) / logGamma);
+	}
+	
+	/**
+	 * 구간 (gamma^(i-1), gamma^i] 의 대표값. 구간 안 어떤 값과도 상대 오차 alpha 이하
+	 */
+	private double value(int index) {
+		return 2 * Math.exp(index * logGamma) / (gamma + 1);
+	}
+	
+	private double clamp(double value) {
+		return Math.max(min, Math.min(max, value));
+	}
+	
+	/**
+	 * 연속된 구간 번호 [offset, offset + length) 의 개수
+	 */
+	private static final class Bins {
+		
+		private final int maxBins;
+		private long[] counts = new long[0];
+		private int offset;
+		private int length;
+		
+		Bins(int maxBins) {
+			this.maxBins = maxBins;
+		}
+		
+		void add(int index, long n) {
+			if(length == 0){
+				counts = new long[Math.min(maxBins, 16)];
+				offset = index;
+				length = 1;
+			}else if(index < offset || index >= offset + length){
+				index = extend(index);
+			}
+			counts[index - offset] += n;
+		}
+		
+		void addAll(Bins other) {
+			for(int i = 0; i < other.length; i++){
+				if(other.counts[i] != 0){
+					add(other.offset + i, other.counts[i]);
+				}
+			}
+		}
+		
+		/**
+		 * 범위를 index 까지 넓힘. maxBins 를 넘으면 아래쪽 구간을 합치고, 합쳐진 뒤의 index 를 돌려줌
+		 */
+		private int extend(int index) {
+			long low = Math.min(offset, index);
+			long high = Math.max((long) offset + length - 1, index);
+			if(high - low + 1 > maxBins){
+				low = high - maxBins + 1;
+			}
+			int newOffset = (int) low;
+			int newLength = (int) (high - low + 1);
+			long[] newCounts = counts.length >= newLength ? new long[counts.length] : new long[Math.min(maxBins, Math.max(newLength, counts.length * 2))];
+			for(int i = 0; i < length; i++){
+				int target = Math.max(offset + i, newOffset) - newOffset;
+				newCounts[target] += counts[i];
+			}
+			counts = newCounts;
+			offset = newOffset;
+			length = newLength;
+			return Math.max(index, newOffset);
+		}
+		
+		void writeTo(DataOutput out) throws IOException {
+			out.writeInt(offset);
+			out.writeInt(length);
+			for(int i = 0; i < length; i++){
+				out.writeLong(counts[i]);
+			}
+		}
+		
+		void readFrom(DataInput in) throws IOException {
+			offset = in.readInt();
+			length = in.readInt();
+			if(length < 0 || length > maxBins){
+				throw new IOException("invalid bin count : " + length);
+			}
+			counts = new long[length];
+			for(int i = 0; i < length; i++){
+				counts[i] = in.readLong();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return Arrays.toString(Arrays.copyOf(counts, length));
+		}
+	
+	}
+
+	@Override
+	public String toString() {
+		return "QuantileSketch [count=" + count + ", min=" + min + ", median=" + quantile(0.5) + ", max=" + max + "]";
+	}
+
+}
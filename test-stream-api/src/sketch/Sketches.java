@@ -0,0 +1,69 @@
+package sketch;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * 확률적 스케치 Collector 팩토리
+ * - 메모리가 입력 크기와 무관하고, 병렬 스트림에서는 쓰레드별 스케치를 merge 로 합침
+ * - 결과 스케치는 writeTo/readFrom 으로 저장했다가 다른 파일의 결과와 merge 할 수 있음
+ * <pre>
+ * long cities = contacts.stream().collect(Sketches.distinctCount(Contact::getCity));
+ * List&lt;SpaceSaving.Counter&gt; top = contacts.stream().collect(Sketches.topK(Contact::getCity, 100)).top(10);
+ * double median = contacts.stream().collect(Sketches.quantiles(Contact::getAge)).quantile(0.5);
+ * </pre>
+ */
+public class Sketches {
+	
+	private Sketches() {}
+	
+	/**
+	 * 서로 다른 key 의 개수 추정값 (표준 오차 약 0.81%)
+	 * @see HyperLogLog
+	 */
+	public static <T> Collector<T, ?, Long> distinctCount(Function<? super T, ?> key) {
+		return Collector.of(HyperLogLog::new, (sketch, t) -> sketch.add(key.apply(t)), HyperLogLog::merge, HyperLogLog::estimate,
+				Collector.Characteristics.UNORDERED);
+	}
+	
+	public static <T> Collector<T, ?, HyperLogLog> hyperLogLog(Function<? super T, ?> key) {
+		return hyperLogLog(key, HyperLogLog.DEFAULT_PRECISION);
+	}
+	
+	public static <T> Collector<T, ?, HyperLogLog> hyperLogLog(Function<? super T, ?> key, int precision) {
+		return Collector.of(() -> new HyperLogLog(precision), (sketch, t) -> sketch.add(key.apply(t)), HyperLogLog::merge,
+				Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+	}
+	
+	/**
+	 * @see CountMinSketch
+	 */
+	public static <T> Collector<T, ?, CountMinSketch> countMin(Function<? super T, ?> key, double epsilon, double delta) {
+		return Collector.of(() -> new CountMinSketch(epsilon, delta), (sketch, t) -> sketch.add(key.apply(t)), CountMinSketch::merge,
+				Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+	}
+	
+	/**
+	 * 자주 나오는 key. 결과의 top(n) 으로 상위 n 개를 얻음
+	 * @see SpaceSaving
+	 */
+	public static <T> Collector<T, ?, SpaceSaving> topK(Function<? super T, ?> key, int capacity) {
+		return Collector.of(() -> new SpaceSaving(capacity), (sketch, t) -> sketch.add(key.apply(t)), SpaceSaving::merge,
+				Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+	}
+	
+	/**
+	 * value 의 분위수 (상대 오차 1%)
+	 * @see QuantileSketch
+	 */
+	public static <T> Collector<T, ?, QuantileSketch> quantiles(ToDoubleFunction<? super T> value) {
+		return quantiles(value, QuantileSketch.DEFAULT_ACCURACY);
+	}
+	
+	public static <T> Collector<T, ?, QuantileSketch> quantiles(ToDoubleFunction<? super T> value, double alpha) {
+		return Collector.of(() -> new QuantileSketch(alpha), (sketch, t) -> sketch.add(value.applyAsDouble(t)), QuantileSketch::merge,
+				Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+}
@@ -0,0 +1,281 @@
+package sketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 자주 나오는 값 상위 k 개 추정 (Space-Saving)
+ * - 메모리 : 카운터 capacity 개. 새 값이 들어오면 가장 작은 카운터를 빼앗아 그 개수에 이어서 셈
+ * - 오차 : 카운터 값은 실제 빈도 이상이고, (카운터 값 - error) 는 실제 빈도 이하.
+ *   error 는 전체 개수 / capacity 를 넘지 않으며, 빈도가 전체 개수 / capacity 보다 큰 값은 반드시 남음
+ * - 병합 : 양쪽 카운터를 더하고 상위 capacity 개만 남김. 한쪽이 가득 찼는데 값이 없으면 그쪽 최솟값을 더함
+ * - 값은 문자열로 저장 (직렬화 후 다른 파일의 스케치와 합치기 위해)
+ */
+public final class SpaceSaving {
+	
+	private static final int MAGIC = 0x53535331;		// "SSS1"
+	
+	private static final Comparator<Counter> BY_COUNT = Comparator.comparingLong(Counter::getCount).reversed()
+			.thenComparingLong(Counter::getError)
+			.thenComparing(Counter::getItem);
+	
+	/**
+	 * 값 하나의 카운터
+	 */
+	public static final class Counter {
+		
+		private final String item;
+		private long count;
+		private long error;
+		private int heapIndex;
+		
+		private Counter(String item, long count, long error) {
+			this.item = item;
+			this.count = count;
+			this.error = error;
+		}
+		
+		public String getItem() {
+			return item;
+		}
+		
+		/**
+		 * 빈도 추정값 (실제 빈도 이상)
+		 */
+		public long getCount() {
+			return count;
+		}
+		
+		/**
+		 * 최대 과대 추정량
+		 */
+		public long getError() {
+			return error;
+		}
+		
+		/**
+		 * 보장되는 최소 빈도 (count - error)
+		 */
+		public long getGuaranteedCount() {
+			return count - error;
+		}
+
+		@Override
+		public String toString() {
+			return item + "=" + count + (error > 0 ? "(-" + error + ")" : "");
+		}
+	
+	}
+	
+	private final int capacity;
+	private final Map<String, Counter> counters;
+	private final Counter[] heap;
+	private int size;
+	private long total;
+	
+	/**
+	 * @param capacity 유지할 카운터 수. 상위 k 개를 원하면 k 의 몇 배로 잡아야 순위가 정확해짐
+	 */
+	public SpaceSaving(int capacity) {
+		if(capacity <= 0){
+			throw new IllegalArgumentException("capacity must be > 0 : " + capacity);
+		}
+		this.capacity = capacity;
+		this.counters = new HashMap<>(capacity * 2);
+		this.heap = new Counter[capacity];
+	}
+	
+	public void add(Object item) {
+		add(item, 1);
+	}
+	
+	/**
+	 * null 은 무시. 값은 toString() 으로 저장
+	 */
+	public void add(Object item, long count) {
+		if(count < 0){
+			throw new IllegalArgumentException("count must be >= 0 : " + count);
+		}
+		if(item == null || count == 0){
+			return;
+		}
+		total += count;
+		String key = item.toString();
+		Counter counter = counters.get(key);
+		if(counter != null){
+			counter.count += count;
+			siftDown(counter.heapIndex);
+		}else if(size < capacity){
+			push(new Counter(key, count, 0));
+		}else{
+			Counter min = heap[0];
+			counters.remove(min.item);
+			Counter replaced = new Counter(key, min.count + count, min.count);
+			replaced.heapIndex = 0;
+			heap[0] = replaced;
+			counters.put(key, replaced);
+			siftDown(0);
+		}
+	}
+	
+	/**
+	 * item 의 빈도 추정값. 카운터가 없으면 가득 찬 경우 최솟값(그 이하), 아니면 0
+	 */
+	public long estimate(Object item) {
+		Counter counter = item == null ? null : counters.get(item.toString());
+		if(counter != null){
+			return counter.count;
+		}
+		return minCount();
+	}
+	
+	/**
+	 * 빈도 추정값이 큰 순으로 최대 n 개
+	 */
+	public List<Counter> top(int n) {
+		Counter[] sorted = Arrays.copyOf(heap, size);
+		Arrays.sort(sorted, BY_COUNT);
+		return new ArrayList<>(Arrays.asList(sorted).subList(0, Math.min(n, size)));
+	}
+	
+	/**
+	 * 추가된 전체 개수
+	 */
+	public long getTotal() {
+		return total;
+	}
+	
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * other 의 값을 이 스케치에 합침. 같은 capacity 끼리만
+	 */
+	public SpaceSaving merge(SpaceSaving other) {
+		if(other.capacity != capacity){
+			throw new IllegalArgumentException("capacity mismatch : " + capacity + " / " + other.capacity);
+		}
+		long minThis = minCount();
+		long minOther = other.minCount();
+		Map<String, Counter> merged = new HashMap<>((size + other.size) * 2);
+		for(int i = 0; i < size; i++){
+			Counter c = heap[i];
+			merged.put(c.item, new Counter(c.item, c.count + minOther, c.error + minOther));
+		}
+		for(int i = 0; i < other.size; i++){
+			Counter c = other.heap[i];
+			Counter mine = merged.get(c.item);
+			if(mine == null){
+				merged.put(c.item, new Counter(c.item, c.count + minThis, c.error + minThis));
+			}else{
+				mine.count += c.count - minOther;
+				mine.error += c.error - minOther;
+			}
+		}
+		List<Counter> all = new ArrayList<>(merged.values());
+		all.sort(BY_COUNT);
+		Arrays.fill(heap, 0, size, null);
+		counters.clear();
+		size = 0;
+		for(Counter c : all.subList(0, Math.min(capacity, all.size()))){
+			push(c);
+		}
+		total += other.total;
+		return this;
+	}
+	
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(capacity);
+		out.writeLong(total);
+		out.writeInt(size);
+		for(int i = 0; i < size; i++){
+			out.writeUTF(heap[i].item);
+			out.writeLong(heap[i].count);
+			out.writeLong(heap[i].error);
+		}
+	}
+	
+	public static SpaceSaving readFrom(DataInput in) throws IOException {
+		if(in.readInt() != MAGIC){
+			throw new IOException("not a SpaceSaving sketch");
+		}
+		SpaceSaving sketch = new SpaceSaving(in.readInt());
+		sketch.total = in.readLong();
+		int size = in.readInt();
+		if(size < 0 || size > sketch.capacity){
+			throw new IOException("invalid size : " + size);
+		}
+		for(int i = 0; i < size; i++){
+			sketch.push(new Counter(in.readUTF(), in.readLong(), in.readLong()));
+		}
+		return sketch;
+	}
+	
+	/**
+	 * 가득 찼을 때 카운터가 없는 값의 최대 빈도
+	 */
+	private long minCount() {
+		return size < capacity ? 0 : heap[0].count;
+	}
+	
+	private void push(Counter counter) {
+		counter.heapIndex = size;
+		heap[size++] = counter;
+		counters.put(counter.item, counter);
+		siftUp(counter.heapIndex);
+	}
+	
+	private void siftUp(int index) {
+		Counter counter = heap[index];
+		while(index > 0){
+			int parent = (index - 1) >>> 1;
+			if(heap[parent].count <= counter.count){
+				break;
+			}
+			place(heap[parent], index);
+			index = parent;
+		}
+		place(counter, index);
+	}
+	
+	private void siftDown(int index) {
+		Counter counter = heap[index];
+		int half = size >>> 1;
+		while(index < half){
+			int child = 2 * index + 1;
+			if(child + 1 < size && heap[child + 1].count < heap[child].count){
+				child++;
+			}
+			if(counter.count <= heap[child].count){
+				break;
+			}
+			place(heap[child], index);
+			index = child;
+		}
+		place(counter, index);
+	}
+	
+	private void place(Counter counter, int index) {
+		heap[index] = counter;
+		counter.heapIndex = index;
+	}
+
+	@Override
+	public String toString() {
+		return "SpaceSaving [capacity=" + capacity + ", total=" + total + ", top=" + top(10) + "]";
+	}
+
+}